@@ -0,0 +1,7 @@
+#!/bin/sh
+# Runs the JMH benchmarks under src/test/java/.../benchmark, e.g. ./benchmarks.sh AuthFilterBenchmark
+# Benchmarks that boot the application use the database configured in application.properties.
+set -e
+cd "$(dirname "$0")"
+sh ./mvnw -q test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/benchmark.classpath
+exec java -cp "target/test-classes:target/classes:$(cat target/benchmark.classpath)" org.openjdk.jmh.Main "$@"
@@ -7,12 +7,13 @@ const statusStyles = {
 const ProductCard = ({ product, onAdd, onViewDetails, onOrderNow }) => {
   const statusStyle = statusStyles[product.status] ?? { background: '#e2e8f0', color: '#0f172a' };
   const canAdd = product.status === 'IN_STOCK';
+  const imageUrl = product.imageVariants?.card ?? product.imageUrl;
 
   return (
     <div className="card" style={{ display: 'flex', flexDirection: 'column', gap: '0.75rem' }}>
       {product.imageUrl && (
         <img
-          src={product.imageUrl.startsWith('http') ? product.imageUrl : `http://localhost:8080${product.imageUrl}`}
+          src={imageUrl.startsWith('http') ? imageUrl : `http://localhost:8080${imageUrl}`}
           alt={product.productName}
           style={{ width: '100%', height: 180, objectFit: 'cover', borderRadius: 12 }}
           onError={(e) => {
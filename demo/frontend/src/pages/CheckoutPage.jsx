@@ -13,6 +13,8 @@ const CheckoutPage = () => {
   const [deliveryAddress, setDeliveryAddress] = useState(user?.deliveryAddress || '');
   const [paymentMethod, setPaymentMethod] = useState('CASH');
   const [deliveryNotes, setDeliveryNotes] = useState('');
+  // One key per checkout visit so a retried submit cannot create a second order
+  const [idempotencyKey] = useState(() => crypto.randomUUID());
 
   // Check if this is a direct order (not from cart)
   const directOrder = location.state?.directOrder;
@@ -36,6 +38,12 @@ const CheckoutPage = () => {
   const placeOrder = useMutation({
     mutationFn: (orderData) => {
       console.log('Placing order with data:', orderData);
+      if (orderData.fromCart) {
+        const { fromCart, ...checkoutData } = orderData;
+        return client.post('/cart/checkout', checkoutData, {
+          headers: { 'Idempotency-Key': idempotencyKey }
+        });
+      }
       return client.post('/orders', orderData);
     },
     onSuccess: (response) => {
@@ -155,22 +163,15 @@ const CheckoutPage = () => {
         }
       }
       
+      // The server reads the cart itself and removes the ordered lines in the same transaction
       orderData = {
-        items: itemsToOrder.map(item => ({
-          productId: Number(item.productId), // Ensure it's a number
-          quantity: Number(item.quantity) // Ensure it's a number
-        })).filter(item => item.productId && item.quantity > 0), // Filter out invalid items
+        fromCart: true,
+        cartItemIds: itemsToOrder.map(item => item.cartItemId),
         deliveryMethod: deliveryMethod.toUpperCase(), // Ensure uppercase
         deliveryAddress: deliveryMethod === 'DELIVERY' ? deliveryAddress.trim() : null,
         paymentMethod: paymentMethod.toUpperCase(), // Ensure uppercase
         deliveryNotes: (deliveryNotes && deliveryNotes.trim()) || null
       };
-      
-      // Validate order data
-      if (!orderData.items || orderData.items.length === 0) {
-        alert('No valid items in order');
-        return;
-      }
     }
 
     if (window.confirm('Place this order?')) {
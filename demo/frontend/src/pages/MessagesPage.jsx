@@ -1,37 +1,154 @@
-import { useState } from 'react';
+import { useEffect, useState } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
-import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
+import { useInfiniteQuery, useMutation, useQueryClient } from '@tanstack/react-query';
 import client from '../services/client';
+import { subscribeToMessages } from '../services/messageStream';
 import { useAuth } from '../context/AuthContext';
 
+const PAGE_SIZE = 30;
+const PREVIEW_LENGTH = 200;
+
+const nextCursor = (lastPage) => (lastPage.hasMore ? lastPage.nextCursor : undefined);
+
+// Pages hold newest items first, so a new message goes to the front of the first page
+const withMessage = (data, message) => {
+  if (!data || data.pages.some((page) => page.items.some((item) => item.messageId === message.messageId))) {
+    return data;
+  }
+  const [first, ...rest] = data.pages;
+  return { ...data, pages: [{ ...first, items: [message, ...first.items] }, ...rest] };
+};
+
+const withThreadUpdate = (data, otherUserId, message, unreadDelta) => {
+  const current = data?.pages.flatMap((page) => page.items).find((item) => item.otherUserId === otherUserId);
+  if (!current) return null;
+  const updated = {
+    ...current,
+    lastSenderId: message.senderId,
+    lastMessagePreview: message.content.slice(0, PREVIEW_LENGTH),
+    lastMessageAt: message.sentDate,
+    unreadCount: current.unreadCount + unreadDelta
+  };
+  const pages = data.pages.map((page) => ({
+    ...page,
+    items: page.items.filter((item) => item.conversationId !== current.conversationId)
+  }));
+  pages[0] = { ...pages[0], items: [updated, ...pages[0].items] };
+  return { ...data, pages };
+};
+
 const MessagesPage = () => {
   const { farmerId } = useParams();
+  const otherUserId = farmerId ? Number(farmerId) : null;
   const navigate = useNavigate();
-  const { user } = useAuth();
+  const { user, token } = useAuth();
   const queryClient = useQueryClient();
   const [messageText, setMessageText] = useState('');
 
-  const { data: messages = [], isLoading } = useQuery({
-    queryKey: ['messages', farmerId],
-    queryFn: async () => {
-      if (farmerId) {
-        return (await client.get(`/messages/farmer/${farmerId}`)).data;
-      }
-      return (await client.get('/messages')).data;
-    },
-    enabled: !!user,
-    refetchInterval: 5000 // Poll every 5 seconds for new messages
+  const threads = useInfiniteQuery({
+    queryKey: ['conversations'],
+    queryFn: async ({ pageParam }) =>
+      (await client.get('/messages/conversations', { params: { cursor: pageParam, size: PAGE_SIZE } })).data,
+    initialPageParam: null,
+    getNextPageParam: nextCursor,
+    enabled: !!user && !otherUserId
   });
 
-  const sendMessage = useMutation({
-    mutationFn: (content) => {
-      if (farmerId) {
-        return client.post('/messages', { receiverId: farmerId, content });
+  const thread = useInfiniteQuery({
+    queryKey: ['thread', otherUserId],
+    queryFn: async ({ pageParam }) =>
+      (await client.get(`/messages/with/${otherUserId}`, { params: { cursor: pageParam, size: PAGE_SIZE } })).data,
+    initialPageParam: null,
+    getNextPageParam: nextCursor,
+    enabled: !!user && !!otherUserId
+  });
+
+  // Oldest at the top, as the thread reads
+  const messages = thread.data ? thread.data.pages.flatMap((page) => page.items).reverse() : [];
+  const conversations = threads.data ? threads.data.pages.flatMap((page) => page.items) : [];
+  const conversationId = thread.data?.pages[0]?.conversationId;
+  const newestUnreadId = thread.data?.pages[0]?.items.find(
+    (message) => message.recipientId === user?.id && !message.isRead
+  )?.messageId;
+
+  // Pushed events are applied to what is already loaded; only a thread the cache has not seen is fetched
+  const applyMessage = (message) => {
+    const other = message.senderId === user.id ? message.recipientId : message.senderId;
+    const loaded = queryClient.getQueryData(['thread', other]);
+    if (loaded && !loaded.pages[0].conversationId) {
+      // The first message of a thread: fetch it once to learn the conversation id
+      queryClient.invalidateQueries({ queryKey: ['thread', other] });
+    } else {
+      queryClient.setQueryData(['thread', other], (data) => withMessage(data, message));
+    }
+    const unreadDelta = message.recipientId === user.id ? 1 : 0;
+    const data = queryClient.getQueryData(['conversations']);
+    const updated = withThreadUpdate(data, other, message, unreadDelta);
+    if (updated) {
+      queryClient.setQueryData(['conversations'], updated);
+    } else if (data) {
+      queryClient.invalidateQueries({ queryKey: ['conversations'] });
+    }
+  };
+
+  const applyReadReceipt = (receipt) => {
+    queryClient.setQueryData(['thread', receipt.readerId], (data) => data && {
+      ...data,
+      pages: data.pages.map((page) => ({
+        ...page,
+        items: page.items.map((message) => {
+          const read = receipt.messageIds
+            ? receipt.messageIds.includes(message.messageId)
+            : message.messageId <= receipt.upToMessageId;
+          return message.recipientId === receipt.readerId && read ? { ...message, isRead: true } : message;
+        })
+      }))
+    });
+  };
+
+  useEffect(() => {
+    if (!user || !token) return undefined;
+    return subscribeToMessages(token, (event, payload) => {
+      if (event === 'message') {
+        applyMessage(payload);
+      } else if (event === 'read') {
+        applyReadReceipt(payload);
+      } else if (event === 'resync') {
+        // Too much was missed to replay; reload whatever is on screen
+        queryClient.invalidateQueries({ queryKey: ['conversations'] });
+        queryClient.invalidateQueries({ queryKey: ['thread'] });
       }
-      throw new Error('Farmer ID required');
-    },
-    onSuccess: () => {
-      queryClient.invalidateQueries({ queryKey: ['messages', farmerId] });
+    });
+  }, [user, token, queryClient]);
+
+  // Up to the newest message shown, so one arriving meanwhile stays unread
+  useEffect(() => {
+    if (!conversationId || !newestUnreadId) return;
+    client.patch(`/messages/conversations/${conversationId}/read`, null, { params: { upTo: newestUnreadId } })
+      .then(() => {
+        queryClient.setQueryData(['thread', otherUserId], (data) => data && {
+          ...data,
+          pages: data.pages.map((page) => ({
+            ...page,
+            items: page.items.map((message) =>
+              message.recipientId === user.id && message.messageId <= newestUnreadId ? { ...message, isRead: true } : message)
+          }))
+        });
+        queryClient.setQueryData(['conversations'], (data) => data && {
+          ...data,
+          pages: data.pages.map((page) => ({
+            ...page,
+            items: page.items.map((item) => (item.conversationId === conversationId ? { ...item, unreadCount: 0 } : item))
+          }))
+        });
+      })
+      .catch((error) => console.error('Error marking messages read:', error));
+  }, [conversationId, newestUnreadId, otherUserId, queryClient, user]);
+
+  const sendMessage = useMutation({
+    mutationFn: async (content) => (await client.post('/messages', { recipientId: otherUserId, content })).data,
+    onSuccess: (message) => {
+      applyMessage(message);
       setMessageText('');
     },
     onError: (error) => {
@@ -57,7 +174,7 @@ const MessagesPage = () => {
     );
   }
 
-  if (isLoading) {
+  if (otherUserId ? thread.isLoading : threads.isLoading) {
     return (
       <main className="content">
         <div className="card" style={{ textAlign: 'center', padding: '3rem' }}>
@@ -76,44 +193,86 @@ const MessagesPage = () => {
         </button>
       </div>
 
-      <div className="card" style={{ display: 'flex', flexDirection: 'column', height: '600px' }}>
-        <div style={{ flex: 1, overflowY: 'auto', padding: '1rem', display: 'flex', flexDirection: 'column', gap: '1rem' }}>
-          {messages.length === 0 ? (
-            <div style={{ textAlign: 'center', color: '#64748b', marginTop: '2rem' }}>
-              <p>No messages yet. Start a conversation!</p>
+      {!otherUserId ? (
+        <div className="card" style={{ display: 'flex', flexDirection: 'column', gap: '0.5rem' }}>
+          {conversations.length === 0 ? (
+            <div style={{ textAlign: 'center', color: '#64748b', padding: '2rem' }}>
+              <p>No conversations yet.</p>
             </div>
           ) : (
-            messages.map((message) => {
-              const isSender = message.senderId === user.id;
-              return (
-                <div
-                  key={message.messageId}
-                  style={{
-                    display: 'flex',
-                    justifyContent: isSender ? 'flex-end' : 'flex-start'
-                  }}
-                >
+            conversations.map((conversation) => (
+              <div
+                key={conversation.conversationId}
+                onClick={() => navigate(`/messages/${conversation.otherUserId}`)}
+                style={{ display: 'flex', justifyContent: 'space-between', gap: '1rem', padding: '0.75rem 1rem', borderRadius: 8, background: '#f8fafc', cursor: 'pointer' }}
+              >
+                <div style={{ minWidth: 0 }}>
+                  <strong>{conversation.otherUsername || 'Unknown user'}</strong>
+                  <p style={{ margin: '0.25rem 0 0', color: '#64748b', overflow: 'hidden', textOverflow: 'ellipsis', whiteSpace: 'nowrap' }}>
+                    {conversation.lastSenderId === user.id ? 'You: ' : ''}{conversation.lastMessagePreview}
+                  </p>
+                </div>
+                <div style={{ textAlign: 'right', flexShrink: 0 }}>
+                  <small style={{ color: '#64748b' }}>{new Date(conversation.lastMessageAt).toLocaleString()}</small>
+                  {conversation.unreadCount > 0 && (
+                    <span style={{ display: 'block', marginTop: '0.25rem', color: '#2563eb', fontWeight: 600 }}>
+                      {conversation.unreadCount} unread
+                    </span>
+                  )}
+                </div>
+              </div>
+            ))
+          )}
+          {threads.hasNextPage && (
+            <button onClick={() => threads.fetchNextPage()} disabled={threads.isFetchingNextPage} style={{ background: '#e2e8f0' }}>
+              {threads.isFetchingNextPage ? 'Loading...' : 'Load more conversations'}
+            </button>
+          )}
+        </div>
+      ) : (
+        <div className="card" style={{ display: 'flex', flexDirection: 'column', height: '600px' }}>
+          <div style={{ flex: 1, overflowY: 'auto', padding: '1rem', display: 'flex', flexDirection: 'column', gap: '1rem' }}>
+            {thread.hasNextPage && (
+              <button onClick={() => thread.fetchNextPage()} disabled={thread.isFetchingNextPage} style={{ alignSelf: 'center', background: '#e2e8f0' }}>
+                {thread.isFetchingNextPage ? 'Loading...' : 'Load older messages'}
+              </button>
+            )}
+            {messages.length === 0 ? (
+              <div style={{ textAlign: 'center', color: '#64748b', marginTop: '2rem' }}>
+                <p>No messages yet. Start a conversation!</p>
+              </div>
+            ) : (
+              messages.map((message) => {
+                const isSender = message.senderId === user.id;
+                return (
                   <div
+                    key={message.messageId}
                     style={{
-                      maxWidth: '70%',
-                      padding: '0.75rem 1rem',
-                      borderRadius: 12,
-                      background: isSender ? '#2563eb' : '#e2e8f0',
-                      color: isSender ? 'white' : '#0f172a'
+                      display: 'flex',
+                      justifyContent: isSender ? 'flex-end' : 'flex-start'
                     }}
                   >
-                    <p style={{ margin: 0, wordBreak: 'break-word' }}>{message.content}</p>
-                    <small style={{ display: 'block', marginTop: '0.25rem', opacity: 0.7, fontSize: '0.75rem' }}>
-                      {new Date(message.sentDate).toLocaleString()}
-                    </small>
+                    <div
+                      style={{
+                        maxWidth: '70%',
+                        padding: '0.75rem 1rem',
+                        borderRadius: 12,
+                        background: isSender ? '#2563eb' : '#e2e8f0',
+                        color: isSender ? 'white' : '#0f172a'
+                      }}
+                    >
+                      <p style={{ margin: 0, wordBreak: 'break-word' }}>{message.content}</p>
+                      <small style={{ display: 'block', marginTop: '0.25rem', opacity: 0.7, fontSize: '0.75rem' }}>
+                        {new Date(message.sentDate).toLocaleString()}
+                        {isSender && message.isRead ? ' · Read' : ''}
+                      </small>
+                    </div>
                   </div>
-                </div>
-              );
-            })
-          )}
-        </div>
+                );
+              })
+            )}
+          </div>
 
-        {farmerId && (
           <form onSubmit={handleSend} style={{ borderTop: '1px solid #e2e8f0', padding: '1rem', display: 'flex', gap: '0.5rem' }}>
             <input
               type="text"
@@ -130,8 +289,8 @@ const MessagesPage = () => {
               {sendMessage.isPending ? 'Sending...' : 'Send'}
             </button>
           </form>
-        )}
-      </div>
+        </div>
+      )}
     </main>
   );
 };
@@ -133,7 +133,7 @@ const ProductDetailsPage = () => {
         <div className="card">
           {product.imageUrl ? (
             <img
-              src={product.imageUrl}
+              src={product.imageVariants?.full ?? product.imageUrl}
               alt={product.productName}
               style={{ width: '100%', borderRadius: 12, marginBottom: '1rem' }}
             />
@@ -0,0 +1,53 @@
+// Reads GET /api/messages/stream with fetch so the bearer token can be sent (EventSource cannot set headers).
+// Reconnects with Last-Event-ID so missed events are replayed; "resync" means the gap was too long to replay.
+export const subscribeToMessages = (token, onEvent) => {
+  const controller = new AbortController();
+  let lastEventId = null;
+  let stopped = false;
+
+  const dispatch = (block) => {
+    let name = 'message';
+    const data = [];
+    block.split('\n').forEach((line) => {
+      if (line.startsWith('id:')) lastEventId = line.slice(3).trim();
+      else if (line.startsWith('event:')) name = line.slice(6).trim();
+      else if (line.startsWith('data:')) data.push(line.slice(5).trimStart());
+    });
+    if (data.length === 0 && name === 'message') return; // heartbeat comment
+    const text = data.join('\n');
+    onEvent(name, text ? JSON.parse(text) : null);
+  };
+
+  const connect = async () => {
+    while (!stopped) {
+      try {
+        const headers = { Authorization: `Bearer ${token}`, Accept: 'text/event-stream' };
+        if (lastEventId) headers['Last-Event-ID'] = lastEventId;
+        const response = await fetch('/api/messages/stream', { headers, signal: controller.signal });
+        if (response.status === 401 || response.status === 403) return;
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder();
+        let buffer = '';
+        for (;;) {
+          const { value, done } = await reader.read();
+          if (done) break;
+          buffer += decoder.decode(value, { stream: true });
+          let boundary;
+          while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+            dispatch(buffer.slice(0, boundary));
+            buffer = buffer.slice(boundary + 2);
+          }
+        }
+      } catch (error) {
+        if (stopped) return;
+      }
+      await new Promise((resolve) => setTimeout(resolve, 3000));
+    }
+  };
+
+  connect();
+  return () => {
+    stopped = true;
+    controller.abort();
+  };
+};
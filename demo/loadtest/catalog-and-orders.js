@@ -0,0 +1,62 @@
+// k6 load test for comparing platform threads with the virtual-threads profile.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e USERNAME=buyer1 -e PASSWORD=secret \
+//          -e PRODUCT_ID=1 loadtest/catalog-and-orders.js
+//
+// Run it once against a normal start and once against `mvn -Pvirtual-threads spring-boot:run`,
+// then compare http_reqs (throughput) and the p(99) of http_req_duration per scenario tag.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const CLIENTS = Number(__ENV.CLIENTS || 1000);
+
+export const options = {
+  scenarios: {
+    catalog: {
+      executor: 'constant-vus',
+      vus: CLIENTS,
+      duration: __ENV.DURATION || '2m',
+      exec: 'browseCatalog',
+      tags: { scenario: 'catalog' },
+    },
+    orders: {
+      executor: 'constant-vus',
+      vus: Math.max(1, Math.floor(CLIENTS / 10)),
+      duration: __ENV.DURATION || '2m',
+      exec: 'placeOrder',
+      tags: { scenario: 'orders' },
+    },
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+  thresholds: {
+    'http_req_duration{scenario:catalog}': ['p(99)<2000'],
+    'http_req_duration{scenario:orders}': ['p(99)<3000'],
+  },
+};
+
+export function setup() {
+  const response = http.post(`${BASE_URL}/api/auth/login`,
+    JSON.stringify({ username: __ENV.USERNAME, password: __ENV.PASSWORD }),
+    { headers: { 'Content-Type': 'application/json' } });
+  check(response, { 'logged in': (r) => r.status === 200 });
+  return { token: response.json('token') };
+}
+
+export function browseCatalog() {
+  const response = http.get(`${BASE_URL}/api/products`);
+  check(response, { 'catalog 200': (r) => r.status === 200 });
+}
+
+export function placeOrder(data) {
+  const payload = {
+    items: [{ productId: Number(__ENV.PRODUCT_ID || 1), quantity: 1 }],
+    deliveryMethod: 'PICKUP',
+    paymentMethod: 'CASH',
+  };
+  const response = http.post(`${BASE_URL}/api/orders`, JSON.stringify(payload), {
+    headers: { 'Content-Type': 'application/json', Authorization: `Bearer ${data.token}` },
+  });
+  // 400 is expected once the test product runs out of stock
+  check(response, { 'order accepted or out of stock': (r) => r.status === 200 || r.status === 400 });
+}
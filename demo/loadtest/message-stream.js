@@ -0,0 +1,64 @@
+// k6 soak test holding many idle message streams open on one node.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e CLIENTS=10000 loadtest/message-stream.js
+//
+// Every VU registers its own buyer account (named <prefix>-<vu>, the prefix is printed by setup) and opens
+// one stream with it, so the server runs with its normal per-user limits and inboxes, as with real users.
+// The accounts are left behind; run against a test database. Raise the open-file limit on both sides
+// (ulimit -n 65536). Each VU keeps its stream until the hold time ends; watch heap, threads and the
+// Tomcat connection count while they are idle, and that heartbeats keep arriving.
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const CLIENTS = Number(__ENV.CLIENTS || 10000);
+const HOLD = __ENV.HOLD || '5m';
+const PASSWORD = 'stream-soak';
+const JSON_HEADERS = { headers: { 'Content-Type': 'application/json' } };
+
+export const options = {
+  scenarios: {
+    idle: {
+      executor: 'per-vu-iterations',
+      vus: CLIENTS,
+      iterations: 1,
+      maxDuration: '30m',
+    },
+  },
+};
+
+export function setup() {
+  const prefix = __ENV.PREFIX || `stream-${Date.now()}`;
+  console.log(`Registering accounts ${prefix}-1 to ${prefix}-${CLIENTS}`);
+  return { prefix };
+}
+
+// Password hashing has a bounded queue, so a burst of registrations is answered 503 until it drains
+function register(prefix) {
+  const username = `${prefix}-${__VU}`;
+  const body = JSON.stringify({ username, email: `${username}@loadtest.local`, password: PASSWORD });
+  for (let attempt = 0; attempt < 30; attempt++) {
+    const response = http.post(`${BASE_URL}/api/auth/register/buyer`, body, JSON_HEADERS);
+    if (response.status !== 503) {
+      check(response, { registered: (r) => r.status === 200 });
+      return response.status === 200 ? response.json('token') : null;
+    }
+    sleep(1 + Math.random() * 2);
+  }
+  return null;
+}
+
+export default function (data) {
+  const token = register(data.prefix);
+  if (!token) {
+    return;
+  }
+  // The request only returns when the hold time expires, so every VU keeps one connection open
+  const response = http.get(`${BASE_URL}/api/messages/stream`, {
+    headers: { Authorization: `Bearer ${token}`, Accept: 'text/event-stream' },
+    timeout: HOLD,
+  });
+  check(response, {
+    'stream accepted': (r) => r.status === 200 || r.error_code === 1050,
+  });
+}
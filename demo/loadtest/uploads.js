@@ -0,0 +1,39 @@
+// k6 throughput test for /uploads serving.
+//
+//   ls uploads > loadtest/upload-files.txt      # e.g. a directory of several thousand images
+//   k6 run -e BASE_URL=http://localhost:8080 loadtest/uploads.js
+//
+// Mixes full downloads, byte ranges and revalidations (If-None-Match) so sendfile,
+// 206 and 304 paths are all exercised; compare http_reqs/s and data_received between builds.
+import http from 'k6/http';
+import { check } from 'k6';
+import { SharedArray } from 'k6/data';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const files = new SharedArray('uploads', () =>
+  open(__ENV.FILE_LIST || './upload-files.txt').split('\n').map((name) => name.trim()).filter(Boolean));
+
+export const options = {
+  vus: Number(__ENV.CLIENTS || 200),
+  duration: __ENV.DURATION || '1m',
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const etags = {};
+
+export default function () {
+  const name = files[Math.floor(Math.random() * files.length)];
+  const url = `${BASE_URL}/uploads/${name}`;
+  const roll = Math.random();
+  if (roll < 0.2 && etags[name]) {
+    const response = http.get(url, { headers: { 'If-None-Match': etags[name] } });
+    check(response, { 'revalidated': (r) => r.status === 304 });
+  } else if (roll < 0.3) {
+    const response = http.get(url, { headers: { Range: 'bytes=0-65535' } });
+    check(response, { 'partial': (r) => r.status === 206 || r.status === 200 });
+  } else {
+    const response = http.get(url);
+    check(response, { 'served': (r) => r.status === 200 });
+    etags[name] = response.headers.Etag;
+  }
+}
@@ -0,0 +1,49 @@
+-- Product search benchmark
+-- Run against a scratch database that already has the schema (start the app once)
+-- and at least one registered farmer.
+-- Seeds N synthetic products for one farmer, then times the catalog keyword search.
+-- Repeat with :n set to 10000, 100000 and 1000000 and compare the "Execution Time" lines.
+--
+--   psql -d FRESHFARM_BENCH -v n=100000 -f product_search_benchmark.sql
+
+\set ON_ERROR_STOP on
+\timing on
+
+TRUNCATE products RESTART IDENTITY CASCADE;
+
+INSERT INTO products (product_name, category, description, price, unit, quantity, status, posted_date, available, farmer_id)
+SELECT (ARRAY['Tomato', 'Cabbage', 'Maize', 'Pumpkin', 'Sweet potato', 'Avocado', 'Coffee', 'Beans'])[1 + i % 8] || ' lot ' || i,
+       (ARRAY['Vegetables', 'Fruits', 'Grains', 'Beverages'])[1 + i % 4],
+       'Fresh harvest batch ' || i,
+       50 + (i % 500),
+       'kg',
+       10 + (i % 90),
+       'IN_STOCK',
+       now() - (i || ' minutes')::interval,
+       true,
+       (SELECT min(user_id) FROM farmers)
+FROM generate_series(1, :n) AS s(i);
+
+ANALYZE products;
+
+-- Previous implementation: leading-wildcard LIKE, sequential scan
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.* FROM products p
+WHERE lower(p.product_name::text) LIKE lower('%' || 'pumpk' || '%')
+ORDER BY p.posted_date DESC;
+
+-- Prefix full-text match ranked by relevance
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.* FROM products p
+WHERE p.search_vector @@ to_tsquery('english', 'pumpk:*') OR 'pumpk' <% p.product_name
+ORDER BY ts_rank(p.search_vector, to_tsquery('english', 'pumpk:*')) + word_similarity('pumpk', p.product_name) DESC,
+         p.posted_date DESC
+LIMIT 100;
+
+-- Typo tolerance ("pumkin")
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.* FROM products p
+WHERE p.search_vector @@ to_tsquery('english', 'pumkin:*') OR 'pumkin' <% p.product_name
+ORDER BY ts_rank(p.search_vector, to_tsquery('english', 'pumkin:*')) + word_similarity('pumkin', p.product_name) DESC,
+         p.posted_date DESC
+LIMIT 100;
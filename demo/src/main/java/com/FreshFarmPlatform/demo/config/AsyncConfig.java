@@ -0,0 +1,15 @@
+package com.FreshFarmPlatform.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background work uses Spring Boot's applicationTaskExecutor and task scheduler, which switch to
+ * virtual threads together with the request threads when spring.threads.virtual.enabled is set.
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig {
+}
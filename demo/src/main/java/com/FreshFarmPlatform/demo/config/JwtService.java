@@ -1,6 +1,8 @@
 package com.FreshFarmPlatform.demo.config;
 
+import com.FreshFarmPlatform.demo.security.PlatformUserDetails;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -10,20 +12,37 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
 @Component
 public class JwtService {
 
+    public static final String USER_ID_CLAIM = "userId";
+    public static final String USER_TYPE_CLAIM = "userType";
+
     private final SecretKey key;
     private final long jwtExpirationMs;
+    // Built once: a jjwt parser is immutable and safe to share between request threads
+    private final JwtParser parser;
 
     public JwtService(
             @Value("${application.jwt.secret}") String secret,
             @Value("${application.jwt.expiration-ms:86400000}") long jwtExpirationMs) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
         this.jwtExpirationMs = jwtExpirationMs;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+    }
+
+    /**
+     * Verifies the signature and expiry once and returns the claims for the caller to reuse.
+     * Throws ExpiredJwtException or another JwtException when the token is not acceptable.
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public String extractUsername(String token) {
@@ -31,16 +50,18 @@ public class JwtService {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(parseClaims(token));
     }
 
     public String generateToken(UserDetails userDetails) {
-        return buildToken(Map.of("role", userDetails.getAuthorities()), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("role", userDetails.getAuthorities());
+        if (userDetails instanceof PlatformUserDetails platformUser) {
+            // Enough for the stateless-claims mode to authenticate without a user lookup
+            claims.put(USER_ID_CLAIM, platformUser.getUserId());
+            claims.put(USER_TYPE_CLAIM, platformUser.getUserType().name());
+        }
+        return buildToken(claims, userDetails);
     }
 
     private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails) {
@@ -54,12 +75,17 @@ public class JwtService {
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return isTokenValid(parseClaims(token), userDetails);
+    }
+
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return userDetails.getUsername().equals(claims.getSubject())
+                && userDetails.isEnabled()
+                && !isTokenExpired(claims);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 }
 
@@ -1,12 +1,17 @@
 package com.FreshFarmPlatform.demo.controller;
 
+import com.FreshFarmPlatform.demo.dto.admin.CacheStatsResponse;
+import com.FreshFarmPlatform.demo.dto.admin.ReportGranularity;
 import com.FreshFarmPlatform.demo.dto.admin.ReportResponse;
 import com.FreshFarmPlatform.demo.dto.admin.TransactionSummaryResponse;
+import com.FreshFarmPlatform.demo.dto.admin.UserDeletionJobResponse;
 import com.FreshFarmPlatform.demo.dto.admin.UserManagementResponse;
 import com.FreshFarmPlatform.demo.service.AdminService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -29,20 +34,61 @@ public class AdminController {
         return ResponseEntity.ok(adminService.deactivateUser(userId));
     }
 
+    @PutMapping("/users/{userId}/activate")
+    public ResponseEntity<UserManagementResponse> activateUser(@PathVariable Long userId) {
+        return ResponseEntity.ok(adminService.activateUser(userId));
+    }
+
     @DeleteMapping("/users/{userId}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long userId) {
         adminService.deleteUser(userId);
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/users/{userId}/deletion")
+    public ResponseEntity<UserDeletionJobResponse> startUserDeletion(@PathVariable Long userId) {
+        return ResponseEntity.accepted().body(adminService.startUserDeletion(userId));
+    }
+
+    @GetMapping("/users/deletions/{jobId}")
+    public ResponseEntity<UserDeletionJobResponse> userDeletion(@PathVariable String jobId) {
+        return ResponseEntity.ok(adminService.getUserDeletion(jobId));
+    }
+
+    @GetMapping("/cache/catalog")
+    public ResponseEntity<CacheStatsResponse> catalogCacheStats() {
+        return ResponseEntity.ok(adminService.getCatalogCacheStats());
+    }
+
+    @GetMapping("/cache/principals")
+    public ResponseEntity<CacheStatsResponse> principalCacheStats() {
+        return ResponseEntity.ok(adminService.getPrincipalCacheStats());
+    }
+
+    @PostMapping("/images/backfill")
+    public ResponseEntity<Void> backfillImageVariants() {
+        adminService.startImageBackfill();
+        return ResponseEntity.accepted().build();
+    }
+
+    @PostMapping("/uploads/migrate")
+    public ResponseEntity<Void> migrateUploads() {
+        adminService.startUploadMigration();
+        return ResponseEntity.accepted().build();
+    }
+
     @GetMapping("/transactions")
     public ResponseEntity<List<TransactionSummaryResponse>> getAllTransactions() {
         return ResponseEntity.ok(adminService.getAllTransactions());
     }
 
     @GetMapping("/reports")
-    public ResponseEntity<ReportResponse> generateReport(@RequestParam(defaultValue = "MONTHLY") String period) {
-        return ResponseEntity.ok(adminService.generateReport(period));
+    public ResponseEntity<ReportResponse> generateReport(
+            @RequestParam(defaultValue = "MONTHLY") String period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) ReportGranularity granularity) {
+        return ResponseEntity.ok(adminService.generateReport(period, from, to, granularity));
     }
 }
 
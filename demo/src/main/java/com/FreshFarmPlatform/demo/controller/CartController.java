@@ -2,8 +2,11 @@ package com.FreshFarmPlatform.demo.controller;
 
 import com.FreshFarmPlatform.demo.dto.cart.AddToCartRequest;
 import com.FreshFarmPlatform.demo.dto.cart.CartResponse;
+import com.FreshFarmPlatform.demo.dto.cart.CheckoutRequest;
 import com.FreshFarmPlatform.demo.dto.cart.UpdateCartItemRequest;
+import com.FreshFarmPlatform.demo.dto.order.OrderResponse;
 import com.FreshFarmPlatform.demo.service.CartService;
+import com.FreshFarmPlatform.demo.service.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,6 +15,7 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -20,9 +24,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class CartController {
 
     private final CartService cartService;
+    private final OrderService orderService;
 
-    public CartController(CartService cartService) {
+    public CartController(CartService cartService, OrderService orderService) {
         this.cartService = cartService;
+        this.orderService = orderService;
     }
 
     @GetMapping
@@ -49,5 +55,11 @@ public class CartController {
     public ResponseEntity<CartResponse> clearCart() {
         return ResponseEntity.ok(cartService.clearCart());
     }
+
+    @PostMapping("/checkout")
+    public ResponseEntity<OrderResponse> checkout(@Valid @RequestBody CheckoutRequest request,
+                                                  @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.ok(orderService.checkoutCart(request, idempotencyKey));
+    }
 }
 
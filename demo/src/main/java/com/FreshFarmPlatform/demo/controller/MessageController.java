@@ -1,17 +1,25 @@
 package com.FreshFarmPlatform.demo.controller;
 
+import com.FreshFarmPlatform.demo.dto.message.ConversationPageResponse;
+import com.FreshFarmPlatform.demo.dto.message.ConversationReadResponse;
+import com.FreshFarmPlatform.demo.dto.message.MessagePageResponse;
 import com.FreshFarmPlatform.demo.dto.message.MessageRequest;
 import com.FreshFarmPlatform.demo.dto.message.MessageResponse;
+import com.FreshFarmPlatform.demo.dto.message.UnreadCountResponse;
 import com.FreshFarmPlatform.demo.service.MessageService;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -25,11 +33,50 @@ public class MessageController {
         this.messageService = messageService;
     }
 
+    // Only the newest messages; use /conversations and /conversations/{id} to page through everything
+    @Deprecated
     @GetMapping
     public ResponseEntity<List<MessageResponse>> myMessages() {
         return ResponseEntity.ok(messageService.myMessages());
     }
 
+    @GetMapping("/conversations")
+    public ResponseEntity<ConversationPageResponse> conversations(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(messageService.myConversations(cursor, size));
+    }
+
+    @GetMapping("/conversations/{conversationId}")
+    public ResponseEntity<MessagePageResponse> conversation(@PathVariable Long conversationId,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(messageService.conversationMessages(conversationId, cursor, size));
+    }
+
+    @PatchMapping("/conversations/{conversationId}/read")
+    public ResponseEntity<ConversationReadResponse> markConversationAsRead(@PathVariable Long conversationId,
+                                                                           @RequestParam Long upTo) {
+        return ResponseEntity.ok(messageService.markConversationAsRead(conversationId, upTo));
+    }
+
+    @GetMapping("/with/{userId}")
+    public ResponseEntity<MessagePageResponse> with(@PathVariable Long userId,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(messageService.messagesWith(userId, cursor, size));
+    }
+
+    // Pushes "message" and "read" events; reconnect with Last-Event-ID to resume
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return messageService.openStream(lastEventId);
+    }
+
+    @GetMapping("/unread-count")
+    public ResponseEntity<UnreadCountResponse> unreadCount() {
+        return ResponseEntity.ok(messageService.unreadCount());
+    }
+
     @PostMapping
     public ResponseEntity<MessageResponse> send(@Valid @RequestBody MessageRequest request) {
         return ResponseEntity.ok(messageService.sendMessage(request));
@@ -1,10 +1,13 @@
 package com.FreshFarmPlatform.demo.controller;
 
 import com.FreshFarmPlatform.demo.dto.order.CreateOrderRequest;
+import com.FreshFarmPlatform.demo.dto.order.OrderPageResponse;
 import com.FreshFarmPlatform.demo.dto.order.OrderResponse;
 import com.FreshFarmPlatform.demo.dto.order.UpdateOrderStatusRequest;
+import com.FreshFarmPlatform.demo.model.order.OrderStatus;
 import com.FreshFarmPlatform.demo.service.OrderService;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,8 +17,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -54,8 +59,21 @@ public class OrderController {
     }
 
     @GetMapping("/farmer")
-    public ResponseEntity<List<OrderResponse>> farmerOrders() {
-        return ResponseEntity.ok(orderService.getFarmerOrders());
+    public ResponseEntity<List<OrderResponse>> farmerOrders(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(orderService.getFarmerOrders(status, from, to));
+    }
+
+    @GetMapping("/farmer/page")
+    public ResponseEntity<OrderPageResponse> farmerOrdersPage(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(orderService.getFarmerOrdersPage(status, from, to, page, size));
     }
 
     @GetMapping("/{orderId}")
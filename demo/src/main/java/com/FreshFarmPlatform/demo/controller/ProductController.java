@@ -1,9 +1,13 @@
 package com.FreshFarmPlatform.demo.controller;
 
+import com.FreshFarmPlatform.demo.dto.product.ProductPageResponse;
 import com.FreshFarmPlatform.demo.dto.product.ProductRequest;
 import com.FreshFarmPlatform.demo.dto.product.ProductResponse;
+import com.FreshFarmPlatform.demo.dto.product.ProductSearchFilter;
+import com.FreshFarmPlatform.demo.dto.product.ProductSort;
 import com.FreshFarmPlatform.demo.model.product.ProductStatus;
 import com.FreshFarmPlatform.demo.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -17,7 +21,10 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -25,9 +32,11 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ObjectMapper objectMapper) {
         this.productService = productService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -37,17 +46,48 @@ public class ProductController {
                                                       @RequestParam(required = false) Double maxPrice,
                                                       @RequestParam(required = false) String location,
                                                       @RequestParam(required = false) Boolean availableOnly,
-                                                      @RequestParam(required = false) ProductStatus status) {
-        try {
-            List<ProductResponse> products = productService.listProducts(keyword, category, minPrice, maxPrice, location, availableOnly, status);
-            return ResponseEntity.ok(products);
-        } catch (Exception e) {
-            // Log error for debugging
-            System.err.println("Error fetching products: " + e.getMessage());
-            e.printStackTrace();
-            // Return empty list instead of error to prevent frontend crash
-            return ResponseEntity.ok(List.of());
-        }
+                                                      @RequestParam(required = false) ProductStatus status,
+                                                      @RequestParam(required = false) Double minRating) {
+        return ResponseEntity.ok(productService.listProducts(keyword, category, minPrice, maxPrice, location, availableOnly, status, minRating));
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<ProductPageResponse> page(@RequestParam(required = false) String keyword,
+                                                    @RequestParam(required = false) String category,
+                                                    @RequestParam(required = false) Double minPrice,
+                                                    @RequestParam(required = false) Double maxPrice,
+                                                    @RequestParam(required = false) String location,
+                                                    @RequestParam(required = false) Boolean availableOnly,
+                                                    @RequestParam(required = false) ProductStatus status,
+                                                    @RequestParam(required = false) Double minRating,
+                                                    @RequestParam(required = false) ProductSort sort,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer size) {
+        ProductSearchFilter filter = ProductSearchFilter.of(keyword, category, minPrice, maxPrice, location, availableOnly, status, minRating);
+        return ResponseEntity.ok(productService.listProductsPage(filter, sort, cursor, size));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream(@RequestParam(required = false) String keyword,
+                                                        @RequestParam(required = false) String category,
+                                                        @RequestParam(required = false) Double minPrice,
+                                                        @RequestParam(required = false) Double maxPrice,
+                                                        @RequestParam(required = false) String location,
+                                                        @RequestParam(required = false) Boolean availableOnly,
+                                                        @RequestParam(required = false) ProductStatus status,
+                                                        @RequestParam(required = false) Double minRating) {
+        ProductSearchFilter filter = ProductSearchFilter.of(keyword, category, minPrice, maxPrice, location, availableOnly, status, minRating);
+        StreamingResponseBody body = out -> productService.streamProducts(filter, product -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(product));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/farmer/{farmerId}")
@@ -59,7 +99,7 @@ public class ProductController {
     public ResponseEntity<?> debugAllProducts() {
         try {
             // Return raw count and sample for debugging
-            var allProducts = productService.listProducts(null, null, null, null, null, false, null);
+            var allProducts = productService.listProducts(null, null, null, null, null, false, null, null);
             return ResponseEntity.ok(java.util.Map.of(
                 "total", allProducts.size(),
                 "products", allProducts,
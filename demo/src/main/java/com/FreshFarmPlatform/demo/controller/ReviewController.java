@@ -1,7 +1,9 @@
 package com.FreshFarmPlatform.demo.controller;
 
+import com.FreshFarmPlatform.demo.dto.review.ReviewPageResponse;
 import com.FreshFarmPlatform.demo.dto.review.ReviewRequest;
 import com.FreshFarmPlatform.demo.dto.review.ReviewResponse;
+import com.FreshFarmPlatform.demo.dto.review.ReviewSort;
 import com.FreshFarmPlatform.demo.service.ReviewService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -12,6 +14,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -31,6 +34,14 @@ public class ReviewController {
         return ResponseEntity.ok(reviewService.productReviews(productId));
     }
 
+    @GetMapping("/product/{productId}/page")
+    public ResponseEntity<ReviewPageResponse> productReviewsPage(@PathVariable Long productId,
+                                                                 @RequestParam(required = false) ReviewSort sort,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(reviewService.productReviewsPage(productId, sort, cursor, size));
+    }
+
     @PostMapping
     public ResponseEntity<ReviewResponse> create(@Valid @RequestBody ReviewRequest request) {
         return ResponseEntity.ok(reviewService.createReview(request));
@@ -0,0 +1,242 @@
+package com.FreshFarmPlatform.demo.controller;
+
+import com.FreshFarmPlatform.demo.dto.product.ImageVariants;
+import com.FreshFarmPlatform.demo.service.FileStorageService;
+import com.FreshFarmPlatform.demo.storage.ObjectStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+
+/**
+ * Serves stored uploads with strong validators, long-lived caching for content-addressed files,
+ * single byte ranges and conditional GET. Bodies go out through Tomcat's sendfile when the
+ * connector supports it, otherwise through FileChannel.transferTo. When storage is remote the
+ * client is redirected to a short-lived pre-signed URL instead of proxying the bytes.
+ */
+@RestController
+public class UploadController {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "no-cache";
+
+    private final ObjectStorage storage;
+    private final Duration presignTtl;
+
+    public UploadController(ObjectStorage storage,
+                            @Value("${app.storage.presign-seconds:900}") long presignSeconds) {
+        this.storage = storage;
+        this.presignTtl = Duration.ofSeconds(presignSeconds);
+    }
+
+    @RequestMapping(value = "/uploads/{filename:.+}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void upload(@PathVariable String filename,
+                       HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        String key = FileStorageService.uploadKey(filename);
+        // A content-addressed name is the hash of its bytes, so it can be cached forever
+        boolean immutable = key != null && FileStorageService.isContentAddressed(key);
+        if (key == null || !serve(key, immutable ? IMMUTABLE : REVALIDATE, request, response)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    @RequestMapping(value = "/uploads/variants/{filename:.+}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void variant(@PathVariable String filename,
+                        HttpServletRequest request,
+                        HttpServletResponse response) throws IOException {
+        String key = FileStorageService.variantKey(filename);
+        String original = FileStorageService.uploadKey(ImageVariants.originalFilename(filename));
+        // Variants are written once per original and never replaced, so they share its cache lifetime
+        boolean immutable = original != null && FileStorageService.isContentAddressed(original);
+        // Only names that parse as a variant are looked up, which keeps backfill markers private
+        if (key != null && original != null && storage.exists(key)
+                && serve(key, immutable ? IMMUTABLE : REVALIDATE, request, response)) {
+            return;
+        }
+        // Not generated yet: serve the original without letting caches keep it under this URL
+        if (original == null || !storage.exists(original) || !serve(original, REVALIDATE, request, response)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    private boolean serve(String key,
+                          String cacheControl,
+                          HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        Path file = storage.localPath(key);
+        if (file != null) {
+            send(file, cacheControl, request, response);
+            return true;
+        }
+        URI url = storage.presignedUrl(key, presignTtl);
+        if (url == null) {
+            return false;
+        }
+        // The redirect may be reused only while the signature behind it is still comfortably valid
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=" + presignTtl.toSeconds() / 2);
+        response.sendRedirect(url.toString());
+        return true;
+    }
+
+    private void send(Path file,
+                      String cacheControl,
+                      HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = etag(file, length, lastModified);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && rangeApplies(request, etag)) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(FileStorageService.contentType(file.getFileName().toString()).toString());
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat streams the file from the kernel after this method returns
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    // Content-addressed names carry their own hash; anything else is identified by name, size and mtime
+    private String etag(Path file, long length, long lastModified) {
+        String filename = file.getFileName().toString();
+        if (FileStorageService.isContentAddressed(filename)) {
+            int dot = filename.indexOf('.');
+            return "\"" + (dot > 0 ? filename.substring(0, dot) : filename) + "\"";
+        }
+        return "\"" + filename + "-" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    private boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        try {
+            long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // If-Range keeps a resumed download from splicing bytes of two different files
+    private boolean rangeApplies(HttpServletRequest request, String etag) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        return ifRange == null || ifRange.trim().equals(etag);
+    }
+
+    /**
+     * Returns {start, end} for a single satisfiable range, an empty array to ignore the header
+     * (multiple, reversed or malformed ranges are answered with the whole file), or null for 416.
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return null;
+                }
+                return new long[]{Math.max(0, length - suffix), length - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            // A reversed range is syntactically invalid (RFC 9110 14.1.1), so it is ignored rather than refused
+            if (end < start) {
+                return new long[0];
+            }
+            if (start >= length) {
+                return null;
+            }
+            return new long[]{start, Math.min(end, length - 1)};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.FreshFarmPlatform.demo.dto.admin;
+
+public record CacheStatsResponse(
+        String cacheName,
+        long size,
+        long maxEntries,
+        long hits,
+        long misses,
+        long evictions,
+        long invalidations,
+        double hitRate
+) {}
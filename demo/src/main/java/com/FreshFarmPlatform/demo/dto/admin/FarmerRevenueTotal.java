@@ -0,0 +1,7 @@
+package com.FreshFarmPlatform.demo.dto.admin;
+
+public interface FarmerRevenueTotal {
+    Long getFarmerId();
+    String getFarmerName();
+    Double getRevenue();
+}
@@ -0,0 +1,8 @@
+package com.FreshFarmPlatform.demo.dto.admin;
+
+/** One row of a GROUP BY aggregate: the group key with its order count and summed value. */
+public interface GroupTotal {
+    String getKey();
+    Long getOrderCount();
+    Double getRevenue();
+}
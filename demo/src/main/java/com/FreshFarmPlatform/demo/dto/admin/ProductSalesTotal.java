@@ -0,0 +1,7 @@
+package com.FreshFarmPlatform.demo.dto.admin;
+
+public interface ProductSalesTotal {
+    Long getProductId();
+    String getProductName();
+    Long getQuantitySold();
+}
@@ -0,0 +1,9 @@
+package com.FreshFarmPlatform.demo.dto.admin;
+
+import java.time.LocalDateTime;
+
+public record ReportBucketResponse(
+        LocalDateTime bucketStart,
+        Long orderCount,
+        Double revenue
+) {}
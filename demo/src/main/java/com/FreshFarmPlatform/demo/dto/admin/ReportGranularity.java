@@ -0,0 +1,26 @@
+package com.FreshFarmPlatform.demo.dto.admin;
+
+import java.time.Duration;
+
+public enum ReportGranularity {
+    HOUR("hour", Duration.ofHours(1)),
+    DAY("day", Duration.ofDays(1)),
+    WEEK("week", Duration.ofDays(7));
+
+    private final String unit;
+    private final Duration length;
+
+    ReportGranularity(String unit, Duration length) {
+        this.unit = unit;
+        this.length = length;
+    }
+
+    /** Field name understood by Postgres date_trunc. */
+    public String unit() {
+        return unit;
+    }
+
+    public Duration length() {
+        return length;
+    }
+}
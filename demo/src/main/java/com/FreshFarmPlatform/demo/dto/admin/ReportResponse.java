@@ -1,5 +1,6 @@
 package com.FreshFarmPlatform.demo.dto.admin;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -13,6 +14,10 @@ public record ReportResponse(
         List<Map<String, Object>> topProducts,
         List<Map<String, Object>> topFarmers,
         Map<String, Long> ordersByStatus,
-        Map<String, Double> revenueByCategory
+        Map<String, Double> revenueByCategory,
+        LocalDateTime from,
+        LocalDateTime to,
+        ReportGranularity granularity,
+        List<ReportBucketResponse> revenueSeries
 ) {}
 
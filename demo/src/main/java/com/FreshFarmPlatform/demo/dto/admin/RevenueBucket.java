@@ -0,0 +1,9 @@
+package com.FreshFarmPlatform.demo.dto.admin;
+
+import java.time.LocalDateTime;
+
+public interface RevenueBucket {
+    LocalDateTime getBucketStart();
+    Long getOrderCount();
+    Double getRevenue();
+}
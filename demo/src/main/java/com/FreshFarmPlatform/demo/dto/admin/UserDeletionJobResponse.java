@@ -0,0 +1,18 @@
+package com.FreshFarmPlatform.demo.dto.admin;
+
+import com.FreshFarmPlatform.demo.model.user.UserType;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public record UserDeletionJobResponse(
+        String jobId,
+        Long userId,
+        UserType userType,
+        UserDeletionStatus status,
+        String step,
+        Map<String, Long> deleted,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        String error
+) {}
@@ -0,0 +1,8 @@
+package com.FreshFarmPlatform.demo.dto.admin;
+
+public enum UserDeletionStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,13 @@
+package com.FreshFarmPlatform.demo.dto.cart;
+
+import jakarta.validation.constraints.NotBlank;
+
+import java.util.List;
+
+public record CheckoutRequest(
+        @NotBlank String deliveryMethod,
+        String deliveryAddress,
+        @NotBlank String paymentMethod,
+        String deliveryNotes,
+        List<Long> cartItemIds
+) {}
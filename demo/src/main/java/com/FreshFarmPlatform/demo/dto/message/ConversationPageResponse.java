@@ -0,0 +1,9 @@
+package com.FreshFarmPlatform.demo.dto.message;
+
+import java.util.List;
+
+public record ConversationPageResponse(
+        List<ConversationResponse> items,
+        String nextCursor,
+        boolean hasMore
+) {}
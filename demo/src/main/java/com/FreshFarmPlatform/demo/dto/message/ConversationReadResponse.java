@@ -0,0 +1,9 @@
+package com.FreshFarmPlatform.demo.dto.message;
+
+public record ConversationReadResponse(
+        Long conversationId,
+        Long upToMessageId,
+        int markedRead,
+        int conversationUnread,
+        long unreadCount
+) {}
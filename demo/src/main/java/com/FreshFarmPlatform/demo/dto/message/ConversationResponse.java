@@ -0,0 +1,13 @@
+package com.FreshFarmPlatform.demo.dto.message;
+
+import java.time.LocalDateTime;
+
+public record ConversationResponse(
+        Long conversationId,
+        Long otherUserId,
+        String otherUsername,
+        Long lastSenderId,
+        String lastMessagePreview,
+        LocalDateTime lastMessageAt,
+        Integer unreadCount
+) {}
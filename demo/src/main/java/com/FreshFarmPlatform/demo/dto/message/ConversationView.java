@@ -0,0 +1,14 @@
+package com.FreshFarmPlatform.demo.dto.message;
+
+import java.time.LocalDateTime;
+
+/** Thread list row as seen by one participant: the other user and that participant's unread count. */
+public interface ConversationView {
+    Long getConversationId();
+    Long getOtherUserId();
+    String getOtherUsername();
+    Long getLastSenderId();
+    String getLastMessagePreview();
+    LocalDateTime getLastMessageAt();
+    Integer getUnreadCount();
+}
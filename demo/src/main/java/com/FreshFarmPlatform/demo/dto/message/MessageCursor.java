@@ -0,0 +1,23 @@
+package com.FreshFarmPlatform.demo.dto.message;
+
+import com.FreshFarmPlatform.demo.dto.paging.KeysetCursor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keyset position for newest-first paging of threads (lastMessageAt, conversationId)
+ * and of messages within a thread (sentDate, messageId). Opaque to clients.
+ */
+public record MessageCursor(LocalDateTime at, Long id) {
+
+    private static final LocalDateTime HIGHEST_DATE = LocalDateTime.of(9999, 12, 31, 23, 59);
+
+    public static MessageCursor decode(String token) {
+        return KeysetCursor.decode(token, new MessageCursor(HIGHEST_DATE, Long.MAX_VALUE),
+                (position, id) -> new MessageCursor(LocalDateTime.parse(position), id));
+    }
+
+    public static String encode(LocalDateTime at, Long id) {
+        return KeysetCursor.encode(at, id);
+    }
+}
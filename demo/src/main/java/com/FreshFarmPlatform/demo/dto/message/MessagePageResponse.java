@@ -0,0 +1,10 @@
+package com.FreshFarmPlatform.demo.dto.message;
+
+import java.util.List;
+
+public record MessagePageResponse(
+        Long conversationId,
+        List<MessageResponse> items,
+        String nextCursor,
+        boolean hasMore
+) {}
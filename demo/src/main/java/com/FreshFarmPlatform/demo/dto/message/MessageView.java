@@ -0,0 +1,13 @@
+package com.FreshFarmPlatform.demo.dto.message;
+
+import java.time.LocalDateTime;
+
+/** Read model for message queries, taking user ids from the foreign keys instead of the lazy associations. */
+public interface MessageView {
+    Long getMessageId();
+    Long getSenderId();
+    Long getRecipientId();
+    String getContent();
+    Boolean getIsRead();
+    LocalDateTime getSentDate();
+}
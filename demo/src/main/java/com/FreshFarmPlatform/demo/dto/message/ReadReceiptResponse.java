@@ -0,0 +1,16 @@
+package com.FreshFarmPlatform.demo.dto.message;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Pushed to the sender when the recipient reads: either the listed messages,
+ * or everything in the conversation up to and including upToMessageId.
+ */
+public record ReadReceiptResponse(
+        Long conversationId,
+        Long readerId,
+        List<Long> messageIds,
+        Long upToMessageId,
+        LocalDateTime readAt
+) {}
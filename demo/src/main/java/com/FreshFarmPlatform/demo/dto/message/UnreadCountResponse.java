@@ -0,0 +1,5 @@
+package com.FreshFarmPlatform.demo.dto.message;
+
+public record UnreadCountResponse(
+        long unreadCount
+) {}
@@ -0,0 +1,11 @@
+package com.FreshFarmPlatform.demo.dto.order;
+
+import java.util.List;
+
+public record OrderPageResponse(
+        List<OrderResponse> items,
+        int page,
+        int size,
+        long totalElements,
+        int totalPages
+) {}
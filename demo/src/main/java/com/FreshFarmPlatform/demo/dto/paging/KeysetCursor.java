@@ -0,0 +1,43 @@
+package com.FreshFarmPlatform.demo.dto.paging;
+
+import com.FreshFarmPlatform.demo.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.function.BiFunction;
+
+/**
+ * Token format shared by every keyset cursor: {@code position|id}, URL-safe Base64 without padding.
+ * Each cursor record only decides how its position is written and parsed.
+ */
+public final class KeysetCursor {
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(Object position, Long id) {
+        String raw = position + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns {@code start} for a missing token, otherwise hands the position text and id to {@code parse}.
+     * Anything that does not decode or parse is reported as a bad request.
+     */
+    public static <T> T decode(String token, T start, BiFunction<String, Long, T> parse) {
+        if (token == null || token.isBlank()) {
+            return start;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return parse.apply(raw.substring(0, separator), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
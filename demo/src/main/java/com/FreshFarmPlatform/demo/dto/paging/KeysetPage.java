@@ -0,0 +1,40 @@
+package com.FreshFarmPlatform.demo.dto.paging;
+
+import com.FreshFarmPlatform.demo.exception.BadRequestException;
+
+import java.util.List;
+import java.util.function.Function;
+
+/** One keyset page before it is wrapped in the endpoint's own response record. */
+public record KeysetPage<T>(List<T> items, String nextCursor, boolean hasMore) {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static int resolvePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return size;
+    }
+
+    /**
+     * Builds the page from a query that fetched {@code pageSize + 1} rows: the extra row only tells
+     * whether another page exists, so no count query is needed.
+     */
+    public static <R, T> KeysetPage<T> of(List<R> rows,
+                                          int pageSize,
+                                          Function<R, T> toItem,
+                                          Function<T, String> cursorAfter) {
+        boolean hasMore = rows.size() > pageSize;
+        List<T> items = rows.stream()
+                .limit(pageSize)
+                .map(toItem)
+                .toList();
+        String nextCursor = hasMore ? cursorAfter.apply(items.get(items.size() - 1)) : null;
+        return new KeysetPage<>(items, nextCursor, hasMore);
+    }
+}
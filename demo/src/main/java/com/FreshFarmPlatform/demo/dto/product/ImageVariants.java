@@ -0,0 +1,44 @@
+package com.FreshFarmPlatform.demo.dto.product;
+
+/**
+ * URLs of the resized copies of an uploaded image. Variants are generated in the background,
+ * so until one exists its URL serves the original upload instead.
+ */
+public record ImageVariants(String thumbnail, String card, String full) {
+
+    public static final String UPLOADS_PREFIX = "/uploads/";
+    public static final String VARIANTS_PREFIX = "/uploads/variants/";
+
+    public static ImageVariants forImage(String imageUrl) {
+        String filename = uploadedFilename(imageUrl);
+        if (filename == null) {
+            return null;
+        }
+        return new ImageVariants(
+                VARIANTS_PREFIX + variantFilename(filename, "thumb"),
+                VARIANTS_PREFIX + variantFilename(filename, "card"),
+                VARIANTS_PREFIX + variantFilename(filename, "full"));
+    }
+
+    /** The stored file name for an image served from /uploads, or null for external URLs. */
+    public static String uploadedFilename(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(UPLOADS_PREFIX)) {
+            return null;
+        }
+        String filename = imageUrl.substring(UPLOADS_PREFIX.length());
+        return filename.isEmpty() || filename.contains("/") ? null : filename;
+    }
+
+    public static String variantFilename(String original, String suffix) {
+        return original + "-" + suffix + ".jpg";
+    }
+
+    /** Reverses {@link #variantFilename}; null when the name is not a variant. */
+    public static String originalFilename(String variant) {
+        int dash = variant.lastIndexOf('-');
+        if (dash <= 0 || !variant.endsWith(".jpg") || variant.contains("/")) {
+            return null;
+        }
+        return variant.substring(0, dash);
+    }
+}
@@ -0,0 +1,34 @@
+package com.FreshFarmPlatform.demo.dto.product;
+
+import com.FreshFarmPlatform.demo.dto.paging.KeysetCursor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keyset position in the catalog, ordered by (postedDate, productId) or, for TOP_RATED,
+ * by (rating, productId). Serialized as an opaque URL-safe token so clients never build it themselves.
+ */
+public record ProductCursor(LocalDateTime postedDate, Double rating, Long productId) {
+
+    private static final LocalDateTime LOWEST_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime HIGHEST_DATE = LocalDateTime.of(9999, 12, 31, 23, 59);
+
+    public static ProductCursor start(ProductSort sort) {
+        return switch (sort) {
+            case OLDEST -> new ProductCursor(LOWEST_DATE, null, 0L);
+            case TOP_RATED -> new ProductCursor(null, Double.MAX_VALUE, Long.MAX_VALUE);
+            default -> new ProductCursor(HIGHEST_DATE, null, Long.MAX_VALUE);
+        };
+    }
+
+    public static ProductCursor decode(String token, ProductSort sort) {
+        return KeysetCursor.decode(token, start(sort), (position, productId) -> sort == ProductSort.TOP_RATED
+                ? new ProductCursor(null, Double.parseDouble(position), productId)
+                : new ProductCursor(LocalDateTime.parse(position), null, productId));
+    }
+
+    public static String encode(ProductResponse last, ProductSort sort) {
+        Object position = sort == ProductSort.TOP_RATED ? last.averageRating() : last.postedDate();
+        return KeysetCursor.encode(position, last.id());
+    }
+}
@@ -0,0 +1,9 @@
+package com.FreshFarmPlatform.demo.dto.product;
+
+import java.util.List;
+
+public record ProductPageResponse(
+        List<ProductResponse> items,
+        String nextCursor,
+        boolean hasMore
+) {}
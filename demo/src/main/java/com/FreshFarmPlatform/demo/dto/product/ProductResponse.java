@@ -13,11 +13,15 @@ public record ProductResponse(
         String unit,
         Integer quantity,
         String imageUrl,
+        ImageVariants imageVariants,
         Boolean available,
         ProductStatus status,
         LocalDateTime postedDate,
         Long farmerId,
         String farmerName,
-        String farmerLocation
+        String farmerLocation,
+        Double averageRating,
+        Integer ratingCount,
+        Double farmerRating
 ) {}
 
@@ -0,0 +1,62 @@
+package com.FreshFarmPlatform.demo.dto.product;
+
+import com.FreshFarmPlatform.demo.model.product.ProductStatus;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+public record ProductSearchFilter(
+        String keyword,
+        String category,
+        Double minPrice,
+        Double maxPrice,
+        String location,
+        boolean availableOnly,
+        ProductStatus status,
+        Double minRating
+) {
+
+    public static ProductSearchFilter of(String keyword,
+                                         String category,
+                                         Double minPrice,
+                                         Double maxPrice,
+                                         String location,
+                                         Boolean availableOnly,
+                                         ProductStatus status,
+                                         Double minRating) {
+        return new ProductSearchFilter(
+                sanitize(keyword),
+                sanitize(category),
+                minPrice,
+                maxPrice,
+                sanitize(location),
+                Boolean.TRUE.equals(availableOnly),
+                status,
+                minRating
+        );
+    }
+
+    /**
+     * Keyword as a prefix-matching tsquery ("sweet pot" becomes "sweet:* & pot:*").
+     * Only letters and digits survive, so user input can never produce tsquery syntax errors.
+     */
+    public String tsQuery() {
+        if (keyword == null) {
+            return null;
+        }
+        String query = Arrays.stream(keyword.split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .map(token -> token.toLowerCase(Locale.ROOT) + ":*")
+                .collect(Collectors.joining(" & "));
+        return query.isEmpty() ? null : query;
+    }
+
+    public String statusName() {
+        return status != null ? status.name() : null;
+    }
+
+    private static String sanitize(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
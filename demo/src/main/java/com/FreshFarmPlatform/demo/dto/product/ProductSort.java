@@ -0,0 +1,7 @@
+package com.FreshFarmPlatform.demo.dto.product;
+
+public enum ProductSort {
+    NEWEST,
+    OLDEST,
+    TOP_RATED
+}
@@ -0,0 +1,29 @@
+package com.FreshFarmPlatform.demo.dto.product;
+
+import com.FreshFarmPlatform.demo.model.product.ProductStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model for catalog queries: exactly the columns of {@link ProductResponse},
+ * farmer fields included, so listing never touches the lazy Product.farmer association.
+ */
+public interface ProductView {
+    Long getId();
+    String getProductName();
+    String getCategory();
+    String getDescription();
+    Double getPrice();
+    String getUnit();
+    Integer getQuantity();
+    String getImageUrl();
+    Boolean getAvailable();
+    ProductStatus getStatus();
+    LocalDateTime getPostedDate();
+    Long getFarmerId();
+    String getFarmerName();
+    String getFarmerLocation();
+    Double getAverageRating();
+    Integer getRatingCount();
+    Double getFarmerRating();
+}
@@ -0,0 +1,10 @@
+package com.FreshFarmPlatform.demo.dto.review;
+
+import java.util.Map;
+
+/** Review counts keyed by star value 1 to 5, every key present. */
+public record RatingHistogramResponse(
+        Map<Integer, Long> stars,
+        long total,
+        Double average
+) {}
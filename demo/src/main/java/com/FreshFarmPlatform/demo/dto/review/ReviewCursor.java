@@ -0,0 +1,33 @@
+package com.FreshFarmPlatform.demo.dto.review;
+
+import com.FreshFarmPlatform.demo.dto.paging.KeysetCursor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keyset position in a product's reviews, ordered by (reviewDate, reviewId) for NEWEST
+ * and by (rating, reviewId) otherwise. Serialized as an opaque URL-safe token.
+ */
+public record ReviewCursor(LocalDateTime reviewDate, Integer rating, Long reviewId) {
+
+    private static final LocalDateTime HIGHEST_DATE = LocalDateTime.of(9999, 12, 31, 23, 59);
+
+    public static ReviewCursor start(ReviewSort sort) {
+        return switch (sort) {
+            case HIGHEST -> new ReviewCursor(null, Integer.MAX_VALUE, Long.MAX_VALUE);
+            case LOWEST -> new ReviewCursor(null, Integer.MIN_VALUE, 0L);
+            case NEWEST -> new ReviewCursor(HIGHEST_DATE, null, Long.MAX_VALUE);
+        };
+    }
+
+    public static ReviewCursor decode(String token, ReviewSort sort) {
+        return KeysetCursor.decode(token, start(sort), (position, reviewId) -> sort == ReviewSort.NEWEST
+                ? new ReviewCursor(LocalDateTime.parse(position), null, reviewId)
+                : new ReviewCursor(null, Integer.parseInt(position), reviewId));
+    }
+
+    public static String encode(ReviewResponse last, ReviewSort sort) {
+        Object position = sort == ReviewSort.NEWEST ? last.reviewDate() : last.rating();
+        return KeysetCursor.encode(position, last.reviewId());
+    }
+}
@@ -0,0 +1,10 @@
+package com.FreshFarmPlatform.demo.dto.review;
+
+import java.util.List;
+
+public record ReviewPageResponse(
+        List<ReviewResponse> items,
+        String nextCursor,
+        boolean hasMore,
+        RatingHistogramResponse histogram
+) {}
@@ -8,6 +8,6 @@ public record ReviewResponse(
         Long buyerId,
         int rating,
         String comment,
-        LocalDateTime reviewDate
+        LocalDateTime reviewDate,
+        String buyerUsername
 ) {}
-
@@ -0,0 +1,7 @@
+package com.FreshFarmPlatform.demo.dto.review;
+
+public enum ReviewSort {
+    NEWEST,
+    HIGHEST,
+    LOWEST
+}
@@ -0,0 +1,14 @@
+package com.FreshFarmPlatform.demo.dto.review;
+
+import java.time.LocalDateTime;
+
+/** Read model for review listings, reviewer name included, so rows never touch the lazy associations. */
+public interface ReviewView {
+    Long getReviewId();
+    Long getProductId();
+    Long getBuyerId();
+    String getBuyerUsername();
+    Integer getRating();
+    String getComment();
+    LocalDateTime getReviewDate();
+}
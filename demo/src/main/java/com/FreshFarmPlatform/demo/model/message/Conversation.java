@@ -0,0 +1,62 @@
+package com.FreshFarmPlatform.demo.model.message;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One thread per pair of users, stored with the lower user id first so either side finds the same row.
+ * Last-message fields and per-side unread counts are maintained by MessageService on every send and read.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "conversations", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_conversations_participants", columnNames = {"first_user_id", "second_user_id"})
+}, indexes = {
+        @Index(name = "idx_conversations_first_last", columnList = "first_user_id, last_message_at, conversation_id"),
+        @Index(name = "idx_conversations_second_last", columnList = "second_user_id, last_message_at, conversation_id")
+})
+public class Conversation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long conversationId;
+
+    @Column(nullable = false)
+    private Long firstUserId;
+
+    @Column(nullable = false)
+    private Long secondUserId;
+
+    @Column(nullable = false)
+    private LocalDateTime lastMessageAt;
+
+    private Long lastMessageId;
+
+    private Long lastSenderId;
+
+    @Column(length = 200)
+    private String lastMessagePreview;
+
+    @Column(nullable = false)
+    private Integer unreadByFirst;
+
+    @Column(nullable = false)
+    private Integer unreadBySecond;
+}
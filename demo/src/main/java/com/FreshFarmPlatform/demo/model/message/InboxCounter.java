@@ -0,0 +1,32 @@
+package com.FreshFarmPlatform.demo.model.message;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Unread messages per recipient, so the inbox badge is a primary-key read.
+ * A user without a row has nothing unread. The count rises in the transaction that sends them
+ * a message, falls in the one that marks messages read, and never drops below zero.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "inbox_counters")
+public class InboxCounter {
+
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private Integer unreadCount;
+}
@@ -7,6 +7,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -25,7 +26,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        @Index(name = "idx_messages_conversation_sent", columnList = "conversation_id, sent_date, message_id"),
+        @Index(name = "idx_messages_sender_sent", columnList = "sender_id, sent_date"),
+        @Index(name = "idx_messages_recipient_sent", columnList = "recipient_id, sent_date")
+})
 public class Message {
 
     @Id
@@ -40,6 +45,10 @@ public class Message {
     @JoinColumn(name = "recipient_id")
     private User recipient;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conversation_id")
+    private Conversation conversation;
+
     @Column(nullable = false, length = 1000)
     private String content;
 
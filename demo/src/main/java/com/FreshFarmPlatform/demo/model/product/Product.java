@@ -9,6 +9,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -28,7 +29,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_posted_date_id", columnList = "posted_date, product_id"),
+        @Index(name = "idx_products_farmer", columnList = "farmer_id"),
+        @Index(name = "idx_products_rating_id", columnList = "rating_average, product_id")
+})
 public class Product {
 
     @Id
@@ -67,6 +72,16 @@ public class Product {
     @JoinColumn(name = "farmer_id")
     private Farmer farmer;
 
+    // Review aggregates, written only by ProductRepository.addRating so entity saves cannot overwrite them
+    @Column(nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long ratingSum;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private Integer ratingCount;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "double precision default 0")
+    private Double ratingAverage;
+
     @PrePersist
     @PreUpdate
     void onSave() {
@@ -77,6 +92,11 @@ public class Product {
             status = ProductStatus.IN_STOCK;
         }
         available = status == ProductStatus.IN_STOCK;
+        if (ratingSum == null) {
+            ratingSum = 0L;
+            ratingCount = 0;
+            ratingAverage = 0.0;
+        }
     }
 }
 
@@ -0,0 +1,44 @@
+package com.FreshFarmPlatform.demo.model.report;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Revenue per product category per order day, cancelled orders included.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "daily_category_sales", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_daily_category_sales", columnNames = {"sales_date", "category"})
+})
+public class DailyCategorySales {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate salesDate;
+
+    @Column(nullable = false)
+    private String category;
+
+    @Column(nullable = false)
+    private Double revenue;
+}
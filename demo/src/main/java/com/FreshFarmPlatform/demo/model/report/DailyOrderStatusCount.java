@@ -0,0 +1,47 @@
+package com.FreshFarmPlatform.demo.model.report;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Order count and order value per current status per order day.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "daily_order_status", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_daily_order_status", columnNames = {"sales_date", "order_status"})
+})
+public class DailyOrderStatusCount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "order_status", nullable = false, length = 30)
+    private String status;
+
+    @Column(nullable = false)
+    private Long orderCount;
+
+    @Column(nullable = false)
+    private Double revenue;
+}
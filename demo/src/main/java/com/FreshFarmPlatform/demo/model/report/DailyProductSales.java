@@ -0,0 +1,48 @@
+package com.FreshFarmPlatform.demo.model.report;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Units sold and revenue per product per order day. Cancelled orders stay counted, as in the
+ * order-based report this replaced; their share shows in the CANCELLED row of DailyOrderStatusCount.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "daily_product_sales", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_daily_product_sales", columnNames = {"sales_date", "product_id"})
+})
+public class DailyProductSales {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate salesDate;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @Column(nullable = false)
+    private Double revenue;
+}
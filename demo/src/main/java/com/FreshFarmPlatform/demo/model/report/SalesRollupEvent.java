@@ -0,0 +1,44 @@
+package com.FreshFarmPlatform.demo.model.report;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * An order change the daily rollups have not taken in yet, written in the transaction that changes the order.
+ * A placed order has no from status; a status change moves the order from one status row to the other.
+ * The amounts are read from the order when the rollup writer drains the row, which then deletes it.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "sales_rollup_events")
+public class SalesRollupEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_rollup_events_seq")
+    @SequenceGenerator(name = "sales_rollup_events_seq", sequenceName = "sales_rollup_events_seq", allocationSize = 50)
+    private Long eventId;
+
+    // A plain id, not a relation: no foreign key ties an order to changes still waiting to be drained
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Column(length = 30)
+    private String fromStatus;
+
+    @Column(nullable = false, length = 30)
+    private String toStatus;
+}
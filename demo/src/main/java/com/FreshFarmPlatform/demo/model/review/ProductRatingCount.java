@@ -0,0 +1,44 @@
+package com.FreshFarmPlatform.demo.model.review;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Number of reviews per product per star value, the source of the rating histogram.
+ * A star value gets its row on its first review and the histogram reads a missing row as zero.
+ * Counts change in the same transaction as the review itself and never drop below zero.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "product_rating_counts", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_product_rating_counts", columnNames = {"product_id", "stars"})
+})
+public class ProductRatingCount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer stars;
+
+    @Column(nullable = false)
+    private Long reviewCount;
+}
@@ -2,6 +2,7 @@ package com.FreshFarmPlatform.demo.model.user;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.PrimaryKeyJoinColumn;
 import jakarta.persistence.Table;
 import lombok.Getter;
@@ -27,6 +28,23 @@ public class Farmer extends User {
 
     private String description;
 
+    // Average review rating of the farmer's products; the three rating columns are written only by
+    // FarmerRepository.addRating so profile saves cannot overwrite them
+    @Column(updatable = false)
     private Double rating;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long ratingSum;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private Integer ratingCount;
+
+    @PrePersist
+    void initRating() {
+        if (ratingSum == null) {
+            ratingSum = 0L;
+            ratingCount = 0;
+        }
+    }
 }
 
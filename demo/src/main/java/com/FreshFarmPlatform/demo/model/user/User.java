@@ -11,6 +11,7 @@ import jakarta.persistence.Inheritance;
 import jakarta.persistence.InheritanceType;
 import jakarta.persistence.Table;
 import jakarta.persistence.PrePersist;
+import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -53,6 +54,11 @@ public abstract class User {
     @Column(nullable = false, updatable = false)
     private LocalDateTime registeredDate;
 
+    // Deactivated accounts cannot log in; the column default covers rows created before it existed
+    @Builder.Default
+    @Column(nullable = false, columnDefinition = "boolean default true")
+    private Boolean active = true;
+
     @PrePersist
     void onCreate() {
         if (registeredDate == null) {
@@ -2,11 +2,48 @@ package com.FreshFarmPlatform.demo.repository;
 
 import com.FreshFarmPlatform.demo.model.cart.Cart;
 import com.FreshFarmPlatform.demo.model.user.Buyer;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByBuyer(Buyer buyer);
+
+    // Serializes concurrent checkouts of the same cart
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Cart c where c.buyer.userId = :buyerId")
+    Optional<Cart> findByBuyerIdForUpdate(@Param("buyerId") Long buyerId);
+
+    @Modifying
+    @Query(value = """
+            delete from cart_items
+            where cart_id in (select cart_id from carts where buyer_id = :buyerId)
+            """, nativeQuery = true)
+    int deleteItemsByBuyer(@Param("buyerId") Long buyerId);
+
+    @Modifying
+    @Query(value = "delete from carts where buyer_id = :buyerId", nativeQuery = true)
+    int deleteByBuyerId(@Param("buyerId") Long buyerId);
+
+    // Drops the products from every cart and re-totals only the carts that held them from their remaining lines.
+    // The update reads the pre-delete snapshot, so the removed products are excluded from the sum explicitly.
+    @Modifying
+    @Query(value = """
+            with removed as (
+                delete from cart_items where product_id in (:productIds) returning cart_id
+            )
+            update carts c
+            set total_amount = coalesce((select sum(ci.subtotal) from cart_items ci
+                                         where ci.cart_id = c.cart_id
+                                         and (ci.product_id is null or ci.product_id not in (:productIds))), 0)
+            where c.cart_id in (select cart_id from removed)
+            """, nativeQuery = true)
+    int removeProducts(@Param("productIds") Collection<Long> productIds);
 }
 
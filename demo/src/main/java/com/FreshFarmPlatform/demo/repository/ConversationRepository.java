@@ -0,0 +1,126 @@
+package com.FreshFarmPlatform.demo.repository;
+
+import com.FreshFarmPlatform.demo.dto.message.ConversationView;
+import com.FreshFarmPlatform.demo.model.message.Conversation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ConversationRepository extends JpaRepository<Conversation, Long> {
+
+    // Safe against two first messages racing for the same pair
+    @Modifying
+    @Query(value = """
+            insert into conversations (first_user_id, second_user_id, last_message_at, unread_by_first, unread_by_second)
+            values (:firstUserId, :secondUserId, :startedAt, 0, 0)
+            on conflict (first_user_id, second_user_id) do nothing
+            """, nativeQuery = true)
+    void ensure(@Param("firstUserId") Long firstUserId,
+                @Param("secondUserId") Long secondUserId,
+                @Param("startedAt") LocalDateTime startedAt);
+
+    Optional<Conversation> findByFirstUserIdAndSecondUserId(Long firstUserId, Long secondUserId);
+
+    @Query("""
+            select c from Conversation c
+            where c.conversationId = :conversationId
+            and (c.firstUserId = :userId or c.secondUserId = :userId)
+            """)
+    Optional<Conversation> findForParticipant(@Param("conversationId") Long conversationId,
+                                              @Param("userId") Long userId);
+
+    // Counters are incremented in place so concurrent sends never lose an update
+    @Modifying
+    @Query(value = """
+            update conversations
+            set last_message_id = case when :sentAt >= last_message_at then :messageId else last_message_id end,
+                last_sender_id = case when :sentAt >= last_message_at then :senderId else last_sender_id end,
+                last_message_preview = case when :sentAt >= last_message_at then :preview else last_message_preview end,
+                last_message_at = greatest(last_message_at, :sentAt),
+                unread_by_first = unread_by_first + case when first_user_id = :recipientId then 1 else 0 end,
+                unread_by_second = unread_by_second + case when second_user_id = :recipientId then 1 else 0 end
+            where conversation_id = :conversationId
+            """, nativeQuery = true)
+    void recordMessage(@Param("conversationId") Long conversationId,
+                       @Param("messageId") Long messageId,
+                       @Param("senderId") Long senderId,
+                       @Param("recipientId") Long recipientId,
+                       @Param("preview") String preview,
+                       @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query(value = """
+            update conversations
+            set unread_by_first = case when first_user_id = :userId
+                                       then greatest(unread_by_first - :count, 0) else unread_by_first end,
+                unread_by_second = case when second_user_id = :userId
+                                        then greatest(unread_by_second - :count, 0) else unread_by_second end
+            where conversation_id = :conversationId
+            """, nativeQuery = true)
+    void markRead(@Param("conversationId") Long conversationId,
+                  @Param("userId") Long userId,
+                  @Param("count") int count);
+
+    @Query(value = """
+            select case when c.first_user_id = :userId then c.unread_by_first else c.unread_by_second end
+            from conversations c
+            where c.conversation_id = :conversationId
+            """, nativeQuery = true)
+    int unreadFor(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
+
+    /*
+     * Newest threads first, keyset on (last_message_at, conversation_id). Each side of the pair is read
+     * through its own index and only the top rows of both are merged, so the cost tracks the page size.
+     */
+    @Query(value = """
+            select * from (
+                (select c.conversation_id as "conversationId", c.second_user_id as "otherUserId",
+                        u.username as "otherUsername", c.last_sender_id as "lastSenderId",
+                        c.last_message_preview as "lastMessagePreview", c.last_message_at as "lastMessageAt",
+                        c.unread_by_first as "unreadCount"
+                 from conversations c
+                 left join users u on u.user_id = c.second_user_id
+                 where c.first_user_id = :userId
+                 and (c.last_message_at, c.conversation_id) < (:cursorAt, :cursorId)
+                 order by c.last_message_at desc, c.conversation_id desc
+                 limit :limit)
+                union all
+                (select c.conversation_id, c.first_user_id, u.username, c.last_sender_id,
+                        c.last_message_preview, c.last_message_at, c.unread_by_second
+                 from conversations c
+                 left join users u on u.user_id = c.first_user_id
+                 where c.second_user_id = :userId
+                 and (c.last_message_at, c.conversation_id) < (:cursorAt, :cursorId)
+                 order by c.last_message_at desc, c.conversation_id desc
+                 limit :limit)
+            ) threads
+            order by "lastMessageAt" desc, "conversationId" desc
+            limit :limit
+            """, nativeQuery = true)
+    List<ConversationView> findThreadsBefore(@Param("userId") Long userId,
+                                             @Param("cursorAt") LocalDateTime cursorAt,
+                                             @Param("cursorId") Long cursorId,
+                                             @Param("limit") int limit);
+
+    // Gives back the unread counts a departing user's messages were holding in other inboxes
+    @Modifying
+    @Query(value = """
+            update inbox_counters ic
+            set unread_count = greatest(ic.unread_count - t.unread, 0)
+            from (select case when c.first_user_id = :userId then c.second_user_id else c.first_user_id end as user_id,
+                         case when c.first_user_id = :userId then c.unread_by_second else c.unread_by_first end as unread
+                  from conversations c
+                  where c.first_user_id = :userId or c.second_user_id = :userId) t
+            where ic.user_id = t.user_id and t.unread > 0
+            """, nativeQuery = true)
+    void releaseUnreadHeldBy(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("delete from Conversation c where c.firstUserId = :userId or c.secondUserId = :userId")
+    void deleteByParticipant(@Param("userId") Long userId);
+}
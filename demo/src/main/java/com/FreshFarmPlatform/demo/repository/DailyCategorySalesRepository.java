@@ -0,0 +1,21 @@
+package com.FreshFarmPlatform.demo.repository;
+
+import com.FreshFarmPlatform.demo.dto.admin.GroupTotal;
+import com.FreshFarmPlatform.demo.model.report.DailyCategorySales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyCategorySalesRepository extends JpaRepository<DailyCategorySales, Long> {
+
+    @Query(value = """
+            select r.category as "key", 0 as "orderCount", sum(r.revenue) as "revenue"
+            from daily_category_sales r
+            where r.sales_date between :from and :to
+            group by r.category
+            """, nativeQuery = true)
+    List<GroupTotal> revenueByCategory(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,28 @@
+package com.FreshFarmPlatform.demo.repository;
+
+import com.FreshFarmPlatform.demo.dto.admin.FarmerRevenueTotal;
+import com.FreshFarmPlatform.demo.model.report.DailyFarmerSales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyFarmerSalesRepository extends JpaRepository<DailyFarmerSales, Long> {
+
+    @Query(value = """
+            select r.farmer_id as "farmerId", coalesce(u.username, 'Unknown') as "farmerName",
+                   sum(r.revenue) as "revenue"
+            from daily_farmer_sales r
+            left join users u on u.user_id = r.farmer_id
+            where r.sales_date between :from and :to
+            group by r.farmer_id, u.username
+            having sum(r.revenue) > 0
+            order by sum(r.revenue) desc
+            limit :limit
+            """, nativeQuery = true)
+    List<FarmerRevenueTotal> topFarmers(@Param("from") LocalDate from,
+                                        @Param("to") LocalDate to,
+                                        @Param("limit") int limit);
+}
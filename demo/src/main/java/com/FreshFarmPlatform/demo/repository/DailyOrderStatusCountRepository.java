@@ -0,0 +1,21 @@
+package com.FreshFarmPlatform.demo.repository;
+
+import com.FreshFarmPlatform.demo.dto.admin.GroupTotal;
+import com.FreshFarmPlatform.demo.model.report.DailyOrderStatusCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyOrderStatusCountRepository extends JpaRepository<DailyOrderStatusCount, Long> {
+
+    @Query(value = """
+            select r.order_status as "key", sum(r.order_count) as "orderCount", sum(r.revenue) as "revenue"
+            from daily_order_status r
+            where r.sales_date between :from and :to
+            group by r.order_status
+            """, nativeQuery = true)
+    List<GroupTotal> totalsByStatus(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
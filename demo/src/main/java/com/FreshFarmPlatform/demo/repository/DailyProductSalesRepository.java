@@ -0,0 +1,28 @@
+package com.FreshFarmPlatform.demo.repository;
+
+import com.FreshFarmPlatform.demo.dto.admin.ProductSalesTotal;
+import com.FreshFarmPlatform.demo.model.report.DailyProductSales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyProductSalesRepository extends JpaRepository<DailyProductSales, Long> {
+
+    @Query(value = """
+            select r.product_id as "productId", coalesce(p.product_name, 'Unknown') as "productName",
+                   sum(r.quantity) as "quantitySold"
+            from daily_product_sales r
+            left join products p on p.product_id = r.product_id
+            where r.sales_date between :from and :to
+            group by r.product_id, p.product_name
+            having sum(r.quantity) > 0
+            order by sum(r.quantity) desc
+            limit :limit
+            """, nativeQuery = true)
+    List<ProductSalesTotal> topProducts(@Param("from") LocalDate from,
+                                        @Param("to") LocalDate to,
+                                        @Param("limit") int limit);
+}
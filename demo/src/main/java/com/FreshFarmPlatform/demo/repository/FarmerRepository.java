@@ -2,7 +2,43 @@ package com.FreshFarmPlatform.demo.repository;
 
 import com.FreshFarmPlatform.demo.model.user.Farmer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 
 public interface FarmerRepository extends JpaRepository<Farmer, Long> {
-}
 
+    // Applied in place so concurrent reviews cannot lose each other's update
+    @Modifying
+    @Query(value = """
+            update farmers
+            set rating_sum = rating_sum + :sumDelta,
+                rating_count = rating_count + :countDelta,
+                rating = case when rating_count + :countDelta > 0
+                              then (rating_sum + :sumDelta)::double precision / (rating_count + :countDelta)
+                              else 0 end
+            where user_id = :farmerId
+            """, nativeQuery = true)
+    void addRating(@Param("farmerId") Long farmerId,
+                   @Param("sumDelta") long sumDelta,
+                   @Param("countDelta") int countDelta);
+
+    @Modifying
+    @Query(value = """
+            update farmers f
+            set rating_sum = f.rating_sum - r.rating_sum,
+                rating_count = f.rating_count - r.rating_count,
+                rating = case when f.rating_count - r.rating_count > 0
+                              then (f.rating_sum - r.rating_sum)::double precision / (f.rating_count - r.rating_count)
+                              else 0 end
+            from (select p.farmer_id, sum(rv.rating) as rating_sum, count(*) as rating_count
+                  from reviews rv
+                  join products p on p.product_id = rv.product_id
+                  where rv.review_id in (:reviewIds)
+                  group by p.farmer_id) r
+            where f.user_id = r.farmer_id
+            """, nativeQuery = true)
+    int removeRatings(@Param("reviewIds") Collection<Long> reviewIds);
+}
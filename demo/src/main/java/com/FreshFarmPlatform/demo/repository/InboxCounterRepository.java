@@ -0,0 +1,23 @@
+package com.FreshFarmPlatform.demo.repository;
+
+import com.FreshFarmPlatform.demo.model.message.InboxCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface InboxCounterRepository extends JpaRepository<InboxCounter, Long> {
+
+    @Modifying
+    @Query(value = """
+            insert into inbox_counters (user_id, unread_count)
+            values (:userId, greatest(:delta, 0))
+            on conflict (user_id) do update
+            set unread_count = greatest(inbox_counters.unread_count + :delta, 0)
+            """, nativeQuery = true)
+    void add(@Param("userId") Long userId, @Param("delta") int delta);
+
+    @Query(value = "select coalesce(max(unread_count), 0) from inbox_counters where user_id = :userId",
+            nativeQuery = true)
+    long unreadCount(@Param("userId") Long userId);
+}
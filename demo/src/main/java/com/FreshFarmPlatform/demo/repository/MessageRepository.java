@@ -1,12 +1,70 @@
 package com.FreshFarmPlatform.demo.repository;
 
+import com.FreshFarmPlatform.demo.dto.message.MessageView;
 import com.FreshFarmPlatform.demo.model.message.Message;
-import com.FreshFarmPlatform.demo.model.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
-    List<Message> findBySenderOrRecipientOrderBySentDateDesc(User sender, User recipient);
-}
+    String MESSAGE_COLUMNS = """
+            select m.message_id as "messageId", m.sender_id as "senderId", m.recipient_id as "recipientId",
+                   m.content as "content", m.is_read as "isRead", m.sent_date as "sentDate"
+            from messages m
+            """;
+
+    @Query(value = MESSAGE_COLUMNS + """
+            where m.sender_id = :userId or m.recipient_id = :userId
+            order by m.sent_date desc, m.message_id desc
+            limit :limit
+            """, nativeQuery = true)
+    List<MessageView> findLatestForUser(@Param("userId") Long userId, @Param("limit") int limit);
+
+    // Newest first within one thread, served by idx_messages_conversation_sent
+    @Query(value = MESSAGE_COLUMNS + """
+            where m.conversation_id = :conversationId
+            and (m.sent_date, m.message_id) < (:cursorAt, :cursorId)
+            order by m.sent_date desc, m.message_id desc
+            limit :limit
+            """, nativeQuery = true)
+    List<MessageView> findPageBefore(@Param("conversationId") Long conversationId,
+                                     @Param("cursorAt") LocalDateTime cursorAt,
+                                     @Param("cursorId") Long cursorId,
+                                     @Param("limit") int limit);
+
+    // Compare-and-set so a message is only ever subtracted from the unread counters once
+    @Modifying
+    @Query(value = """
+            update messages set is_read = true
+            where message_id = :messageId and recipient_id = :recipientId and is_read = false
+            """, nativeQuery = true)
+    int markRead(@Param("messageId") Long messageId, @Param("recipientId") Long recipientId);
 
+    // One statement for a whole thread; the row count is what gets taken off the unread counters
+    @Modifying
+    @Query(value = """
+            update messages set is_read = true
+            where conversation_id = :conversationId and recipient_id = :recipientId
+            and is_read = false and message_id <= :upToMessageId
+            """, nativeQuery = true)
+    int markConversationRead(@Param("conversationId") Long conversationId,
+                             @Param("recipientId") Long recipientId,
+                             @Param("upToMessageId") Long upToMessageId);
+
+    @Modifying
+    @Query(value = "delete from messages where sender_id = :userId or recipient_id = :userId", nativeQuery = true)
+    void deleteByParticipant(@Param("userId") Long userId);
+
+    @Query(value = "select message_id from messages where sender_id = :userId or recipient_id = :userId limit :limit",
+            nativeQuery = true)
+    List<Long> findIdsByParticipant(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "delete from messages where message_id in (:messageIds)", nativeQuery = true)
+    int deleteByIds(@Param("messageIds") Collection<Long> messageIds);
+}
@@ -1,8 +1,82 @@
 package com.FreshFarmPlatform.demo.repository;
 
+import com.FreshFarmPlatform.demo.dto.admin.FarmerRevenueTotal;
+import com.FreshFarmPlatform.demo.dto.admin.GroupTotal;
+import com.FreshFarmPlatform.demo.dto.admin.ProductSalesTotal;
 import com.FreshFarmPlatform.demo.model.order.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
-}
 
+    @Modifying
+    @Query(value = "delete from order_items where order_id in (:orderIds)", nativeQuery = true)
+    int deleteByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query(value = """
+            select exists (select 1 from order_items i
+                           join products p on p.product_id = i.product_id
+                           where p.farmer_id = :farmerId)
+            """, nativeQuery = true)
+    boolean existsForFarmer(@Param("farmerId") Long farmerId);
+
+    // Only the farmer's own lines, with their order and transaction, in one round trip
+    @Query("""
+            select i from OrderItem i
+            join fetch i.order o
+            join fetch i.product p
+            left join fetch o.transaction
+            where o.orderId in :orderIds and p.farmer.userId = :farmerId
+            order by o.orderDate desc, o.orderId desc, i.orderItemId
+            """)
+    List<OrderItem> findFarmerLines(@Param("farmerId") Long farmerId,
+                                    @Param("orderIds") Collection<Long> orderIds);
+
+    @Query(value = """
+            select i.product_id as "productId", coalesce(p.product_name, 'Unknown') as "productName",
+                   sum(i.quantity) as "quantitySold"
+            from order_items i
+            join orders o on o.order_id = i.order_id
+            left join products p on p.product_id = i.product_id
+            where o.order_date >= :from and o.order_date < :to
+            group by i.product_id, p.product_name
+            order by sum(i.quantity) desc
+            limit :limit
+            """, nativeQuery = true)
+    List<ProductSalesTotal> topProducts(@Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("limit") int limit);
+
+    @Query(value = """
+            select p.farmer_id as "farmerId", coalesce(u.username, 'Unknown') as "farmerName",
+                   coalesce(sum(i.subtotal), 0) as "revenue"
+            from order_items i
+            join orders o on o.order_id = i.order_id
+            join products p on p.product_id = i.product_id
+            left join users u on u.user_id = p.farmer_id
+            where o.order_date >= :from and o.order_date < :to
+            group by p.farmer_id, u.username
+            order by sum(i.subtotal) desc nulls last
+            limit :limit
+            """, nativeQuery = true)
+    List<FarmerRevenueTotal> topFarmers(@Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("limit") int limit);
+
+    @Query(value = """
+            select p.category as "key", count(distinct i.order_id) as "orderCount",
+                   coalesce(sum(i.subtotal), 0) as "revenue"
+            from order_items i
+            join orders o on o.order_id = i.order_id
+            join products p on p.product_id = i.product_id
+            where o.order_date >= :from and o.order_date < :to
+            group by p.category
+            """, nativeQuery = true)
+    List<GroupTotal> revenueByCategory(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -1,18 +1,96 @@
 package com.FreshFarmPlatform.demo.repository;
 
+import com.FreshFarmPlatform.demo.dto.admin.GroupTotal;
+import com.FreshFarmPlatform.demo.dto.admin.RevenueBucket;
 import com.FreshFarmPlatform.demo.model.order.Order;
+import com.FreshFarmPlatform.demo.model.order.OrderStatus;
 import com.FreshFarmPlatform.demo.model.user.Buyer;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByBuyer(Buyer buyer);
+
+    List<Order> findByBuyerUserId(Long buyerId);
+
+    Optional<Order> findByBuyerUserIdAndIdempotencyKey(Long buyerId, String idempotencyKey);
+
+    // Batches for account deletion; each batch is deleted and committed before the next is read.
+    // Locked so no status change can commit between taking the orders out of the rollups and deleting them
+    @Query(value = "select order_id from orders where buyer_id = :buyerId order by order_id limit :limit for update",
+            nativeQuery = true)
+    List<Long> findIdsByBuyer(@Param("buyerId") Long buyerId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "delete from orders where order_id in (:orderIds)", nativeQuery = true)
+    int deleteByIds(@Param("orderIds") Collection<Long> orderIds);
     
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.product p LEFT JOIN FETCH p.farmer WHERE o.orderId = :orderId")
     Optional<Order> findByIdWithItems(@Param("orderId") Long orderId);
-}
 
+    // Compare-and-set on status so two concurrent transitions cannot both succeed
+    @Modifying
+    @Query("update Order o set o.status = :to where o.orderId = :orderId and o.status = :from")
+    int transitionStatus(@Param("orderId") Long orderId,
+                         @Param("from") OrderStatus from,
+                         @Param("to") OrderStatus to);
+
+    // The casts type the null checks, which Postgres cannot infer for an unbound timestamp
+    String FARMER_ORDER_FILTER = """
+            from Order o
+            where exists (select 1 from OrderItem i where i.order = o and i.product.farmer.userId = :farmerId)
+            and (:status is null or o.status = :status)
+            and (cast(:from as LocalDateTime) is null or o.orderDate >= :from)
+            and (cast(:to as LocalDateTime) is null or o.orderDate < :to)
+            """;
+
+    // Ids first: paging a collection fetch join would otherwise happen in memory
+    @Query(value = "select o.orderId " + FARMER_ORDER_FILTER + "order by o.orderDate desc, o.orderId desc",
+            countQuery = "select count(o) " + FARMER_ORDER_FILTER)
+    Page<Long> findFarmerOrderIds(@Param("farmerId") Long farmerId,
+                                  @Param("status") OrderStatus status,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to,
+                                  Pageable pageable);
+
+    @Query("""
+            select distinct o from Order o
+            left join fetch o.items i
+            left join fetch i.product p
+            left join fetch p.farmer
+            left join fetch o.transaction
+            where o.orderId in :orderIds
+            """)
+    List<Order> findAllWithItemsByIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    // Grouped by position: each :unit occurrence is bound separately, so repeating the expression would not match
+    @Query(value = """
+            select date_trunc(:unit, o.order_date) as "bucketStart",
+                   count(*) as "orderCount",
+                   coalesce(sum(o.total_amount), 0) as "revenue"
+            from orders o
+            where o.order_date >= :from and o.order_date < :to
+            group by 1
+            order by 1
+            """, nativeQuery = true)
+    List<RevenueBucket> revenueSeries(@Param("unit") String unit,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to);
+
+    @Query(value = """
+            select o.status as "key", count(*) as "orderCount", coalesce(sum(o.total_amount), 0) as "revenue"
+            from orders o
+            where o.order_date >= :from and o.order_date < :to
+            group by o.status
+            """, nativeQuery = true)
+    List<GroupTotal> totalsByStatus(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,42 @@
+package com.FreshFarmPlatform.demo.repository;
+
+import com.FreshFarmPlatform.demo.model.review.ProductRatingCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductRatingCountRepository extends JpaRepository<ProductRatingCount, Long> {
+
+    @Modifying
+    @Query(value = """
+            insert into product_rating_counts (product_id, stars, review_count)
+            values (:productId, :stars, greatest(:delta, 0))
+            on conflict (product_id, stars) do update
+            set review_count = greatest(product_rating_counts.review_count + :delta, 0)
+            """, nativeQuery = true)
+    void add(@Param("productId") Long productId,
+             @Param("stars") int stars,
+             @Param("delta") int delta);
+
+    List<ProductRatingCount> findByProductId(Long productId);
+
+    @Modifying
+    @Query(value = """
+            update product_rating_counts c
+            set review_count = greatest(c.review_count - r.review_count, 0)
+            from (select product_id, rating, count(*) as review_count
+                  from reviews
+                  where review_id in (:reviewIds) and product_id is not null
+                  group by product_id, rating) r
+            where c.product_id = r.product_id and c.stars = r.rating
+            """, nativeQuery = true)
+    int removeRatings(@Param("reviewIds") Collection<Long> reviewIds);
+
+    @Modifying
+    @Query(value = "delete from product_rating_counts where product_id in (:productIds)", nativeQuery = true)
+    int deleteByProductIds(@Param("productIds") Collection<Long> productIds);
+}
@@ -1,37 +1,221 @@
 package com.FreshFarmPlatform.demo.repository;
 
+import com.FreshFarmPlatform.demo.dto.product.ProductView;
 import com.FreshFarmPlatform.demo.model.product.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    List<Product> findByFarmerUserId(Long farmerId);
-    
-    // Simple query to get all products - useful for debugging
-    List<Product> findAllByOrderByPostedDateDesc();
 
-    @Query(value = """
-            select distinct p.* from products p
+    String VIEW_FROM = """
+            select p.product_id as "id", p.product_name as "productName", p.category as "category",
+                   p.description as "description", p.price as "price", p.unit as "unit",
+                   p.quantity as "quantity", p.image_url as "imageUrl", p.available as "available",
+                   p.status as "status", p.posted_date as "postedDate",
+                   f.user_id as "farmerId", u.username as "farmerName", f.location as "farmerLocation",
+                   p.rating_average as "averageRating", p.rating_count as "ratingCount", f.rating as "farmerRating"
+            from products p
             left join farmers f on f.user_id = p.farmer_id
-            left join users u on f.user_id = u.user_id
-            where (:keyword is null or lower(p.product_name::text) like lower('%' || :keyword || '%'))
+            left join users u on u.user_id = f.user_id
+            """;
+
+    String SEARCH_FROM = VIEW_FROM + """
+            where (:query is null or p.search_vector @@ to_tsquery('english', :query) or :term <% p.product_name)
             and (:category is null or lower(p.category::text) = lower(:category))
             and (:minPrice is null or p.price >= :minPrice)
             and (:maxPrice is null or p.price <= :maxPrice)
-            and (:location is null or f.location is null or lower(f.location::text) like lower('%' || :location || '%'))
+            and (:location is null or f.location is null or f.location ilike ('%' || :location || '%'))
             and (:availableOnly = false or p.available = true or (p.status is null or p.status::text = 'IN_STOCK'))
             and (:status is null or p.status::text = :status or (p.status is null and :status is null))
+            and (:minRating is null or p.rating_average >= :minRating)
+            """;
+
+    List<Product> findByFarmerUserId(Long farmerId);
+
+    // Takes the farmer's products off sale; waits for checkouts already holding the rows and fails later reservations
+    @Modifying
+    @Query(value = """
+            update products
+            set quantity = 0, available = false, status = 'OUT_OF_STOCK'
+            where farmer_id = :farmerId
+            """, nativeQuery = true)
+    int withdrawByFarmer(@Param("farmerId") Long farmerId);
+
+    @Query(value = "select product_id from products where farmer_id = :farmerId order by product_id limit :limit",
+            nativeQuery = true)
+    List<Long> findIdsByFarmer(@Param("farmerId") Long farmerId, @Param("limit") int limit);
+
+    @Query("select p.imageUrl from Product p where p.productId in :productIds and p.imageUrl is not null")
+    List<String> findImageUrlsByIds(@Param("productIds") Collection<Long> productIds);
+
+    @Modifying
+    @Query(value = "delete from products where product_id in (:productIds)", nativeQuery = true)
+    int deleteByIds(@Param("productIds") Collection<Long> productIds);
+
+    // Conditional decrement: the row lock and the stock check happen in one statement, so buyers cannot oversell
+    @Modifying
+    @Query("update Product p set p.quantity = p.quantity - :quantity where p.productId = :productId and p.quantity >= :quantity")
+    int decrementStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("update Product p set p.quantity = coalesce(p.quantity, 0) + :quantity where p.productId = :productId")
+    int incrementStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    // Running review aggregates; the average is stored so rating sorts and filters can use idx_products_rating_id
+    @Modifying
+    @Query(value = """
+            update products
+            set rating_sum = rating_sum + :sumDelta,
+                rating_count = rating_count + :countDelta,
+                rating_average = case when rating_count + :countDelta > 0
+                                      then (rating_sum + :sumDelta)::double precision / (rating_count + :countDelta)
+                                      else 0 end
+            where product_id = :productId
+            """, nativeQuery = true)
+    void addRating(@Param("productId") Long productId,
+                   @Param("sumDelta") long sumDelta,
+                   @Param("countDelta") int countDelta);
+
+    // Takes a batch of reviews, still present, out of the aggregates of every product they touch
+    @Modifying
+    @Query(value = """
+            update products p
+            set rating_sum = p.rating_sum - r.rating_sum,
+                rating_count = p.rating_count - r.rating_count,
+                rating_average = case when p.rating_count - r.rating_count > 0
+                                      then (p.rating_sum - r.rating_sum)::double precision / (p.rating_count - r.rating_count)
+                                      else 0 end
+            from (select product_id, sum(rating) as rating_sum, count(*) as rating_count
+                  from reviews
+                  where review_id in (:reviewIds) and product_id is not null
+                  group by product_id) r
+            where p.product_id = r.product_id
+            """, nativeQuery = true)
+    int removeRatings(@Param("reviewIds") Collection<Long> reviewIds);
+
+    @Query(value = VIEW_FROM + """
+            where p.farmer_id = :farmerId
             order by p.posted_date desc
             """, nativeQuery = true)
-    List<Product> searchProducts(@Param("keyword") String keyword,
-                                 @Param("category") String category,
-                                 @Param("minPrice") Double minPrice,
-                                 @Param("maxPrice") Double maxPrice,
-                                 @Param("location") String location,
-                                 @Param("availableOnly") boolean availableOnly,
-                                 @Param("status") String status);
-}
+    List<ProductView> findViewsByFarmerId(@Param("farmerId") Long farmerId);
+    
+    // Simple query to get all products - useful for debugging
+    List<Product> findAllByOrderByPostedDateDesc();
+
+    @Query(value = SEARCH_FROM + """
+            order by p.posted_date desc
+            """, nativeQuery = true)
+    List<ProductView> searchProducts(@Param("query") String query,
+                                     @Param("term") String term,
+                                     @Param("category") String category,
+                                     @Param("minPrice") Double minPrice,
+                                     @Param("maxPrice") Double maxPrice,
+                                     @Param("location") String location,
+                                     @Param("availableOnly") boolean availableOnly,
+                                     @Param("status") String status,
+                                     @Param("minRating") Double minRating);
+
+    // Keyword search ordered by full-text rank plus name similarity, newest first on ties
+    @Query(value = SEARCH_FROM + """
+            order by ts_rank(p.search_vector, to_tsquery('english', :query)) + word_similarity(:term, p.product_name) desc,
+                     p.posted_date desc
+            """, nativeQuery = true)
+    List<ProductView> searchProductsByRelevance(@Param("query") String query,
+                                                @Param("term") String term,
+                                                @Param("category") String category,
+                                                @Param("minPrice") Double minPrice,
+                                                @Param("maxPrice") Double maxPrice,
+                                                @Param("location") String location,
+                                                @Param("availableOnly") boolean availableOnly,
+                                                @Param("status") String status,
+                                                @Param("minRating") Double minRating);
 
+    // Keyset pages: rows strictly after the (posted_date, product_id) cursor, served by idx_products_posted_date_id
+    @Query(value = SEARCH_FROM + """
+            and (p.posted_date, p.product_id) < (:cursorDate, :cursorId)
+            order by p.posted_date desc, p.product_id desc
+            limit :limit
+            """, nativeQuery = true)
+    List<ProductView> searchProductsBefore(@Param("query") String query,
+                                           @Param("term") String term,
+                                           @Param("category") String category,
+                                           @Param("minPrice") Double minPrice,
+                                           @Param("maxPrice") Double maxPrice,
+                                           @Param("location") String location,
+                                           @Param("availableOnly") boolean availableOnly,
+                                           @Param("status") String status,
+                                           @Param("minRating") Double minRating,
+                                           @Param("cursorDate") LocalDateTime cursorDate,
+                                           @Param("cursorId") Long cursorId,
+                                           @Param("limit") int limit);
+
+    @Query(value = SEARCH_FROM + """
+            and (p.posted_date, p.product_id) > (:cursorDate, :cursorId)
+            order by p.posted_date asc, p.product_id asc
+            limit :limit
+            """, nativeQuery = true)
+    List<ProductView> searchProductsAfter(@Param("query") String query,
+                                          @Param("term") String term,
+                                          @Param("category") String category,
+                                          @Param("minPrice") Double minPrice,
+                                          @Param("maxPrice") Double maxPrice,
+                                          @Param("location") String location,
+                                          @Param("availableOnly") boolean availableOnly,
+                                          @Param("status") String status,
+                                          @Param("minRating") Double minRating,
+                                          @Param("cursorDate") LocalDateTime cursorDate,
+                                          @Param("cursorId") Long cursorId,
+                                          @Param("limit") int limit);
+
+    // Best rated first, keyset on (rating_average, product_id) and served by idx_products_rating_id
+    @Query(value = SEARCH_FROM + """
+            and (p.rating_average, p.product_id) < (:cursorRating, :cursorId)
+            order by p.rating_average desc, p.product_id desc
+            limit :limit
+            """, nativeQuery = true)
+    List<ProductView> searchProductsByRatingBefore(@Param("query") String query,
+                                                   @Param("term") String term,
+                                                   @Param("category") String category,
+                                                   @Param("minPrice") Double minPrice,
+                                                   @Param("maxPrice") Double maxPrice,
+                                                   @Param("location") String location,
+                                                   @Param("availableOnly") boolean availableOnly,
+                                                   @Param("status") String status,
+                                                   @Param("minRating") Double minRating,
+                                                   @Param("cursorRating") Double cursorRating,
+                                                   @Param("cursorId") Long cursorId,
+                                                   @Param("limit") int limit);
+
+    // Server-side cursor for exports; must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+    @Query(value = SEARCH_FROM + """
+            order by p.posted_date desc, p.product_id desc
+            """, nativeQuery = true)
+    Stream<ProductView> streamProducts(@Param("query") String query,
+                                       @Param("term") String term,
+                                       @Param("category") String category,
+                                       @Param("minPrice") Double minPrice,
+                                       @Param("maxPrice") Double maxPrice,
+                                       @Param("location") String location,
+                                       @Param("availableOnly") boolean availableOnly,
+                                       @Param("status") String status,
+                                       @Param("minRating") Double minRating);
+
+    long countByImageUrl(String imageUrl);
+
+    @Transactional
+    @Modifying
+    @Query("update Product p set p.imageUrl = :newUrl where p.imageUrl = :oldUrl")
+    int replaceImageUrl(@Param("oldUrl") String oldUrl, @Param("newUrl") String newUrl);
+}
@@ -1,12 +1,83 @@
 package com.FreshFarmPlatform.demo.repository;
 
+import com.FreshFarmPlatform.demo.dto.review.ReviewView;
 import com.FreshFarmPlatform.demo.model.review.Review;
 import com.FreshFarmPlatform.demo.model.product.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByProduct(Product product);
-}
 
+    @Query(value = "select review_id from reviews where buyer_id = :buyerId order by review_id limit :limit",
+            nativeQuery = true)
+    List<Long> findIdsByBuyer(@Param("buyerId") Long buyerId, @Param("limit") int limit);
+
+    @Query(value = """
+            select distinct product_id from reviews
+            where review_id in (:reviewIds) and product_id is not null
+            """, nativeQuery = true)
+    List<Long> findProductIdsByIds(@Param("reviewIds") Collection<Long> reviewIds);
+
+    @Modifying
+    @Query(value = "delete from reviews where review_id in (:reviewIds)", nativeQuery = true)
+    int deleteByIds(@Param("reviewIds") Collection<Long> reviewIds);
+
+    @Modifying
+    @Query(value = "delete from reviews where product_id in (:productIds)", nativeQuery = true)
+    int deleteByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    String VIEW_FROM = """
+            select r.review_id as "reviewId", r.product_id as "productId", r.buyer_id as "buyerId",
+                   u.username as "buyerUsername", r.rating as "rating", r.comment as "comment",
+                   r.review_date as "reviewDate"
+            from reviews r
+            left join users u on u.user_id = r.buyer_id
+            """;
+
+    @Query(value = VIEW_FROM + """
+            where r.product_id = :productId
+            order by r.review_date desc, r.review_id desc
+            """, nativeQuery = true)
+    List<ReviewView> findViewsByProductId(@Param("productId") Long productId);
+
+    // Keyset pages per product: newest via idx_reviews_product_date_id, by rating via idx_reviews_product_rating_id
+    @Query(value = VIEW_FROM + """
+            where r.product_id = :productId
+            and (r.review_date, r.review_id) < (:cursorDate, :cursorId)
+            order by r.review_date desc, r.review_id desc
+            limit :limit
+            """, nativeQuery = true)
+    List<ReviewView> findNewestBefore(@Param("productId") Long productId,
+                                      @Param("cursorDate") LocalDateTime cursorDate,
+                                      @Param("cursorId") Long cursorId,
+                                      @Param("limit") int limit);
+
+    @Query(value = VIEW_FROM + """
+            where r.product_id = :productId
+            and (r.rating, r.review_id) < (:cursorRating, :cursorId)
+            order by r.rating desc, r.review_id desc
+            limit :limit
+            """, nativeQuery = true)
+    List<ReviewView> findHighestBefore(@Param("productId") Long productId,
+                                       @Param("cursorRating") int cursorRating,
+                                       @Param("cursorId") Long cursorId,
+                                       @Param("limit") int limit);
+
+    @Query(value = VIEW_FROM + """
+            where r.product_id = :productId
+            and (r.rating, r.review_id) > (:cursorRating, :cursorId)
+            order by r.rating asc, r.review_id asc
+            limit :limit
+            """, nativeQuery = true)
+    List<ReviewView> findLowestAfter(@Param("productId") Long productId,
+                                     @Param("cursorRating") int cursorRating,
+                                     @Param("cursorId") Long cursorId,
+                                     @Param("limit") int limit);
+}
@@ -0,0 +1,137 @@
+package com.FreshFarmPlatform.demo.repository;
+
+import com.FreshFarmPlatform.demo.model.report.SalesRollupEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+public interface SalesRollupEventRepository extends JpaRepository<SalesRollupEvent, Long> {
+
+    /**
+     * Deletes every committed event and folds it into the four rollup tables, all in one statement,
+     * so an event is either applied and gone or still waiting. A concurrent drain blocks on the deleted
+     * rows and then skips them. Rows are upserted in key order, as the backfill writes them.
+     */
+    @Modifying
+    @Query(value = """
+            with drained as (
+                delete from sales_rollup_events
+                returning order_id, from_status, to_status
+            ),
+            placed_lines as (
+                select cast(o.order_date as date) as sales_date, oi.product_id, p.farmer_id, p.category,
+                       oi.quantity, coalesce(oi.subtotal, 0) as revenue
+                from drained e
+                join orders o on o.order_id = e.order_id
+                join order_items oi on oi.order_id = o.order_id
+                join products p on p.product_id = oi.product_id
+                where e.from_status is null
+            ),
+            product_rows as (
+                insert into daily_product_sales (sales_date, product_id, quantity, revenue)
+                select sales_date, product_id, sum(quantity), sum(revenue)
+                from placed_lines
+                group by sales_date, product_id
+                order by sales_date, product_id
+                on conflict (sales_date, product_id) do update
+                set quantity = daily_product_sales.quantity + excluded.quantity,
+                    revenue = daily_product_sales.revenue + excluded.revenue
+            ),
+            farmer_rows as (
+                insert into daily_farmer_sales (sales_date, farmer_id, revenue)
+                select sales_date, farmer_id, sum(revenue)
+                from placed_lines
+                group by sales_date, farmer_id
+                order by sales_date, farmer_id
+                on conflict (sales_date, farmer_id) do update
+                set revenue = daily_farmer_sales.revenue + excluded.revenue
+            ),
+            category_rows as (
+                insert into daily_category_sales (sales_date, category, revenue)
+                select sales_date, category, sum(revenue)
+                from placed_lines
+                where category is not null
+                group by sales_date, category
+                order by sales_date, category
+                on conflict (sales_date, category) do update
+                set revenue = daily_category_sales.revenue + excluded.revenue
+            )
+            insert into daily_order_status (sales_date, order_status, order_count, revenue)
+            select sales_date, order_status, sum(order_count), sum(revenue)
+            from (
+                select cast(o.order_date as date) as sales_date, e.to_status as order_status,
+                       1 as order_count, coalesce(o.total_amount, 0) as revenue
+                from drained e
+                join orders o on o.order_id = e.order_id
+                union all
+                select cast(o.order_date as date), e.from_status, -1, -coalesce(o.total_amount, 0)
+                from drained e
+                join orders o on o.order_id = e.order_id
+                where e.from_status is not null
+            ) moves
+            group by sales_date, order_status
+            order by sales_date, order_status
+            on conflict (sales_date, order_status) do update
+            set order_count = daily_order_status.order_count + excluded.order_count,
+                revenue = daily_order_status.revenue + excluded.revenue
+            """, nativeQuery = true)
+    void drain();
+
+    /**
+     * Takes orders that are about to be deleted back out of the rollups, from their current status.
+     * Their pending events must have been drained first, in the same transaction.
+     */
+    @Modifying
+    @Query(value = """
+            with removed_lines as (
+                select cast(o.order_date as date) as sales_date, oi.product_id, p.farmer_id, p.category,
+                       oi.quantity, coalesce(oi.subtotal, 0) as revenue
+                from orders o
+                join order_items oi on oi.order_id = o.order_id
+                join products p on p.product_id = oi.product_id
+                where o.order_id in (:orderIds)
+            ),
+            product_rows as (
+                insert into daily_product_sales (sales_date, product_id, quantity, revenue)
+                select sales_date, product_id, -sum(quantity), -sum(revenue)
+                from removed_lines
+                group by sales_date, product_id
+                order by sales_date, product_id
+                on conflict (sales_date, product_id) do update
+                set quantity = daily_product_sales.quantity + excluded.quantity,
+                    revenue = daily_product_sales.revenue + excluded.revenue
+            ),
+            farmer_rows as (
+                insert into daily_farmer_sales (sales_date, farmer_id, revenue)
+                select sales_date, farmer_id, -sum(revenue)
+                from removed_lines
+                group by sales_date, farmer_id
+                order by sales_date, farmer_id
+                on conflict (sales_date, farmer_id) do update
+                set revenue = daily_farmer_sales.revenue + excluded.revenue
+            ),
+            category_rows as (
+                insert into daily_category_sales (sales_date, category, revenue)
+                select sales_date, category, -sum(revenue)
+                from removed_lines
+                where category is not null
+                group by sales_date, category
+                order by sales_date, category
+                on conflict (sales_date, category) do update
+                set revenue = daily_category_sales.revenue + excluded.revenue
+            )
+            insert into daily_order_status (sales_date, order_status, order_count, revenue)
+            select cast(o.order_date as date), o.status, -count(*), -sum(coalesce(o.total_amount, 0))
+            from orders o
+            where o.order_id in (:orderIds)
+            group by cast(o.order_date as date), o.status
+            order by cast(o.order_date as date), o.status
+            on conflict (sales_date, order_status) do update
+            set order_count = daily_order_status.order_count + excluded.order_count,
+                revenue = daily_order_status.revenue + excluded.revenue
+            """, nativeQuery = true)
+    void subtractOrders(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -2,7 +2,15 @@ package com.FreshFarmPlatform.demo.repository;
 
 import com.FreshFarmPlatform.demo.model.transaction.Transaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-}
 
+    @Modifying
+    @Query(value = "delete from transactions where order_id in (:orderIds)", nativeQuery = true)
+    int deleteByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
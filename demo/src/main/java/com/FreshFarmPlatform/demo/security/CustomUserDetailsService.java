@@ -2,17 +2,21 @@ package com.FreshFarmPlatform.demo.security;
 
 import com.FreshFarmPlatform.demo.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, PrincipalCache principalCache) {
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -21,5 +25,22 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .map(PlatformUserDetails::new)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
-}
 
+    /** Token authentication path; login keeps using the uncached lookup above. */
+    public PlatformUserDetails loadUserForToken(String username, long issuedAt) throws UsernameNotFoundException {
+        return principalCache.get(username, issuedAt, () -> (PlatformUserDetails) loadUserByUsername(username));
+    }
+
+    // Called by DaoAuthenticationProvider after a successful login when the stored hash uses an older strength
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        return userRepository.findByUsername(user.getUsername())
+                .map(entity -> {
+                    entity.setPassword(newPassword);
+                    principalCache.invalidate(entity.getUsername());
+                    return (UserDetails) new PlatformUserDetails(userRepository.save(entity));
+                })
+                .orElse(user);
+    }
+}
@@ -1,30 +1,42 @@
 package com.FreshFarmPlatform.demo.security;
 
 import com.FreshFarmPlatform.demo.config.JwtService;
+import com.FreshFarmPlatform.demo.model.user.UserType;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Date;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationList revocationList;
+    private final boolean statelessClaims;
 
-    public JwtAuthenticationFilter(JwtService jwtService, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   CustomUserDetailsService userDetailsService,
+                                   TokenRevocationList revocationList,
+                                   @Value("${app.security.stateless-claims:false}") boolean statelessClaims) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.revocationList = revocationList;
+        this.statelessClaims = statelessClaims;
     }
 
     @Override
@@ -42,11 +54,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             jwt = authHeader.substring(7);
-            username = jwtService.extractUsername(jwt);
+            // One signature check per request; everything below reads the verified claims
+            Claims claims = jwtService.parseClaims(jwt);
+            username = claims.getSubject();
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                Date issuedAt = claims.getIssuedAt();
+                Long userId = claims.get(JwtService.USER_ID_CLAIM, Long.class);
+                String userType = claims.get(JwtService.USER_TYPE_CLAIM, String.class);
+                if (revocationList.isRevoked(userId, issuedAt)) {
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+                UserDetails userDetails;
+                if (statelessClaims && userId != null && userType != null) {
+                    userDetails = new TokenPrincipal(userId, username, UserType.valueOf(userType));
+                } else {
+                    // Tokens issued before the id/type claims existed still authenticate by lookup
+                    userDetails = userDetailsService.loadUserForToken(
+                            username, issuedAt != null ? issuedAt.getTime() : 0L);
+                }
+                if (jwtService.isTokenValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -59,12 +87,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         } catch (ExpiredJwtException e) {
             // Token expired - silently continue without authentication
             // The request will be handled as unauthenticated
-        } catch (JwtException e) {
+        } catch (JwtException | IllegalArgumentException e) {
             // Invalid token - silently continue without authentication
             // The request will be handled as unauthenticated
+        } catch (UsernameNotFoundException e) {
+            // Token for an account that no longer exists
         }
 
         filterChain.doFilter(request, response);
     }
 }
-
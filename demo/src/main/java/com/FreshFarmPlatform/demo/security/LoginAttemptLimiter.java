@@ -0,0 +1,107 @@
+package com.FreshFarmPlatform.demo.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sliding-window login attempt limits per username and per client address.
+ * Each key holds the counts of the current and previous fixed windows; the previous count is
+ * weighted by how much of it still overlaps the sliding window. Keys live in an access-ordered map
+ * capped at app.security.login-limit.max-keys: past the cap the least recently tried key is dropped,
+ * so a flood of made-up usernames costs bounded memory (at worst it forgets an old key's count).
+ * Each update is a short critical section, far cheaper than the password check it guards.
+ * Addresses are only as good as HttpServletRequest.getRemoteAddr(): behind a reverse proxy that is the
+ * client only when server.forward-headers-strategy applies the proxy's X-Forwarded-For.
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    private record Window(long start, int previous, int current) {
+    }
+
+    private static final Window EMPTY = new Window(0, 0, 0);
+
+    private final long windowMillis;
+    private final int maxPerUsername;
+    private final int maxPerAddress;
+    private final Clock clock;
+    // Least recently tried first, which is also oldest window start first; guarded by this
+    private final LinkedHashMap<String, Window> windows;
+    private long nextPurge;
+
+    @Autowired
+    public LoginAttemptLimiter(@Value("${app.security.login-limit.window-seconds:300}") long windowSeconds,
+                               @Value("${app.security.login-limit.per-username:10}") int maxPerUsername,
+                               @Value("${app.security.login-limit.per-address:100}") int maxPerAddress,
+                               @Value("${app.security.login-limit.max-keys:100000}") int maxKeys) {
+        this(windowSeconds, maxPerUsername, maxPerAddress, maxKeys, Clock.systemUTC());
+    }
+
+    LoginAttemptLimiter(long windowSeconds, int maxPerUsername, int maxPerAddress, int maxKeys, Clock clock) {
+        this.windowMillis = windowSeconds * 1000;
+        this.maxPerUsername = maxPerUsername;
+        this.maxPerAddress = maxPerAddress;
+        this.clock = clock;
+        this.windows = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Window> eldest) {
+                return size() > maxKeys;
+            }
+        };
+    }
+
+    /** Counts one attempt against both limits; false means the attempt must be refused. */
+    public boolean tryAcquire(String username, String address) {
+        boolean userAllowed = username == null || tryAcquire("user:" + username.toLowerCase(), maxPerUsername);
+        boolean addressAllowed = address == null || tryAcquire("addr:" + address, maxPerAddress);
+        return userAllowed && addressAllowed;
+    }
+
+    /** A successful login clears the username's failures; the address keeps counting. */
+    public synchronized void reset(String username) {
+        if (username != null) {
+            windows.remove("user:" + username.toLowerCase());
+        }
+    }
+
+    synchronized int trackedKeys() {
+        return windows.size();
+    }
+
+    private synchronized boolean tryAcquire(String key, int limit) {
+        long now = clock.millis();
+        if (now >= nextPurge) {
+            purgeIdle(now);
+            nextPurge = now + windowMillis;
+        }
+        Window window = roll(windows.getOrDefault(key, EMPTY), now);
+        double overlap = 1.0 - (double) (now - window.start()) / windowMillis;
+        boolean allowed = window.previous() * overlap + window.current() < limit;
+        windows.put(key, allowed ? new Window(window.start(), window.previous(), window.current() + 1) : window);
+        return allowed;
+    }
+
+    private Window roll(Window window, long now) {
+        long start = now - now % windowMillis;
+        if (window.start() == start) {
+            return window;
+        }
+        int previous = window.start() == start - windowMillis ? window.current() : 0;
+        return new Window(start, previous, 0);
+    }
+
+    // At most once per window, and it stops at the first key still in use, so it only visits what it removes
+    private void purgeIdle(long now) {
+        long cutoff = now - 2 * windowMillis;
+        Iterator<Window> eldestFirst = windows.values().iterator();
+        while (eldestFirst.hasNext() && eldestFirst.next().start() < cutoff) {
+            eldestFirst.remove();
+        }
+    }
+}
@@ -9,32 +9,47 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
 import java.util.List;
 
-public class PlatformUserDetails implements UserDetails {
+/**
+ * Immutable snapshot of the account fields authentication needs. It is cached and shared
+ * across requests, so it never holds the entity; services load that through UserService.
+ */
+public final class PlatformUserDetails implements UserDetails {
 
-    private final User user;
+    private final Long userId;
+    private final String username;
+    private final UserType userType;
+    private final String password;
+    private final boolean enabled;
 
     public PlatformUserDetails(User user) {
-        this.user = user;
+        this.userId = user.getUserId();
+        this.username = user.getUsername();
+        this.userType = user.getUserType();
+        this.password = user.getPassword();
+        this.enabled = !Boolean.FALSE.equals(user.getActive());
     }
 
-    public User getUser() {
-        return user;
+    public Long getUserId() {
+        return userId;
+    }
+
+    public UserType getUserType() {
+        return userType;
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        UserType type = user.getUserType();
-        return List.of(new SimpleGrantedAuthority("ROLE_" + type.name()));
+        return List.of(new SimpleGrantedAuthority("ROLE_" + userType.name()));
     }
 
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return user.getUsername();
+        return username;
     }
 
     @Override
@@ -54,7 +69,6 @@ public class PlatformUserDetails implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return true;
+        return enabled;
     }
 }
-
@@ -0,0 +1,135 @@
+package com.FreshFarmPlatform.demo.security;
+
+import com.FreshFarmPlatform.demo.dto.admin.CacheStatsResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU + TTL cache of authenticated principals keyed by username and token issued-at,
+ * so the JWT filter does not reload the user on every request.
+ * Account changes evict the username immediately and again after commit; a generation counter
+ * stops a load that raced with an eviction from being cached.
+ */
+@Component
+public class PrincipalCache {
+
+    private record Key(String username, long issuedAt) {
+    }
+
+    private record Entry(PlatformUserDetails principal, long expiresAt) {
+    }
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<Key, Entry> entries;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public PrincipalCache(@Value("${app.principal-cache.enabled:true}") boolean enabled,
+                          @Value("${app.principal-cache.max-entries:10000}") int maxEntries,
+                          @Value("${app.principal-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > PrincipalCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public PlatformUserDetails get(String username, long issuedAt, Supplier<PlatformUserDetails> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Key key = new Key(username, issuedAt);
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt() > now) {
+                    hits.increment();
+                    return entry.principal();
+                }
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        long loadedAt = generation.get();
+        PlatformUserDetails principal = loader.get();
+        synchronized (entries) {
+            if (generation.get() == loadedAt) {
+                entries.put(key, new Entry(principal, System.currentTimeMillis() + ttlMillis));
+            }
+        }
+        return principal;
+    }
+
+    /** The account changed or went away: drop every cached principal for it, now and once the change commits. */
+    public void invalidate(String username) {
+        if (!enabled || username == null) {
+            return;
+        }
+        evict(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(username);
+                }
+            });
+        }
+    }
+
+    public CacheStatsResponse stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStatsResponse(
+                "principals",
+                size,
+                maxEntries,
+                hitCount,
+                missCount,
+                evictions.sum(),
+                invalidations.sum(),
+                lookups == 0 ? 0.0 : (double) hitCount / lookups
+        );
+    }
+
+    private void evict(String username) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            Iterator<Key> iterator = entries.keySet().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().username().equals(username)) {
+                    iterator.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+}
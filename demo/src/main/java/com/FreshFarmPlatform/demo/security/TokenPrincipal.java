@@ -0,0 +1,69 @@
+package com.FreshFarmPlatform.demo.security;
+
+import com.FreshFarmPlatform.demo.model.user.UserType;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal built from verified token claims alone. The full user is only loaded
+ * when a service asks for it.
+ */
+public class TokenPrincipal implements UserDetails {
+
+    private final Long userId;
+    private final String username;
+    private final UserType userType;
+
+    public TokenPrincipal(Long userId, String username, UserType userType) {
+        this.userId = userId;
+        this.username = username;
+        this.userType = userType;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public UserType getUserType() {
+        return userType;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + userType.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
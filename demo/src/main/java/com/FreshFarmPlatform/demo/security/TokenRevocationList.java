@@ -0,0 +1,75 @@
+package com.FreshFarmPlatform.demo.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Users whose tokens issued up to a point in time are no longer accepted.
+ * An entry only matters until every token issued before it has expired, so entries older
+ * than the token lifetime are purged; past max-entries the oldest revocations go first.
+ */
+@Component
+public class TokenRevocationList {
+
+    private final int maxEntries;
+    private final long tokenLifetimeMillis;
+    private final Map<Long, Long> revokedAt = new ConcurrentHashMap<>();
+
+    public TokenRevocationList(@Value("${app.token-revocation.max-entries:10000}") int maxEntries,
+                               @Value("${application.jwt.expiration-ms:86400000}") long tokenLifetimeMillis) {
+        this.maxEntries = maxEntries;
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+    }
+
+    /**
+     * Inside a transaction the revocation takes effect once it commits: a rolled back change revokes
+     * nothing, and a token issued while the change was still uncommitted is older than the revocation.
+     */
+    public void revokeUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    revokeNow(userId);
+                }
+            });
+        } else {
+            revokeNow(userId);
+        }
+    }
+
+    private void revokeNow(Long userId) {
+        revokedAt.put(userId, System.currentTimeMillis());
+        if (revokedAt.size() > maxEntries) {
+            purge();
+        }
+    }
+
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        if (userId == null) {
+            return false;
+        }
+        Long revoked = revokedAt.get(userId);
+        return revoked != null && (issuedAt == null || issuedAt.getTime() <= revoked);
+    }
+
+    private synchronized void purge() {
+        long cutoff = System.currentTimeMillis() - tokenLifetimeMillis;
+        revokedAt.values().removeIf(revoked -> revoked < cutoff);
+        while (revokedAt.size() > maxEntries) {
+            revokedAt.entrySet().stream()
+                    .min(Map.Entry.comparingByValue(Comparator.naturalOrder()))
+                    .ifPresent(oldest -> revokedAt.remove(oldest.getKey(), oldest.getValue()));
+        }
+    }
+}
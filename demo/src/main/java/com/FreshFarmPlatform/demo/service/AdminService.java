@@ -1,20 +1,30 @@
 package com.FreshFarmPlatform.demo.service;
 
+import com.FreshFarmPlatform.demo.dto.admin.CacheStatsResponse;
+import com.FreshFarmPlatform.demo.dto.admin.FarmerRevenueTotal;
+import com.FreshFarmPlatform.demo.dto.admin.GroupTotal;
+import com.FreshFarmPlatform.demo.dto.admin.ProductSalesTotal;
+import com.FreshFarmPlatform.demo.dto.admin.ReportBucketResponse;
+import com.FreshFarmPlatform.demo.dto.admin.ReportGranularity;
 import com.FreshFarmPlatform.demo.dto.admin.ReportResponse;
 import com.FreshFarmPlatform.demo.dto.admin.TransactionSummaryResponse;
+import com.FreshFarmPlatform.demo.dto.admin.UserDeletionJobResponse;
 import com.FreshFarmPlatform.demo.dto.admin.UserManagementResponse;
 import com.FreshFarmPlatform.demo.exception.BadRequestException;
 import com.FreshFarmPlatform.demo.exception.ResourceNotFoundException;
 import com.FreshFarmPlatform.demo.model.order.Order;
 import com.FreshFarmPlatform.demo.model.order.OrderStatus;
-import com.FreshFarmPlatform.demo.model.product.Product;
 import com.FreshFarmPlatform.demo.model.transaction.Transaction;
 import com.FreshFarmPlatform.demo.model.user.User;
 import com.FreshFarmPlatform.demo.model.user.UserType;
 import com.FreshFarmPlatform.demo.repository.*;
+import com.FreshFarmPlatform.demo.security.PrincipalCache;
+import com.FreshFarmPlatform.demo.security.TokenRevocationList;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -22,42 +32,62 @@ import java.util.stream.Collectors;
 @Service
 public class AdminService {
 
+    private static final int TOP_LIMIT = 5;
+    private static final long MAX_REPORT_BUCKETS = 5000;
+
     private final UserRepository userRepository;
     private final OrderRepository orderRepository;
     private final TransactionRepository transactionRepository;
     private final ProductRepository productRepository;
     private final UserService userService;
-    private final CartRepository cartRepository;
-    private final MessageRepository messageRepository;
-    private final ReviewRepository reviewRepository;
-    private final CartItemRepository cartItemRepository;
+    private final UserDeletionService userDeletionService;
     private final OrderItemRepository orderItemRepository;
+    private final ProductCatalogCache catalogCache;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationList revocationList;
+    private final ImageDerivativeService imageDerivativeService;
+    private final FileStorageService fileStorageService;
+    private final DailyProductSalesRepository productSalesRepository;
+    private final DailyFarmerSalesRepository farmerSalesRepository;
+    private final DailyCategorySalesRepository categorySalesRepository;
+    private final DailyOrderStatusCountRepository statusCountRepository;
 
     public AdminService(UserRepository userRepository,
                        OrderRepository orderRepository,
                        TransactionRepository transactionRepository,
                        ProductRepository productRepository,
                        UserService userService,
-                       CartRepository cartRepository,
-                       MessageRepository messageRepository,
-                       ReviewRepository reviewRepository,
-                       CartItemRepository cartItemRepository,
-                       OrderItemRepository orderItemRepository) {
+                       UserDeletionService userDeletionService,
+                       OrderItemRepository orderItemRepository,
+                       ProductCatalogCache catalogCache,
+                       PrincipalCache principalCache,
+                       TokenRevocationList revocationList,
+                       ImageDerivativeService imageDerivativeService,
+                       FileStorageService fileStorageService,
+                       DailyProductSalesRepository productSalesRepository,
+                       DailyFarmerSalesRepository farmerSalesRepository,
+                       DailyCategorySalesRepository categorySalesRepository,
+                       DailyOrderStatusCountRepository statusCountRepository) {
         this.userRepository = userRepository;
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
         this.transactionRepository = transactionRepository;
         this.userService = userService;
-        this.cartRepository = cartRepository;
-        this.messageRepository = messageRepository;
-        this.reviewRepository = reviewRepository;
-        this.cartItemRepository = cartItemRepository;
+        this.userDeletionService = userDeletionService;
         this.orderItemRepository = orderItemRepository;
+        this.catalogCache = catalogCache;
+        this.principalCache = principalCache;
+        this.revocationList = revocationList;
+        this.imageDerivativeService = imageDerivativeService;
+        this.fileStorageService = fileStorageService;
+        this.productSalesRepository = productSalesRepository;
+        this.farmerSalesRepository = farmerSalesRepository;
+        this.categorySalesRepository = categorySalesRepository;
+        this.statusCountRepository = statusCountRepository;
     }
 
     private void ensureAdmin() {
-        User current = userService.getCurrentUser();
-        if (current.getUserType() != UserType.ADMIN) {
+        if (userService.getCurrentUserType() != UserType.ADMIN) {
             throw new BadRequestException("Only admins can access this resource");
         }
     }
@@ -65,25 +95,36 @@ public class AdminService {
     public List<UserManagementResponse> getAllUsers() {
         ensureAdmin();
         return userRepository.findAll().stream()
-                .map(user -> new UserManagementResponse(
-                        user.getUserId(),
-                        user.getUsername(),
-                        user.getEmail(),
-                        user.getPhone(),
-                        user.getAddress(),
-                        user.getUserType(),
-                        user.getRegisteredDate(),
-                        true // Assuming all users are active by default
-                ))
+                .map(this::toManagementResponse)
                 .collect(Collectors.toList());
     }
 
+    /** Blocks logins and, once committed, every token already issued to the account. */
     @Transactional
     public UserManagementResponse deactivateUser(Long userId) {
         ensureAdmin();
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        // In a real system, you'd have an 'active' field. For now, we'll just return the user.
+        if (user.getUserId().equals(userService.getCurrentUserId())) {
+            throw new BadRequestException("Cannot deactivate your own account");
+        }
+        user.setActive(false);
+        principalCache.invalidate(user.getUsername());
+        revocationList.revokeUser(user.getUserId());
+        return toManagementResponse(userRepository.save(user));
+    }
+
+    @Transactional
+    public UserManagementResponse activateUser(Long userId) {
+        ensureAdmin();
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        user.setActive(true);
+        principalCache.invalidate(user.getUsername());
+        return toManagementResponse(userRepository.save(user));
+    }
+
+    private UserManagementResponse toManagementResponse(User user) {
         return new UserManagementResponse(
                 user.getUserId(),
                 user.getUsername(),
@@ -92,84 +133,58 @@ public class AdminService {
                 user.getAddress(),
                 user.getUserType(),
                 user.getRegisteredDate(),
-                false
+                user.getActive()
         );
     }
 
-    @Transactional
     public void deleteUser(Long userId) {
+        User user = userToDelete(userId);
+        userDeletionService.run(userDeletionService.register(user).jobId());
+    }
+
+    public UserDeletionJobResponse startUserDeletion(Long userId) {
+        User user = userToDelete(userId);
+        UserDeletionJobResponse job = userDeletionService.register(user);
+        userDeletionService.runInBackground(job.jobId());
+        return job;
+    }
+
+    public UserDeletionJobResponse getUserDeletion(String jobId) {
+        ensureAdmin();
+        return userDeletionService.progress(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Deletion job not found"));
+    }
+
+    private User userToDelete(Long userId) {
         ensureAdmin();
-        User current = userService.getCurrentUser();
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        if (user.getUserId().equals(current.getUserId())) {
+        if (user.getUserId().equals(userService.getCurrentUserId())) {
             throw new BadRequestException("Cannot delete your own account");
         }
-        
-        // Delete related entities based on user type
-        if (user.getUserType() == UserType.BUYER) {
-            // Delete cart and cart items
-            cartRepository.findByBuyer((com.FreshFarmPlatform.demo.model.user.Buyer) user)
-                    .ifPresent(cart -> {
-                        cartItemRepository.deleteAll(cart.getItems());
-                        cartRepository.delete(cart);
-                    });
-            
-            // Delete orders and related entities
-            List<Order> orders = orderRepository.findByBuyer((com.FreshFarmPlatform.demo.model.user.Buyer) user);
-            for (Order order : orders) {
-                // Delete transaction first
-                if (order.getTransaction() != null) {
-                    transactionRepository.delete(order.getTransaction());
-                }
-                // Delete order items explicitly to avoid constraint issues
-                if (order.getItems() != null && !order.getItems().isEmpty()) {
-                    orderItemRepository.deleteAll(order.getItems());
-                }
-            }
-            // Delete orders
-            orderRepository.deleteAll(orders);
-            
-            // Delete reviews by this buyer
-            List<com.FreshFarmPlatform.demo.model.review.Review> reviews = reviewRepository.findAll().stream()
-                    .filter(r -> r.getBuyer() != null && r.getBuyer().getUserId().equals(userId))
-                    .collect(Collectors.toList());
-            reviewRepository.deleteAll(reviews);
-        } else if (user.getUserType() == UserType.FARMER) {
-            // Delete products and related entities
-            List<Product> products = productRepository.findByFarmerUserId(userId);
-            for (Product product : products) {
-                // Delete reviews for this product
-                List<com.FreshFarmPlatform.demo.model.review.Review> productReviews = reviewRepository.findByProduct(product);
-                reviewRepository.deleteAll(productReviews);
-                
-                // Delete cart items that reference this product
-                List<com.FreshFarmPlatform.demo.model.cart.CartItem> cartItems = cartItemRepository.findAll().stream()
-                        .filter(ci -> ci.getProduct() != null && ci.getProduct().getProductId().equals(product.getProductId()))
-                        .collect(Collectors.toList());
-                cartItemRepository.deleteAll(cartItems);
-                
-                // Update cart totals after removing items
-                cartItems.forEach(item -> {
-                    if (item.getCart() != null) {
-                        com.FreshFarmPlatform.demo.model.cart.Cart cart = item.getCart();
-                        cart.getItems().remove(item);
-                        cart.setTotalAmount(cart.getItems().stream()
-                                .mapToDouble(ci -> ci.getSubtotal() != null ? ci.getSubtotal() : 0.0)
-                                .sum());
-                        cartRepository.save(cart);
-                    }
-                });
-            }
-            productRepository.deleteAll(products);
-        }
-        
-        // Delete messages (as sender or recipient)
-        List<com.FreshFarmPlatform.demo.model.message.Message> messages = messageRepository.findBySenderOrRecipientOrderBySentDateDesc(user, user);
-        messageRepository.deleteAll(messages);
-        
-        // Finally delete the user (this will also delete the subclass table entry)
-        userRepository.delete(user);
+        principalCache.invalidate(user.getUsername());
+        revocationList.revokeUser(user.getUserId());
+        return user;
+    }
+
+    public CacheStatsResponse getCatalogCacheStats() {
+        ensureAdmin();
+        return catalogCache.stats();
+    }
+
+    public void startImageBackfill() {
+        ensureAdmin();
+        imageDerivativeService.backfill();
+    }
+
+    public void startUploadMigration() {
+        ensureAdmin();
+        fileStorageService.migrateToContentAddressed();
+    }
+
+    public CacheStatsResponse getPrincipalCacheStats() {
+        ensureAdmin();
+        return principalCache.stats();
     }
 
     public List<TransactionSummaryResponse> getAllTransactions() {
@@ -191,8 +206,15 @@ public class AdminService {
                 .collect(Collectors.toList());
     }
 
-    public ReportResponse generateReport(String period) {
+    public ReportResponse generateReport(String period,
+                                         LocalDateTime from,
+                                         LocalDateTime to,
+                                         ReportGranularity granularity) {
         ensureAdmin();
+        ReportGranularity bucket = granularity != null ? granularity : ReportGranularity.DAY;
+        if (from != null || to != null) {
+            return generateCustomReport(from, to, bucket);
+        }
         LocalDateTime startDate;
         LocalDateTime endDate = LocalDateTime.now();
 
@@ -210,95 +232,118 @@ public class AdminService {
                 startDate = endDate.minusMonths(1);
         }
 
-        List<Order> orders = orderRepository.findAll().stream()
-                .filter(order -> order.getOrderDate().isAfter(startDate) && order.getOrderDate().isBefore(endDate))
-                .collect(Collectors.toList());
+        // Reads the daily rollups, so the cost follows the number of days and groups, not orders.
+        // The rollups cover whole days, so the series is cut to the same days and the two add up
+        LocalDate fromDay = startDate.toLocalDate();
+        LocalDate toDay = endDate.toLocalDate();
+        LocalDateTime windowStart = fromDay.atStartOfDay();
+        LocalDateTime windowEnd = toDay.plusDays(1).atStartOfDay();
+        checkBucketCount(windowStart, windowEnd, bucket);
+        return buildReport(
+                period,
+                statusCountRepository.totalsByStatus(fromDay, toDay),
+                productSalesRepository.topProducts(fromDay, toDay, TOP_LIMIT),
+                farmerSalesRepository.topFarmers(fromDay, toDay, TOP_LIMIT),
+                categorySalesRepository.revenueByCategory(fromDay, toDay),
+                windowStart,
+                windowEnd,
+                bucket
+        );
+    }
 
-        Double totalRevenue = orders.stream()
-                .mapToDouble(order -> order.getTotalAmount() != null ? order.getTotalAmount() : 0.0)
-                .sum();
+    // Arbitrary ranges are not day-aligned, so they aggregate the orders themselves in Postgres
+    private ReportResponse generateCustomReport(LocalDateTime from, LocalDateTime to, ReportGranularity bucket) {
+        if (from == null || to == null) {
+            throw new BadRequestException("Both from and to are required for a custom report");
+        }
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("from must be before to");
+        }
+        checkBucketCount(from, to, bucket);
+        return buildReport(
+                "CUSTOM",
+                orderRepository.totalsByStatus(from, to),
+                orderItemRepository.topProducts(from, to, TOP_LIMIT),
+                orderItemRepository.topFarmers(from, to, TOP_LIMIT),
+                orderItemRepository.revenueByCategory(from, to),
+                from,
+                to,
+                bucket
+        );
+    }
 
-        Long totalOrders = (long) orders.size();
-        Long totalUsers = userRepository.count();
-        Long totalProducts = productRepository.count();
+    private void checkBucketCount(LocalDateTime from, LocalDateTime to, ReportGranularity bucket) {
+        long buckets = Duration.between(from, to).dividedBy(bucket.length());
+        if (buckets > MAX_REPORT_BUCKETS) {
+            throw new BadRequestException("Range is too large for " + bucket.name().toLowerCase()
+                    + " granularity (max " + MAX_REPORT_BUCKETS + " buckets)");
+        }
+    }
 
-        // Top products by quantity sold
-        Map<Long, Long> productSales = new HashMap<>();
-        orders.forEach(order -> {
-            if (order.getItems() != null) {
-                order.getItems().forEach(item -> {
-                    productSales.merge(item.getProduct().getProductId(), (long) item.getQuantity(), Long::sum);
-                });
+    private ReportResponse buildReport(String period,
+                                       List<GroupTotal> statusTotals,
+                                       List<ProductSalesTotal> productTotals,
+                                       List<FarmerRevenueTotal> farmerTotals,
+                                       List<GroupTotal> categoryTotals,
+                                       LocalDateTime from,
+                                       LocalDateTime to,
+                                       ReportGranularity bucket) {
+        Map<String, Long> ordersByStatus = new HashMap<>();
+        double totalRevenue = 0.0;
+        long totalOrders = 0;
+        for (GroupTotal row : statusTotals) {
+            if (row.getOrderCount() > 0) {
+                ordersByStatus.put(row.getKey(), row.getOrderCount());
             }
-        });
+            totalRevenue += row.getRevenue();
+            totalOrders += row.getOrderCount();
+        }
 
-        List<Map<String, Object>> topProducts = productSales.entrySet().stream()
-                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
-                .limit(5)
-                .map(entry -> {
-                    Product product = productRepository.findById(entry.getKey()).orElse(null);
+        // Top products by quantity sold
+        List<Map<String, Object>> topProducts = productTotals.stream()
+                .map(row -> {
                     Map<String, Object> map = new HashMap<>();
-                    map.put("productId", entry.getKey());
-                    map.put("productName", product != null ? product.getProductName() : "Unknown");
-                    map.put("quantitySold", entry.getValue());
+                    map.put("productId", row.getProductId());
+                    map.put("productName", row.getProductName());
+                    map.put("quantitySold", row.getQuantitySold());
                     return map;
                 })
                 .collect(Collectors.toList());
 
         // Top farmers by revenue
-        Map<Long, Double> farmerRevenue = new HashMap<>();
-        orders.forEach(order -> {
-            if (order.getItems() != null) {
-                order.getItems().forEach(item -> {
-                    Long farmerId = item.getProduct().getFarmer().getUserId();
-                    farmerRevenue.merge(farmerId, item.getSubtotal(), Double::sum);
-                });
-            }
-        });
-
-        List<Map<String, Object>> topFarmers = farmerRevenue.entrySet().stream()
-                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
-                .limit(5)
-                .map(entry -> {
-                    User farmer = userRepository.findById(entry.getKey()).orElse(null);
+        List<Map<String, Object>> topFarmers = farmerTotals.stream()
+                .map(row -> {
                     Map<String, Object> map = new HashMap<>();
-                    map.put("farmerId", entry.getKey());
-                    map.put("farmerName", farmer != null ? farmer.getUsername() : "Unknown");
-                    map.put("revenue", entry.getValue());
+                    map.put("farmerId", row.getFarmerId());
+                    map.put("farmerName", row.getFarmerName());
+                    map.put("revenue", row.getRevenue());
                     return map;
                 })
                 .collect(Collectors.toList());
 
-        // Orders by status
-        Map<String, Long> ordersByStatus = orders.stream()
-                .collect(Collectors.groupingBy(
-                        order -> order.getStatus().name(),
-                        Collectors.counting()
-                ));
-
         // Revenue by category
         Map<String, Double> revenueByCategory = new HashMap<>();
-        orders.forEach(order -> {
-            if (order.getItems() != null) {
-                order.getItems().forEach(item -> {
-                    String category = item.getProduct().getCategory();
-                    revenueByCategory.merge(category, item.getSubtotal(), Double::sum);
-                });
-            }
-        });
+        categoryTotals.forEach(row -> revenueByCategory.put(row.getKey(), row.getRevenue()));
+
+        List<ReportBucketResponse> revenueSeries = orderRepository.revenueSeries(bucket.unit(), from, to).stream()
+                .map(row -> new ReportBucketResponse(row.getBucketStart(), row.getOrderCount(), row.getRevenue()))
+                .toList();
 
         return new ReportResponse(
                 "SALES_REPORT",
                 period,
                 totalRevenue,
                 totalOrders,
-                totalUsers,
-                totalProducts,
+                userRepository.count(),
+                productRepository.count(),
                 topProducts,
                 topFarmers,
                 ordersByStatus,
-                revenueByCategory
+                revenueByCategory,
+                from,
+                to,
+                bucket,
+                revenueSeries
         );
     }
 }
-
@@ -3,12 +3,15 @@ package com.FreshFarmPlatform.demo.service;
 import com.FreshFarmPlatform.demo.config.JwtService;
 import com.FreshFarmPlatform.demo.dto.auth.*;
 import com.FreshFarmPlatform.demo.exception.BadRequestException;
+import com.FreshFarmPlatform.demo.exception.ResourceNotFoundException;
+import com.FreshFarmPlatform.demo.exception.TooManyRequestsException;
 import com.FreshFarmPlatform.demo.model.cart.Cart;
 import com.FreshFarmPlatform.demo.model.user.*;
 import com.FreshFarmPlatform.demo.repository.BuyerRepository;
 import com.FreshFarmPlatform.demo.repository.CartRepository;
 import com.FreshFarmPlatform.demo.repository.FarmerRepository;
 import com.FreshFarmPlatform.demo.repository.UserRepository;
+import com.FreshFarmPlatform.demo.security.LoginAttemptLimiter;
 import com.FreshFarmPlatform.demo.security.PlatformUserDetails;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -27,6 +30,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final LoginAttemptLimiter loginAttemptLimiter;
 
     public AuthService(UserRepository userRepository,
                        FarmerRepository farmerRepository,
@@ -34,7 +38,8 @@ public class AuthService {
                        CartRepository cartRepository,
                        PasswordEncoder passwordEncoder,
                        AuthenticationManager authenticationManager,
-                       JwtService jwtService) {
+                       JwtService jwtService,
+                       LoginAttemptLimiter loginAttemptLimiter) {
         this.userRepository = userRepository;
         this.farmerRepository = farmerRepository;
         this.buyerRepository = buyerRepository;
@@ -42,6 +47,7 @@ public class AuthService {
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
+        this.loginAttemptLimiter = loginAttemptLimiter;
     }
 
     @Transactional
@@ -101,12 +107,19 @@ public class AuthService {
         return buildAuthResponse(saved);
     }
 
-    public AuthResponse login(LoginRequest request) {
+    public AuthResponse login(LoginRequest request, String clientAddress) {
+        // Checked before any hashing so a flood of guesses costs no BCrypt work
+        if (!loginAttemptLimiter.tryAcquire(request.username(), clientAddress)) {
+            throw new TooManyRequestsException("Too many login attempts, please try again later");
+        }
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.username(), request.password())
         );
+        loginAttemptLimiter.reset(request.username());
         PlatformUserDetails principal = (PlatformUserDetails) authentication.getPrincipal();
-        return buildTokenResponse(principal.getUser());
+        User user = userRepository.findById(principal.getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return buildTokenResponse(user);
     }
 
     private void validateUniqueUser(String username, String email) {
@@ -123,7 +136,7 @@ public class AuthService {
     }
 
     private AuthResponse buildTokenResponse(User user) {
-        String token = jwtService.generateToken(new com.FreshFarmPlatform.demo.security.PlatformUserDetails(user));
+        String token = jwtService.generateToken(new PlatformUserDetails(user));
         UserSummary summary = new UserSummary(user.getUserId(), user.getUsername(), user.getEmail(), user.getUserType());
         return new AuthResponse(token, summary);
     }
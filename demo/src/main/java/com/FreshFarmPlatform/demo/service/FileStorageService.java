@@ -1,49 +1,249 @@
 package com.FreshFarmPlatform.demo.service;
 
+import com.FreshFarmPlatform.demo.dto.product.ImageVariants;
+import com.FreshFarmPlatform.demo.repository.ProductRepository;
+import com.FreshFarmPlatform.demo.storage.ObjectStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.Objects;
-import java.util.UUID;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
 
+/**
+ * Stores uploads under the SHA-256 of their content, so the same photo uploaded twice is kept once
+ * and its URL never changes meaning. A file is deleted once no product references it any more.
+ * The bytes themselves live in whichever {@link ObjectStorage} backend is configured.
+ */
 @Service
 public class FileStorageService {
 
-    private final Path storagePath;
+    private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,10})?");
+    private static final String TEMP_PREFIX = "upload-";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Pattern SAFE_NAME = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
 
-    public FileStorageService(@Value("${app.file-storage-location:uploads}") String storageLocation) {
-        this.storagePath = Paths.get(storageLocation).toAbsolutePath().normalize();
-        try {
-            Files.createDirectories(this.storagePath);
-        } catch (IOException e) {
-            throw new IllegalStateException("Could not create upload directory", e);
+    private final ObjectStorage storage;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ProductRepository productRepository;
+    private final ProductCatalogCache catalogCache;
+    // A file re-uploaded this recently may be about to gain a reference, so it is not collected yet
+    private final Duration gcGracePeriod;
+    private final int migrationBatchSize;
+
+    public FileStorageService(@Value("${app.file-storage.gc-grace-seconds:600}") long gcGraceSeconds,
+                              @Value("${app.file-storage.migration-batch-size:100}") int migrationBatchSize,
+                              ObjectStorage storage,
+                              ImageDerivativeService imageDerivativeService,
+                              ProductRepository productRepository,
+                              ProductCatalogCache catalogCache) {
+        this.storage = storage;
+        this.imageDerivativeService = imageDerivativeService;
+        this.productRepository = productRepository;
+        this.catalogCache = catalogCache;
+        this.gcGracePeriod = Duration.ofSeconds(gcGraceSeconds);
+        this.migrationBatchSize = migrationBatchSize;
+    }
+
+    public static boolean isContentAddressed(String filename) {
+        return CONTENT_ADDRESSED.matcher(filename).matches();
+    }
+
+    /** The storage key for an uploaded file name, or null if it is not a plain file name. */
+    public static String uploadKey(String filename) {
+        if (filename == null || !SAFE_NAME.matcher(filename).matches() || filename.endsWith(TEMP_SUFFIX)) {
+            return null;
         }
+        return filename;
+    }
+
+    public static String variantKey(String filename) {
+        String key = uploadKey(filename);
+        return key == null ? null : ImageDerivativeService.VARIANTS_KEY_PREFIX + key;
+    }
+
+    public static MediaType contentType(String filename) {
+        return MediaTypeFactory.getMediaType(filename).orElse(MediaType.APPLICATION_OCTET_STREAM);
     }
 
     public String store(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             return null;
         }
-        String extension = getExtension(Objects.requireNonNull(file.getOriginalFilename()));
-        String filename = UUID.randomUUID() + extension;
-        Path target = storagePath.resolve(filename);
-        try {
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
+        try (InputStream input = file.getInputStream()) {
+            String filename = storeContent(input, getExtension(file.getOriginalFilename()));
+            // Return absolute URL path that works with frontend
+            return ImageVariants.UPLOADS_PREFIX + filename;
         } catch (IOException e) {
             throw new IllegalStateException("Failed to store file", e);
         }
-        // Return absolute URL path that works with frontend
-        return "/uploads/" + filename;
     }
 
+    /**
+     * Drops stored images that no product references once the current transaction commits.
+     * Reference counts come from the products table itself, so they cannot drift.
+     */
+    public void releaseImages(Collection<String> imageUrls) {
+        List<String> candidates = imageUrls.stream()
+                .filter(url -> ImageVariants.uploadedFilename(url) != null)
+                .distinct()
+                .toList();
+        if (candidates.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    collect(candidates);
+                }
+            });
+        } else {
+            collect(candidates);
+        }
+    }
+
+    /**
+     * One-time move of uploads stored under random names to content-addressed names,
+     * repointing products and merging duplicates. Returns the number of files migrated.
+     * Works in batches: the catalog cache is cleared after each batch is repointed and before
+     * its old files are deleted, so no cached page keeps pointing at a removed file.
+     */
+    @Async
+    public CompletableFuture<Integer> migrateToContentAddressed() {
+        int migrated = 0;
+        List<String> repointed = new ArrayList<>();
+        try {
+            for (String oldName : storage.list("")) {
+                if (isContentAddressed(oldName) || uploadKey(oldName) == null) {
+                    continue;
+                }
+                try {
+                    String newName;
+                    try (InputStream input = storage.open(oldName)) {
+                        newName = storeContent(input, getExtension(oldName));
+                    }
+                    // The new copy exists before products move to it, and the old name is removed last
+                    productRepository.replaceImageUrl(
+                            ImageVariants.UPLOADS_PREFIX + oldName, ImageVariants.UPLOADS_PREFIX + newName);
+                    repointed.add(oldName);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Could not migrate upload {}", oldName, e);
+                }
+                if (repointed.size() >= migrationBatchSize) {
+                    migrated += finishMigrationBatch(repointed);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Upload migration failed", e);
+        }
+        // Whatever was repointed before a failure is finished too
+        migrated += finishMigrationBatch(repointed);
+        log.info("Migrated {} uploads to content-addressed names", migrated);
+        return CompletableFuture.completedFuture(migrated);
+    }
+
+    private int finishMigrationBatch(List<String> oldNames) {
+        if (oldNames.isEmpty()) {
+            return 0;
+        }
+        catalogCache.invalidateAll();
+        for (String oldName : oldNames) {
+            try {
+                storage.delete(oldName);
+            } catch (IOException e) {
+                // Unreferenced now, so the next migration run or a cleanup can still remove it
+                log.warn("Could not delete migrated upload {}", oldName, e);
+            }
+            imageDerivativeService.deleteVariants(oldName);
+        }
+        int finished = oldNames.size();
+        oldNames.clear();
+        return finished;
+    }
+
+    // Hashes while copying to a temp file, so the upload is streamed once and never held in memory
+    private String storeContent(InputStream input, String extension) throws IOException {
+        Path temp = Files.createTempFile(TEMP_PREFIX, TEMP_SUFFIX);
+        try {
+            MessageDigest digest = sha256();
+            try (DigestInputStream hashing = new DigestInputStream(input, digest);
+                 OutputStream output = Files.newOutputStream(temp)) {
+                hashing.transferTo(output);
+            }
+            String filename = HexFormat.of().formatHex(digest.digest()) + extension;
+            if (storage.exists(filename)) {
+                storage.touch(filename);
+            } else {
+                storage.put(filename, temp, contentType(filename).toString());
+            }
+            imageDerivativeService.generateAsync(filename);
+            return filename;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void collect(List<String> imageUrls) {
+        Instant cutoff = Instant.now().minus(gcGracePeriod);
+        for (String url : imageUrls) {
+            if (productRepository.countByImageUrl(url) > 0) {
+                continue;
+            }
+            String filename = ImageVariants.uploadedFilename(url);
+            try {
+                Instant modified = storage.lastModified(filename);
+                if (modified != null && modified.isBefore(cutoff)) {
+                    storage.delete(filename);
+                    imageDerivativeService.deleteVariants(filename);
+                }
+            } catch (IOException e) {
+                log.warn("Could not delete unreferenced upload {}", filename, e);
+            }
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Only a short alphanumeric extension survives, so names stay safe to serve and to match
     private String getExtension(String filename) {
+        if (filename == null) {
+            return "";
+        }
         int index = filename.lastIndexOf('.');
-        return index >= 0 ? filename.substring(index) : "";
+        if (index < 0) {
+            return "";
+        }
+        String extension = filename.substring(index + 1).toLowerCase(Locale.ROOT);
+        return extension.matches("[a-z0-9]{1,10}") ? "." + extension : "";
     }
 }
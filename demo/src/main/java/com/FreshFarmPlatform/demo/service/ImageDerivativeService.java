@@ -0,0 +1,293 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.dto.product.ImageVariants;
+import com.FreshFarmPlatform.demo.storage.ObjectStorage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Re-encodes uploaded images into thumbnail, card and full-size JPEGs on a small bounded pool,
+ * so catalog pages stop downloading multi-megabyte originals and uploads do not wait for resizing.
+ */
+@Service
+public class ImageDerivativeService {
+
+    public enum Variant {
+        THUMBNAIL("thumb", 160),
+        CARD("card", 480),
+        FULL("full", 1600);
+
+        private final String suffix;
+        private final int maxDimension;
+
+        Variant(String suffix, int maxDimension) {
+            this.suffix = suffix;
+            this.maxDimension = maxDimension;
+        }
+
+        public String suffix() {
+            return suffix;
+        }
+    }
+
+    public static final String VARIANTS_KEY_PREFIX = "variants/";
+    // Empty marker next to the variants of an original ImageIO cannot decode, so no run retries it
+    static final String UNDECODABLE_SUFFIX = ".undecodable";
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private final ObjectStorage storage;
+    private final float quality;
+    private final ThreadPoolExecutor executor;
+    // Backfill waits for a free slot instead of overflowing the queue uploads also use
+    private final Semaphore backfillSlots;
+
+    public ImageDerivativeService(ObjectStorage storage,
+                                  @Value("${app.images.threads:2}") int threads,
+                                  @Value("${app.images.queue-capacity:100}") int queueCapacity,
+                                  @Value("${app.images.jpeg-quality:0.8}") float quality) {
+        this.storage = storage;
+        this.quality = quality;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivatives-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.backfillSlots = new Semaphore(Math.max(1, queueCapacity / 2));
+    }
+
+    /** Queues variant generation for a freshly stored upload; never blocks the caller. */
+    public void generateAsync(String filename) {
+        try {
+            // Checked on the pool: against remote storage each check is a round trip per variant
+            executor.execute(() -> {
+                // A deduplicated upload already has its variants or its marker
+                if (!hasAllVariants(filename) && !isMarkedUndecodable(filename)) {
+                    generate(filename);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Originals keep being served until the backfill job catches up
+            log.warn("Image queue full, variants for {} left to the backfill job", filename);
+        }
+    }
+
+    /** Generates missing variants for every stored upload; returns how many originals were queued. */
+    @Async
+    public CompletableFuture<Integer> backfill() {
+        int queued = 0;
+        int undecodable = 0;
+        try {
+            // Listed once up front so remote backends are not asked about every variant separately
+            Set<String> existing = new HashSet<>(storage.list(VARIANTS_KEY_PREFIX));
+            for (String filename : storage.list("")) {
+                if (hasAllVariants(filename, existing)) {
+                    continue;
+                }
+                if (existing.contains(undecodableKey(filename))) {
+                    undecodable++;
+                    continue;
+                }
+                backfillSlots.acquire();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            generate(filename);
+                        } finally {
+                            backfillSlots.release();
+                        }
+                    });
+                    queued++;
+                } catch (RejectedExecutionException e) {
+                    backfillSlots.release();
+                    generate(filename);
+                    queued++;
+                }
+            }
+        } catch (IOException e) {
+            log.error("Image backfill failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Image backfill queued {} originals, skipped {} that cannot be decoded", queued, undecodable);
+        return CompletableFuture.completedFuture(queued);
+    }
+
+    public void deleteVariants(String filename) {
+        for (Variant variant : Variant.values()) {
+            try {
+                storage.delete(variantKey(filename, variant));
+            } catch (IOException e) {
+                log.warn("Could not delete {} variant of {}", variant.suffix(), filename, e);
+            }
+        }
+        try {
+            storage.delete(undecodableKey(filename));
+        } catch (IOException e) {
+            log.warn("Could not delete the undecodable marker of {}", filename, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static String variantKey(String filename, Variant variant) {
+        return VARIANTS_KEY_PREFIX + ImageVariants.variantFilename(filename, variant.suffix());
+    }
+
+    private static String undecodableKey(String filename) {
+        return VARIANTS_KEY_PREFIX + filename + UNDECODABLE_SUFFIX;
+    }
+
+    private boolean isMarkedUndecodable(String filename) {
+        try {
+            return storage.exists(undecodableKey(filename));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private boolean hasAllVariants(String filename) {
+        try {
+            for (Variant variant : Variant.values()) {
+                if (!storage.exists(variantKey(filename, variant))) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean hasAllVariants(String filename, Set<String> existing) {
+        for (Variant variant : Variant.values()) {
+            if (!existing.contains(variantKey(filename, variant))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void generate(String filename) {
+        try {
+            BufferedImage source;
+            try (InputStream input = storage.open(filename)) {
+                source = decode(input);
+            }
+            if (source == null) {
+                markUndecodable(filename);
+                return;
+            }
+            for (Variant variant : Variant.values()) {
+                String key = variantKey(filename, variant);
+                if (!storage.exists(key)) {
+                    writeJpeg(resize(source, variant.maxDimension), key);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not generate variants for {}", filename, e);
+        }
+    }
+
+    // Null for data ImageIO cannot read; storage errors still propagate so a later run retries them
+    private static BufferedImage decode(InputStream input) throws IOException {
+        try {
+            return ImageIO.read(input);
+        } catch (IIOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void markUndecodable(String filename) {
+        try {
+            Path marker = Files.createTempFile("undecodable", ".tmp");
+            try {
+                storage.put(undecodableKey(filename), marker, "application/octet-stream");
+            } finally {
+                Files.deleteIfExists(marker);
+            }
+            log.info("{} cannot be decoded as an image; the backfill will skip it", filename);
+        } catch (IOException e) {
+            log.warn("Could not mark {} as undecodable", filename, e);
+        }
+    }
+
+    // Scales down only, and flattens transparency onto white since JPEG has no alpha
+    private BufferedImage resize(BufferedImage source, int maxDimension) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    private void writeJpeg(BufferedImage image, String key) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam params = writer.getDefaultWriteParam();
+        params.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        params.setCompressionQuality(quality);
+        params.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        // Encoded to a local file first, then handed to storage whole so readers never see a partial file
+        Path temp = Files.createTempFile("variant", ".tmp");
+        try {
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), params);
+            } finally {
+                writer.dispose();
+            }
+            storage.put(key, temp, "image/jpeg");
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
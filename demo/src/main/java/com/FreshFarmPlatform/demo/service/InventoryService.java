@@ -0,0 +1,42 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.exception.BadRequestException;
+import com.FreshFarmPlatform.demo.exception.ResourceNotFoundException;
+import com.FreshFarmPlatform.demo.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class InventoryService {
+
+    private final ProductRepository productRepository;
+
+    public InventoryService(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Takes stock for every product or none of them. Rows are updated in ascending product id
+     * order so concurrent multi-item orders always lock in the same sequence and cannot deadlock.
+     * A failure throws, rolling back the decrements already made in the caller's transaction.
+     */
+    @Transactional
+    public void reserve(Map<Long, Integer> quantities) {
+        new TreeMap<>(quantities).forEach((productId, quantity) -> {
+            if (productRepository.decrementStock(productId, quantity) == 0) {
+                String name = productRepository.findById(productId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Product not found"))
+                        .getProductName();
+                throw new BadRequestException("Insufficient stock for " + name);
+            }
+        });
+    }
+
+    @Transactional
+    public void release(Map<Long, Integer> quantities) {
+        new TreeMap<>(quantities).forEach(productRepository::incrementStock);
+    }
+}
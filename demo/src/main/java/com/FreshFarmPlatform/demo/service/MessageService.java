@@ -1,30 +1,58 @@
 package com.FreshFarmPlatform.demo.service;
 
+import com.FreshFarmPlatform.demo.dto.message.ConversationPageResponse;
+import com.FreshFarmPlatform.demo.dto.message.ConversationReadResponse;
+import com.FreshFarmPlatform.demo.dto.message.ConversationResponse;
+import com.FreshFarmPlatform.demo.dto.message.ConversationView;
+import com.FreshFarmPlatform.demo.dto.message.MessageCursor;
+import com.FreshFarmPlatform.demo.dto.message.MessagePageResponse;
 import com.FreshFarmPlatform.demo.dto.message.MessageRequest;
 import com.FreshFarmPlatform.demo.dto.message.MessageResponse;
+import com.FreshFarmPlatform.demo.dto.message.MessageView;
+import com.FreshFarmPlatform.demo.dto.message.ReadReceiptResponse;
+import com.FreshFarmPlatform.demo.dto.message.UnreadCountResponse;
+import com.FreshFarmPlatform.demo.dto.paging.KeysetPage;
+import com.FreshFarmPlatform.demo.exception.BadRequestException;
 import com.FreshFarmPlatform.demo.exception.ResourceNotFoundException;
+import com.FreshFarmPlatform.demo.model.message.Conversation;
 import com.FreshFarmPlatform.demo.model.message.Message;
 import com.FreshFarmPlatform.demo.model.user.User;
+import com.FreshFarmPlatform.demo.repository.ConversationRepository;
+import com.FreshFarmPlatform.demo.repository.InboxCounterRepository;
 import com.FreshFarmPlatform.demo.repository.MessageRepository;
 import com.FreshFarmPlatform.demo.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
 public class MessageService {
 
+    private static final int PREVIEW_LENGTH = 200;
+    private static final int LATEST_MESSAGES_LIMIT = KeysetPage.MAX_PAGE_SIZE;
+
     private final MessageRepository messageRepository;
+    private final ConversationRepository conversationRepository;
+    private final InboxCounterRepository inboxCounterRepository;
     private final UserRepository userRepository;
     private final UserService userService;
+    private final MessageStreamService messageStreamService;
 
     public MessageService(MessageRepository messageRepository,
+                          ConversationRepository conversationRepository,
+                          InboxCounterRepository inboxCounterRepository,
                           UserRepository userRepository,
-                          UserService userService) {
+                          UserService userService,
+                          MessageStreamService messageStreamService) {
         this.messageRepository = messageRepository;
+        this.conversationRepository = conversationRepository;
+        this.inboxCounterRepository = inboxCounterRepository;
         this.userRepository = userRepository;
         this.userService = userService;
+        this.messageStreamService = messageStreamService;
     }
 
     @Transactional
@@ -32,31 +60,163 @@ public class MessageService {
         User sender = userService.getCurrentUser();
         User recipient = userRepository.findById(request.recipientId())
                 .orElseThrow(() -> new ResourceNotFoundException("Recipient not found"));
-        Message message = Message.builder()
+        Conversation conversation = conversationFor(sender.getUserId(), recipient.getUserId());
+        Message message = messageRepository.save(Message.builder()
                 .sender(sender)
                 .recipient(recipient)
+                .conversation(conversation)
                 .content(request.content())
-                .build();
-        return toResponse(messageRepository.save(message));
+                .build());
+        conversationRepository.recordMessage(conversation.getConversationId(), message.getMessageId(),
+                sender.getUserId(), recipient.getUserId(), preview(message.getContent()), message.getSentDate());
+        inboxCounterRepository.add(recipient.getUserId(), 1);
+        MessageResponse response = toResponse(message);
+        messageStreamService.publishMessage(response);
+        return response;
+    }
+
+    public SseEmitter openStream(String lastEventId) {
+        return messageStreamService.subscribe(userService.getCurrentUserId(), lastEventId);
     }
 
+    /**
+     * The newest messages across all of the user's threads, capped at LATEST_MESSAGES_LIMIT.
+     * @deprecated clients page through {@link #myConversations} and {@link #conversationMessages} instead
+     */
+    @Deprecated
+    @Transactional(readOnly = true)
     public List<MessageResponse> myMessages() {
-        User user = userService.getCurrentUser();
-        return messageRepository.findBySenderOrRecipientOrderBySentDateDesc(user, user).stream()
+        return messageRepository.findLatestForUser(userService.getCurrentUserId(), LATEST_MESSAGES_LIMIT).stream()
                 .map(this::toResponse)
                 .toList();
     }
 
+    @Transactional(readOnly = true)
+    public ConversationPageResponse myConversations(String cursor, Integer size) {
+        MessageCursor position = MessageCursor.decode(cursor);
+        int pageSize = KeysetPage.resolvePageSize(size);
+        List<ConversationView> rows = conversationRepository.findThreadsBefore(
+                userService.getCurrentUserId(), position.at(), position.id(), pageSize + 1);
+        KeysetPage<ConversationResponse> page = KeysetPage.of(rows, pageSize, this::toResponse,
+                last -> MessageCursor.encode(last.lastMessageAt(), last.conversationId()));
+        return new ConversationPageResponse(page.items(), page.nextCursor(), page.hasMore());
+    }
+
+    @Transactional(readOnly = true)
+    public MessagePageResponse conversationMessages(Long conversationId, String cursor, Integer size) {
+        Conversation conversation = conversationRepository
+                .findForParticipant(conversationId, userService.getCurrentUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("Conversation not found"));
+        return messagePage(conversation, cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    public MessagePageResponse messagesWith(Long otherUserId, String cursor, Integer size) {
+        Long currentUserId = userService.getCurrentUserId();
+        return conversationRepository.findByFirstUserIdAndSecondUserId(
+                        Math.min(currentUserId, otherUserId), Math.max(currentUserId, otherUserId))
+                .map(conversation -> messagePage(conversation, cursor, size))
+                .orElseGet(() -> new MessagePageResponse(null, List.of(), null, false));
+    }
+
+    @Transactional(readOnly = true)
+    public UnreadCountResponse unreadCount() {
+        return new UnreadCountResponse(inboxCounterRepository.unreadCount(userService.getCurrentUserId()));
+    }
+
     @Transactional
     public MessageResponse markAsRead(Long messageId) {
         Message message = messageRepository.findById(messageId)
                 .orElseThrow(() -> new ResourceNotFoundException("Message not found"));
-        User current = userService.getCurrentUser();
-        if (!message.getRecipient().getUserId().equals(current.getUserId())) {
+        Long currentUserId = userService.getCurrentUserId();
+        if (!message.getRecipient().getUserId().equals(currentUserId)) {
             throw new ResourceNotFoundException("Message not found");
         }
-        message.setIsRead(true);
-        return toResponse(messageRepository.save(message));
+        if (messageRepository.markRead(messageId, currentUserId) > 0) {
+            Long conversationId = message.getConversation() != null
+                    ? message.getConversation().getConversationId()
+                    : null;
+            if (conversationId != null) {
+                conversationRepository.markRead(conversationId, currentUserId, 1);
+            }
+            inboxCounterRepository.add(currentUserId, -1);
+            messageStreamService.publishReadReceipt(message.getSender().getUserId(), new ReadReceiptResponse(
+                    conversationId, currentUserId, List.of(messageId), null, LocalDateTime.now()));
+        }
+        return new MessageResponse(
+                message.getMessageId(),
+                message.getSender().getUserId(),
+                currentUserId,
+                message.getContent(),
+                Boolean.TRUE,
+                message.getSentDate()
+        );
+    }
+
+    /**
+     * Marks the current user's messages in a conversation as read up to the newest message id the client
+     * has shown, with one UPDATE. The client must send that id: the server cannot know what was on screen,
+     * and a message that arrives after the thread was loaded must stay unread.
+     */
+    @Transactional
+    public ConversationReadResponse markConversationAsRead(Long conversationId, Long upToMessageId) {
+        if (upToMessageId == null || upToMessageId < 1) {
+            throw new BadRequestException("upTo must be the id of the newest message the client has seen");
+        }
+        Long currentUserId = userService.getCurrentUserId();
+        Conversation conversation = conversationRepository.findForParticipant(conversationId, currentUserId)
+                .orElseThrow(() -> new ResourceNotFoundException("Conversation not found"));
+        int marked = messageRepository.markConversationRead(conversationId, currentUserId, upToMessageId);
+        if (marked > 0) {
+            conversationRepository.markRead(conversationId, currentUserId, marked);
+            inboxCounterRepository.add(currentUserId, -marked);
+            Long otherUserId = conversation.getFirstUserId().equals(currentUserId)
+                    ? conversation.getSecondUserId()
+                    : conversation.getFirstUserId();
+            messageStreamService.publishReadReceipt(otherUserId, new ReadReceiptResponse(
+                    conversationId, currentUserId, null, upToMessageId, LocalDateTime.now()));
+        }
+        return new ConversationReadResponse(
+                conversationId,
+                upToMessageId,
+                marked,
+                conversationRepository.unreadFor(conversationId, currentUserId),
+                inboxCounterRepository.unreadCount(currentUserId));
+    }
+
+    /** Removes every message and thread the user took part in, keeping the other side's counters right. */
+    @Transactional
+    public void deleteAllFor(Long userId) {
+        conversationRepository.releaseUnreadHeldBy(userId);
+        messageRepository.deleteByParticipant(userId);
+        conversationRepository.deleteByParticipant(userId);
+        inboxCounterRepository.deleteById(userId);
+    }
+
+    private Conversation conversationFor(Long userId, Long otherUserId) {
+        Long first = Math.min(userId, otherUserId);
+        Long second = Math.max(userId, otherUserId);
+        return conversationRepository.findByFirstUserIdAndSecondUserId(first, second)
+                .orElseGet(() -> {
+                    conversationRepository.ensure(first, second, LocalDateTime.now());
+                    return conversationRepository.findByFirstUserIdAndSecondUserId(first, second)
+                            .orElseThrow(() -> new IllegalStateException("Conversation was not created"));
+                });
+    }
+
+    private MessagePageResponse messagePage(Conversation conversation, String cursor, Integer size) {
+        MessageCursor position = MessageCursor.decode(cursor);
+        int pageSize = KeysetPage.resolvePageSize(size);
+        List<MessageView> rows = messageRepository.findPageBefore(
+                conversation.getConversationId(), position.at(), position.id(), pageSize + 1);
+        KeysetPage<MessageResponse> page = KeysetPage.of(rows, pageSize, this::toResponse,
+                last -> MessageCursor.encode(last.sentDate(), last.messageId()));
+        return new MessagePageResponse(conversation.getConversationId(), page.items(), page.nextCursor(),
+                page.hasMore());
+    }
+
+    private static String preview(String content) {
+        return content.length() <= PREVIEW_LENGTH ? content : content.substring(0, PREVIEW_LENGTH);
     }
 
     private MessageResponse toResponse(Message message) {
@@ -69,5 +229,27 @@ public class MessageService {
                 message.getSentDate()
         );
     }
-}
 
+    private MessageResponse toResponse(MessageView message) {
+        return new MessageResponse(
+                message.getMessageId(),
+                message.getSenderId(),
+                message.getRecipientId(),
+                message.getContent(),
+                message.getIsRead(),
+                message.getSentDate()
+        );
+    }
+
+    private ConversationResponse toResponse(ConversationView conversation) {
+        return new ConversationResponse(
+                conversation.getConversationId(),
+                conversation.getOtherUserId(),
+                conversation.getOtherUsername(),
+                conversation.getLastSenderId(),
+                conversation.getLastMessagePreview(),
+                conversation.getLastMessageAt(),
+                conversation.getUnreadCount()
+        );
+    }
+}
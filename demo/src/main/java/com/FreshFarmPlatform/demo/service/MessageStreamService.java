@@ -0,0 +1,323 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.dto.message.MessageResponse;
+import com.FreshFarmPlatform.demo.dto.message.ReadReceiptResponse;
+import com.FreshFarmPlatform.demo.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events push for new messages and read receipts, replacing inbox polling.
+ * Each connection gets a bounded queue drained by a small shared pool, so a slow client is
+ * disconnected rather than buffered without limit. Event ids are "epoch-sequence"; a reconnect
+ * with Last-Event-ID replays what it missed from a short per-user buffer, or gets a "resync"
+ * event telling it to reload when the gap is no longer covered (for example after a restart).
+ */
+@Service
+public class MessageStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageStreamService.class);
+
+    private final Map<Long, Inbox> inboxes = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    // Sequences restart with the process, so ids from an earlier run must never be trusted
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final int bufferSize;
+    private final int replaySize;
+    private final int maxConnections;
+    private final int maxPerUser;
+    private final long timeoutMillis;
+    private final long replayWindowMillis;
+    private final ThreadPoolExecutor dispatcher;
+
+    public MessageStreamService(@Value("${app.messages.stream.buffer-size:128}") int bufferSize,
+                                @Value("${app.messages.stream.replay-size:100}") int replaySize,
+                                @Value("${app.messages.stream.max-connections:20000}") int maxConnections,
+                                @Value("${app.messages.stream.max-per-user:5}") int maxPerUser,
+                                @Value("${app.messages.stream.timeout-minutes:30}") long timeoutMinutes,
+                                @Value("${app.messages.stream.replay-window-seconds:120}") long replayWindowSeconds,
+                                @Value("${app.messages.stream.threads:4}") int threads) {
+        if (bufferSize <= replaySize) {
+            // A full replay has to fit into a fresh connection's queue, or resuming would drop the client
+            throw new IllegalArgumentException("app.messages.stream.buffer-size (" + bufferSize
+                    + ") must be larger than app.messages.stream.replay-size (" + replaySize + ")");
+        }
+        this.bufferSize = bufferSize;
+        this.replaySize = replaySize;
+        this.maxConnections = maxConnections;
+        this.maxPerUser = maxPerUser;
+        this.timeoutMillis = Duration.ofMinutes(timeoutMinutes).toMillis();
+        this.replayWindowMillis = Duration.ofSeconds(replayWindowSeconds).toMillis();
+        AtomicInteger counter = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "message-stream-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new ServiceUnavailableException("Too many open message streams, retry shortly");
+        }
+        SseEmitter emitter = createEmitter(timeoutMillis);
+        // Attached inside compute so the heartbeat cannot drop the inbox in between
+        inboxes.compute(userId, (id, existing) -> {
+            Inbox inbox = existing != null ? existing : new Inbox(sequence.get());
+            inbox.attach(new Connection(inbox, emitter), lastEventId);
+            return inbox;
+        });
+        return emitter;
+    }
+
+    /** Delivers the message to the recipient and to the sender's other open tabs once the send commits. */
+    public void publishMessage(MessageResponse message) {
+        afterCommit(() -> {
+            publish(message.recipientId(), "message", message);
+            publish(message.senderId(), "message", message);
+        });
+    }
+
+    public void publishReadReceipt(Long senderId, ReadReceiptResponse receipt) {
+        afterCommit(() -> publish(senderId, "read", receipt));
+    }
+
+    public int openConnections() {
+        return connections.get();
+    }
+
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    // Keeps proxies from closing idle streams and finds dead connections; also forgets idle inboxes
+    @Scheduled(fixedDelayString = "${app.messages.stream.heartbeat-seconds:25}", timeUnit = TimeUnit.SECONDS)
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (Long userId : inboxes.keySet()) {
+            Inbox inbox = inboxes.computeIfPresent(userId, (id, current) ->
+                    current.connections.isEmpty() && now - current.idleSince > replayWindowMillis ? null : current);
+            if (inbox == null) {
+                continue;
+            }
+            for (Connection connection : inbox.connections) {
+                connection.offer(SseEmitter.event().comment("heartbeat"), false);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+        inboxes.values().forEach(inbox -> inbox.connections.forEach(connection -> connection.emitter.complete()));
+    }
+
+    private void publish(Long userId, String name, Object data) {
+        Inbox inbox = inboxes.get(userId);
+        if (inbox != null) {
+            inbox.publish(name, data);
+        } else {
+            // Still takes a sequence, so a client resuming from before this event is told to resync
+            sequence.incrementAndGet();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Event(long sequence, String name, Object data) {
+    }
+
+    /** Recent events and open connections of one user; publish and attach are serialized on it. */
+    private final class Inbox {
+        private final Set<Connection> connections = new CopyOnWriteArraySet<>();
+        private final Deque<Event> recent = new ArrayDeque<>();
+        // Every event after this sequence is still in the recent buffer
+        private long floor;
+        private volatile long idleSince = System.currentTimeMillis();
+
+        Inbox(long floor) {
+            this.floor = floor;
+        }
+
+        // Sequences are taken under the lock so each inbox sees them in increasing order
+        synchronized void publish(String name, Object data) {
+            Event event = new Event(sequence.incrementAndGet(), name, data);
+            recent.addLast(event);
+            while (recent.size() > replaySize) {
+                floor = recent.removeFirst().sequence();
+            }
+            for (Connection connection : connections) {
+                connection.offer(toSse(event), true);
+            }
+        }
+
+        synchronized void attach(Connection connection, String lastEventId) {
+            if (connections.size() >= maxPerUser) {
+                // The oldest tab gives way; it will reconnect and resume if it is still alive
+                Connection oldest = connections.iterator().next();
+                oldest.emitter.complete();
+                oldest.close();
+            }
+            connections.add(connection);
+            long last = parseSequence(lastEventId);
+            if (lastEventId != null && (last < 0 || last < floor)) {
+                connection.offer(SseEmitter.event().id(eventId(position())).name("resync").data(""), true);
+            } else if (lastEventId != null) {
+                recent.stream()
+                        .filter(event -> event.sequence() > last)
+                        .forEach(event -> connection.offer(toSse(event), true));
+            } else {
+                connection.offer(SseEmitter.event().id(eventId(position())).name("ready").data(""), true);
+            }
+        }
+
+        // Resuming from here replays exactly the events this inbox has not yet handed out
+        private long position() {
+            return recent.isEmpty() ? floor : recent.peekLast().sequence();
+        }
+
+        void detach(Connection connection) {
+            connections.remove(connection);
+            if (connections.isEmpty()) {
+                idleSince = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private final class Connection {
+        private final Inbox inbox;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Connection(Inbox inbox, SseEmitter emitter) {
+            this.inbox = inbox;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+            emitter.onCompletion(this::close);
+            emitter.onTimeout(this::close);
+            emitter.onError(error -> close());
+        }
+
+        /** Queues an event; when the buffer is full the client is dropped if the event matters, else it is skipped. */
+        void offer(SseEmitter.SseEventBuilder event, boolean required) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                if (required) {
+                    log.debug("Message stream buffer full, disconnecting slow client");
+                    emitter.complete();
+                    close();
+                }
+                return;
+            }
+            schedule();
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                connections.decrementAndGet();
+                queue.clear();
+                inbox.detach(this);
+            }
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed.get() && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toSse(Event event) {
+        return SseEmitter.event()
+                .id(eventId(event.sequence()))
+                .name(event.name())
+                .data(event.data(), MediaType.APPLICATION_JSON);
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private long parseSequence(String lastEventId) {
+        if (lastEventId == null) {
+            return -1;
+        }
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash < 0 || !lastEventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
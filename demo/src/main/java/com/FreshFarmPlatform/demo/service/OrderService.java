@@ -1,12 +1,17 @@
 package com.FreshFarmPlatform.demo.service;
 
+import com.FreshFarmPlatform.demo.dto.cart.CheckoutRequest;
 import com.FreshFarmPlatform.demo.dto.order.CreateOrderRequest;
 import com.FreshFarmPlatform.demo.dto.order.OrderItemRequest;
 import com.FreshFarmPlatform.demo.dto.order.OrderItemResponse;
+import com.FreshFarmPlatform.demo.dto.order.OrderPageResponse;
 import com.FreshFarmPlatform.demo.dto.order.OrderResponse;
 import com.FreshFarmPlatform.demo.dto.order.UpdateOrderStatusRequest;
+import com.FreshFarmPlatform.demo.dto.paging.KeysetPage;
 import com.FreshFarmPlatform.demo.exception.BadRequestException;
 import com.FreshFarmPlatform.demo.exception.ResourceNotFoundException;
+import com.FreshFarmPlatform.demo.model.cart.Cart;
+import com.FreshFarmPlatform.demo.model.cart.CartItem;
 import com.FreshFarmPlatform.demo.model.order.Order;
 import com.FreshFarmPlatform.demo.model.order.OrderItem;
 import com.FreshFarmPlatform.demo.model.order.OrderStatus;
@@ -16,31 +21,54 @@ import com.FreshFarmPlatform.demo.model.user.Buyer;
 import com.FreshFarmPlatform.demo.model.user.Farmer;
 import com.FreshFarmPlatform.demo.model.user.User;
 import com.FreshFarmPlatform.demo.model.user.UserType;
+import com.FreshFarmPlatform.demo.repository.CartRepository;
+import com.FreshFarmPlatform.demo.repository.OrderItemRepository;
 import com.FreshFarmPlatform.demo.repository.OrderRepository;
 import com.FreshFarmPlatform.demo.repository.ProductRepository;
-import com.FreshFarmPlatform.demo.repository.TransactionRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
-    private final TransactionRepository transactionRepository;
+    private final CartRepository cartRepository;
     private final UserService userService;
+    private final ProductCatalogCache catalogCache;
+    private final InventoryService inventoryService;
+    private final SalesRollupService salesRollupService;
 
     public OrderService(OrderRepository orderRepository,
+                        OrderItemRepository orderItemRepository,
                         ProductRepository productRepository,
-                        TransactionRepository transactionRepository,
-                        UserService userService) {
+                        CartRepository cartRepository,
+                        UserService userService,
+                        ProductCatalogCache catalogCache,
+                        InventoryService inventoryService,
+                        SalesRollupService salesRollupService) {
         this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
         this.productRepository = productRepository;
-        this.transactionRepository = transactionRepository;
+        this.cartRepository = cartRepository;
         this.userService = userService;
+        this.catalogCache = catalogCache;
+        this.inventoryService = inventoryService;
+        this.salesRollupService = salesRollupService;
     }
 
     @Transactional
@@ -52,25 +80,75 @@ public class OrderService {
         if (request.items() == null || request.items().isEmpty()) {
             throw new BadRequestException("Order must contain at least one item");
         }
+        return toResponse(placeOrder((Buyer) current, request, null));
+    }
+
+    /**
+     * Turns the buyer's cart (or the selected lines) into an order, reserving stock and removing
+     * the ordered lines in one transaction.
+     * Retrying with the same idempotency key returns the order created by the first attempt.
+     */
+    @Transactional
+    public OrderResponse checkoutCart(CheckoutRequest request, String idempotencyKey) {
+        User current = userService.getCurrentUser();
+        if (current.getUserType() != UserType.BUYER) {
+            throw new BadRequestException("Only buyers can check out");
+        }
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > 100)) {
+            throw new BadRequestException("Idempotency-Key must be 1 to 100 characters");
+        }
         Buyer buyer = (Buyer) current;
+        Cart cart = cartRepository.findByBuyerIdForUpdate(buyer.getUserId())
+                .orElseThrow(() -> new BadRequestException("Cart is empty"));
+        // Checked under the cart lock, so a concurrent retry waits and then sees the committed order
+        if (idempotencyKey != null) {
+            Optional<Order> existing = orderRepository.findByBuyerUserIdAndIdempotencyKey(buyer.getUserId(), idempotencyKey);
+            if (existing.isPresent()) {
+                return toResponse(existing.get());
+            }
+        }
+        // No selection means the whole cart
+        List<CartItem> selected = cart.getItems().stream()
+                .filter(item -> request.cartItemIds() == null || request.cartItemIds().contains(item.getCartItemId()))
+                .toList();
+        if (selected.isEmpty()) {
+            throw new BadRequestException("Cart is empty");
+        }
+        List<OrderItemRequest> items = selected.stream()
+                .map(item -> new OrderItemRequest(item.getProduct().getProductId(), item.getQuantity()))
+                .toList();
+        Order order = placeOrder(buyer, new CreateOrderRequest(
+                items,
+                request.deliveryMethod(),
+                request.deliveryAddress(),
+                request.paymentMethod(),
+                request.deliveryNotes()), idempotencyKey);
+        cart.getItems().removeAll(selected);
+        cart.setTotalAmount(cart.getItems().stream().mapToDouble(CartItem::getSubtotal).sum());
+        return toResponse(order);
+    }
+
+    private Order placeOrder(Buyer buyer, CreateOrderRequest request, String idempotencyKey) {
         Order order = Order.builder()
                 .buyer(buyer)
                 .deliveryMethod(request.deliveryMethod())
                 .deliveryAddress(request.deliveryAddress() != null ? request.deliveryAddress() : buyer.getDeliveryAddress())
                 .deliveryNotes(request.deliveryNotes())
                 .status(OrderStatus.PENDING)
+                .idempotencyKey(idempotencyKey)
                 .items(new ArrayList<>())
                 .build();
+        Map<Long, Integer> quantities = quantitiesByProduct(request.items());
+        inventoryService.reserve(quantities);
+        // One lookup for every line; the reservation above already rejected unknown products
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
         double total = 0.0;
         for (OrderItemRequest itemRequest : request.items()) {
-            Product product = productRepository.findById(itemRequest.productId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
-            int available = product.getQuantity() == null ? 0 : product.getQuantity();
-            if (available < itemRequest.quantity()) {
-                throw new BadRequestException("Insufficient stock for " + product.getProductName());
+            Product product = products.get(itemRequest.productId());
+            if (product == null) {
+                throw new ResourceNotFoundException("Product not found");
             }
-            product.setQuantity(available - itemRequest.quantity());
-            productRepository.save(product);
             double subtotal = product.getPrice() * itemRequest.quantity();
             total += subtotal;
             OrderItem orderItem = OrderItem.builder()
@@ -83,52 +161,80 @@ public class OrderService {
             order.getItems().add(orderItem);
         }
         order.setTotalAmount(total);
-        Order savedOrder = orderRepository.save(order);
-        Transaction transaction = Transaction.builder()
-                .order(savedOrder)
+        order.setTransaction(Transaction.builder()
+                .order(order)
                 .amount(total)
                 .paymentMethod(request.paymentMethod())
                 .status("PROCESSING")
-                .build();
-        transactionRepository.save(transaction);
-        savedOrder.setTransaction(transaction);
-        orderRepository.save(savedOrder);
-        return toResponse(savedOrder);
+                .build());
+        // Sequence ids mean nothing is inserted until commit, where the order, its items and
+        // the transaction go out as ordered JDBC batches in a single flush
+        Order savedOrder = orderRepository.save(order);
+        salesRollupService.recordPlaced(savedOrder);
+        catalogCache.stockChanged(quantities.keySet());
+        return savedOrder;
     }
 
     public List<OrderResponse> getMyOrders() {
-        User current = userService.getCurrentUser();
-        if (current.getUserType() != UserType.BUYER) {
+        // Id and type only, so stateless-claims mode answers without loading the buyer
+        if (userService.getCurrentUserType() != UserType.BUYER) {
             throw new BadRequestException("Only buyers can view their orders");
         }
-        return orderRepository.findByBuyer((Buyer) current).stream()
+        return orderRepository.findByBuyerUserId(userService.getCurrentUserId()).stream()
                 .map(this::toResponse)
                 .toList();
     }
 
-    public List<OrderResponse> getFarmerOrders() {
-        User current = userService.getCurrentUser();
-        if (current.getUserType() != UserType.FARMER) {
-            throw new BadRequestException("Only farmers can view farmer orders");
-        }
-        Farmer farmer = (Farmer) current;
-        return orderRepository.findAll().stream()
-                .filter(order -> order.getItems().stream()
-                        .anyMatch(item -> item.getProduct().getFarmer().getUserId().equals(farmer.getUserId())))
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getFarmerOrders(OrderStatus status, LocalDateTime from, LocalDateTime to) {
+        Farmer farmer = currentFarmer();
+        List<Long> orderIds = orderRepository.findFarmerOrderIds(farmer.getUserId(), status, from, to, Pageable.unpaged())
+                .getContent();
+        return loadInOrder(orderIds).stream()
                 .map(this::toResponse)
                 .toList();
     }
 
+    /**
+     * Farmer dashboard view: each order carries only the calling farmer's line items,
+     * and its total is the sum of those lines.
+     */
+    @Transactional(readOnly = true)
+    public OrderPageResponse getFarmerOrdersPage(OrderStatus status,
+                                                 LocalDateTime from,
+                                                 LocalDateTime to,
+                                                 Integer page,
+                                                 Integer size) {
+        Farmer farmer = currentFarmer();
+        int pageNumber = page != null ? page : 0;
+        if (pageNumber < 0) {
+            throw new BadRequestException("Page must be >= 0");
+        }
+        int pageSize = KeysetPage.resolvePageSize(size);
+        Page<Long> orderIds = orderRepository.findFarmerOrderIds(
+                farmer.getUserId(), status, from, to, PageRequest.of(pageNumber, pageSize));
+        Map<Order, List<OrderItem>> linesByOrder = new LinkedHashMap<>();
+        if (!orderIds.isEmpty()) {
+            orderItemRepository.findFarmerLines(farmer.getUserId(), orderIds.getContent())
+                    .forEach(line -> linesByOrder.computeIfAbsent(line.getOrder(), o -> new ArrayList<>()).add(line));
+        }
+        List<OrderResponse> items = linesByOrder.entrySet().stream()
+                .map(entry -> toFarmerResponse(entry.getKey(), entry.getValue(), farmer.getUserId()))
+                .toList();
+        return new OrderPageResponse(items, pageNumber, pageSize, orderIds.getTotalElements(), orderIds.getTotalPages());
+    }
+
     public OrderResponse getOrder(Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
-        User current = userService.getCurrentUser();
+        Long currentId = userService.getCurrentUserId();
+        UserType currentType = userService.getCurrentUserType();
         // Check if user has access to this order
-        if (current.getUserType() == UserType.BUYER && !order.getBuyer().getUserId().equals(current.getUserId())) {
+        if (currentType == UserType.BUYER && !order.getBuyer().getUserId().equals(currentId)) {
             throw new BadRequestException("You cannot view this order");
         }
-        if (current.getUserType() == UserType.FARMER && order.getItems().stream()
-                .noneMatch(item -> item.getProduct().getFarmer().getUserId().equals(current.getUserId()))) {
+        if (currentType == UserType.FARMER && order.getItems().stream()
+                .noneMatch(item -> item.getProduct().getFarmer().getUserId().equals(currentId))) {
             throw new BadRequestException("You cannot view this order");
         }
         return toResponse(order);
@@ -138,20 +244,20 @@ public class OrderService {
     public OrderResponse cancelOrder(Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
-        User current = userService.getCurrentUser();
-        if (current.getUserType() != UserType.BUYER || !order.getBuyer().getUserId().equals(current.getUserId())) {
+        if (userService.getCurrentUserType() != UserType.BUYER
+                || !order.getBuyer().getUserId().equals(userService.getCurrentUserId())) {
             throw new BadRequestException("Only the buyer can cancel their order");
         }
-        if (order.getStatus() != OrderStatus.PENDING) {
+        // Only the request that wins the PENDING -> CANCELLED transition returns the stock
+        if (orderRepository.transitionStatus(orderId, OrderStatus.PENDING, OrderStatus.CANCELLED) == 0) {
             throw new BadRequestException("Only pending orders can be cancelled");
         }
-        // Restore product quantities
-        for (OrderItem item : order.getItems()) {
-            Product product = item.getProduct();
-            product.setQuantity((product.getQuantity() == null ? 0 : product.getQuantity()) + item.getQuantity());
-            productRepository.save(product);
-        }
+        Map<Long, Integer> quantities = new HashMap<>();
+        order.getItems().forEach(item -> quantities.merge(item.getProduct().getProductId(), item.getQuantity(), Integer::sum));
+        inventoryService.release(quantities);
         order.setStatus(OrderStatus.CANCELLED);
+        salesRollupService.recordStatusChange(order, OrderStatus.PENDING, OrderStatus.CANCELLED);
+        catalogCache.stockChanged(quantities.keySet());
         return toResponse(orderRepository.save(order));
     }
 
@@ -160,16 +266,17 @@ public class OrderService {
         // Fetch order with items eagerly loaded to avoid lazy loading issues
         Order order = orderRepository.findByIdWithItems(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
-        User current = userService.getCurrentUser();
+        Long currentId = userService.getCurrentUserId();
+        UserType currentType = userService.getCurrentUserType();
         
         boolean canUpdate = false;
-        if (current.getUserType() == UserType.ADMIN) {
+        if (currentType == UserType.ADMIN) {
             canUpdate = true;
-        } else if (current.getUserType() == UserType.FARMER) {
+        } else if (currentType == UserType.FARMER) {
             canUpdate = order.getItems() != null && order.getItems().stream()
                     .anyMatch(item -> item.getProduct() != null && 
                             item.getProduct().getFarmer() != null &&
-                            item.getProduct().getFarmer().getUserId().equals(current.getUserId()));
+                            item.getProduct().getFarmer().getUserId().equals(currentId));
         }
         
         if (!canUpdate) {
@@ -177,6 +284,14 @@ public class OrderService {
         }
         
         System.out.println("Updating order " + orderId + " from " + order.getStatus() + " to " + request.status());
+        OrderStatus previous = order.getStatus();
+        if (previous != request.status()) {
+            // The rollups move this order between status rows, so only one concurrent update may win
+            if (orderRepository.transitionStatus(orderId, previous, request.status()) == 0) {
+                throw new BadRequestException("Order status was changed by another request");
+            }
+            salesRollupService.recordStatusChange(order, previous, request.status());
+        }
         order.setStatus(request.status());
         if (request.status() == OrderStatus.DELIVERED) {
             order.setDeliveryDate(java.time.LocalDateTime.now());
@@ -186,19 +301,65 @@ public class OrderService {
         return toResponse(saved);
     }
 
+    private Map<Long, Integer> quantitiesByProduct(List<OrderItemRequest> items) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        items.forEach(item -> quantities.merge(item.productId(), item.quantity(), Integer::sum));
+        return quantities;
+    }
+
+    private Farmer currentFarmer() {
+        User current = userService.getCurrentUser();
+        if (current.getUserType() != UserType.FARMER) {
+            throw new BadRequestException("Only farmers can view farmer orders");
+        }
+        return (Farmer) current;
+    }
+
+    private List<Order> loadInOrder(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Order> byId = orderRepository.findAllWithItemsByIdIn(orderIds).stream()
+                .collect(Collectors.toMap(Order::getOrderId, Function.identity()));
+        return orderIds.stream().map(byId::get).toList();
+    }
+
+    private OrderResponse toFarmerResponse(Order order, List<OrderItem> lines, Long farmerId) {
+        List<OrderItemResponse> items = lines.stream().map(this::toItemResponse).toList();
+        double farmerTotal = lines.stream().mapToDouble(OrderItem::getSubtotal).sum();
+        return new OrderResponse(
+                order.getOrderId(),
+                order.getOrderDate(),
+                farmerTotal,
+                order.getDeliveryMethod(),
+                order.getDeliveryAddress(),
+                order.getStatus(),
+                order.getDeliveryDate(),
+                items,
+                order.getTransaction() != null ? order.getTransaction().getPaymentMethod() : null,
+                order.getDeliveryNotes(),
+                farmerId
+        );
+    }
+
+    private OrderItemResponse toItemResponse(OrderItem item) {
+        return new OrderItemResponse(
+                item.getOrderItemId(),
+                item.getProduct().getProductId(),
+                item.getProduct().getProductName(),
+                item.getProduct().getCategory(),
+                item.getProduct().getImageUrl(),
+                item.getProduct().getUnit(),
+                item.getQuantity(),
+                item.getPriceAtOrder(),
+                item.getSubtotal()
+        );
+    }
+
     private OrderResponse toResponse(Order order) {
         List<OrderItemResponse> items = order.getItems().stream()
-                .map(item -> new OrderItemResponse(
-                        item.getOrderItemId(),
-                        item.getProduct().getProductId(),
-                        item.getProduct().getProductName(),
-                        item.getProduct().getCategory(),
-                        item.getProduct().getImageUrl(),
-                        item.getProduct().getUnit(),
-                        item.getQuantity(),
-                        item.getPriceAtOrder(),
-                        item.getSubtotal()
-                )).toList();
+                .map(this::toItemResponse)
+                .toList();
         
         Long farmerId = null;
         if (!order.getItems().isEmpty()) {
@@ -0,0 +1,212 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.dto.admin.CacheStatsResponse;
+import com.FreshFarmPlatform.demo.dto.product.ProductPageResponse;
+import com.FreshFarmPlatform.demo.dto.product.ProductResponse;
+import com.FreshFarmPlatform.demo.dto.product.ProductSearchFilter;
+import com.FreshFarmPlatform.demo.dto.product.ProductSort;
+import com.FreshFarmPlatform.demo.model.product.ProductStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded LRU + TTL cache of catalog query results keyed by normalized filters.
+ * Writers invalidate after their transaction commits; a generation counter stops a
+ * reader that loaded before an invalidation from caching what it read.
+ */
+@Component
+public class ProductCatalogCache {
+
+    public record Key(ProductSearchFilter filter, ProductSort sort, String cursor, Integer size) {
+
+        public static Key list(ProductSearchFilter filter) {
+            return new Key(filter, null, null, null);
+        }
+    }
+
+    private record Entry(ProductPageResponse value, Set<Long> productIds, long expiresAt) {
+    }
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<Key, Entry> entries;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final Clock clock;
+
+    @Autowired
+    public ProductCatalogCache(@Value("${app.catalog-cache.enabled:true}") boolean enabled,
+                               @Value("${app.catalog-cache.max-entries:500}") int maxEntries,
+                               @Value("${app.catalog-cache.ttl-seconds:60}") long ttlSeconds) {
+        this(enabled, maxEntries, ttlSeconds, Clock.systemUTC());
+    }
+
+    ProductCatalogCache(boolean enabled, int maxEntries, long ttlSeconds, Clock clock) {
+        this.clock = clock;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > ProductCatalogCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public ProductPageResponse get(Key key, Supplier<ProductPageResponse> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long now = clock.millis();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt() > now) {
+                    hits.increment();
+                    return entry.value();
+                }
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        long loadedAt = generation.get();
+        ProductPageResponse value = loader.get();
+        Set<Long> productIds = value.items().stream()
+                .map(ProductResponse::id)
+                .collect(Collectors.toUnmodifiableSet());
+        synchronized (entries) {
+            // Skip the put if a product changed while we were reading
+            if (generation.get() == loadedAt) {
+                entries.put(key, new Entry(value, productIds, clock.millis() + ttlMillis));
+            }
+        }
+        return value;
+    }
+
+    /** A product was created or edited: drop results that showed it or could now include it. */
+    public void productChanged(ProductResponse product) {
+        afterCommit(entry -> entry.getValue().productIds().contains(product.id())
+                || mayMatch(entry.getKey().filter(), product));
+    }
+
+    /** Products were removed or their stock moved: only results showing them are stale. */
+    public void productsRemoved(Collection<Long> productIds) {
+        afterCommit(entry -> entry.getValue().productIds().stream().anyMatch(productIds::contains));
+    }
+
+    public void stockChanged(Collection<Long> productIds) {
+        productsRemoved(productIds);
+    }
+
+    /** A review moved a product's rating: results showing it, ordered by rating or filtered on it are stale. */
+    public void ratingChanged(Long productId) {
+        ratingsChanged(Set.of(productId));
+    }
+
+    public void ratingsChanged(Set<Long> productIds) {
+        afterCommit(entry -> entry.getValue().productIds().stream().anyMatch(productIds::contains)
+                || entry.getKey().sort() == ProductSort.TOP_RATED
+                || entry.getKey().filter().minRating() != null);
+    }
+
+    public void invalidateAll() {
+        afterCommit(entry -> true);
+    }
+
+    public CacheStatsResponse stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStatsResponse(
+                "productCatalog",
+                size,
+                maxEntries,
+                hitCount,
+                missCount,
+                evictions.sum(),
+                invalidations.sum(),
+                lookups == 0 ? 0.0 : (double) hitCount / lookups
+        );
+    }
+
+    private void afterCommit(Predicate<Map.Entry<Key, Entry>> stale) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(stale);
+                }
+            });
+        } else {
+            evict(stale);
+        }
+    }
+
+    private void evict(Predicate<Map.Entry<Key, Entry>> stale) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                if (stale.test(iterator.next())) {
+                    iterator.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    // Conservative: keyword and location are not re-evaluated here, so they always "may match"
+    private boolean mayMatch(ProductSearchFilter filter, ProductResponse product) {
+        if (filter.category() != null && !filter.category().equalsIgnoreCase(product.category())) {
+            return false;
+        }
+        if (filter.minPrice() != null && product.price() != null && product.price() < filter.minPrice()) {
+            return false;
+        }
+        if (filter.maxPrice() != null && product.price() != null && product.price() > filter.maxPrice()) {
+            return false;
+        }
+        if (filter.status() != null && product.status() != null && filter.status() != product.status()) {
+            return false;
+        }
+        if (filter.minRating() != null && product.averageRating() != null && product.averageRating() < filter.minRating()) {
+            return false;
+        }
+        return !filter.availableOnly()
+                || Boolean.TRUE.equals(product.available())
+                || product.status() == null
+                || product.status() == ProductStatus.IN_STOCK;
+    }
+}
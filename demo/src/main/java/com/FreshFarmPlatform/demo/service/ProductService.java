@@ -1,7 +1,14 @@
 package com.FreshFarmPlatform.demo.service;
 
+import com.FreshFarmPlatform.demo.dto.paging.KeysetPage;
+import com.FreshFarmPlatform.demo.dto.product.ImageVariants;
+import com.FreshFarmPlatform.demo.dto.product.ProductCursor;
+import com.FreshFarmPlatform.demo.dto.product.ProductPageResponse;
 import com.FreshFarmPlatform.demo.dto.product.ProductRequest;
 import com.FreshFarmPlatform.demo.dto.product.ProductResponse;
+import com.FreshFarmPlatform.demo.dto.product.ProductSearchFilter;
+import com.FreshFarmPlatform.demo.dto.product.ProductSort;
+import com.FreshFarmPlatform.demo.dto.product.ProductView;
 import com.FreshFarmPlatform.demo.exception.BadRequestException;
 import com.FreshFarmPlatform.demo.exception.ResourceNotFoundException;
 import com.FreshFarmPlatform.demo.model.product.Product;
@@ -10,25 +17,34 @@ import com.FreshFarmPlatform.demo.model.user.Farmer;
 import com.FreshFarmPlatform.demo.model.user.User;
 import com.FreshFarmPlatform.demo.model.user.UserType;
 import com.FreshFarmPlatform.demo.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
 
+    private static final Logger log = LoggerFactory.getLogger(ProductService.class);
+
     private final ProductRepository productRepository;
     private final UserService userService;
     private final FileStorageService fileStorageService;
+    private final ProductCatalogCache catalogCache;
 
     public ProductService(ProductRepository productRepository,
                           UserService userService,
-                          FileStorageService fileStorageService) {
+                          FileStorageService fileStorageService,
+                          ProductCatalogCache catalogCache) {
         this.productRepository = productRepository;
         this.userService = userService;
         this.fileStorageService = fileStorageService;
+        this.catalogCache = catalogCache;
     }
 
     @Transactional
@@ -49,7 +65,9 @@ public class ProductService {
                 .available(resolveAvailability(request.status(), request.available()))
                 .farmer((Farmer) current)
                 .build();
-        return toResponse(productRepository.save(product));
+        ProductResponse response = toResponse(productRepository.save(product));
+        catalogCache.productChanged(response);
+        return response;
     }
 
     @Transactional
@@ -63,6 +81,9 @@ public class ProductService {
         product.setQuantity(request.quantity());
         String imageUrl = resolveImageUrl(request.imageUrl(), image);
         if (imageUrl != null) {
+            if (product.getImageUrl() != null && !product.getImageUrl().equals(imageUrl)) {
+                fileStorageService.releaseImages(List.of(product.getImageUrl()));
+            }
             product.setImageUrl(imageUrl);
         }
         if (request.status() != null || request.available() != null) {
@@ -70,13 +91,19 @@ public class ProductService {
             product.setStatus(status);
             product.setAvailable(resolveAvailability(status, request.available()));
         }
-        return toResponse(productRepository.save(product));
+        ProductResponse response = toResponse(productRepository.save(product));
+        catalogCache.productChanged(response);
+        return response;
     }
 
     @Transactional
     public void deleteProduct(Long productId) {
         Product product = getOwnedProduct(productId);
         productRepository.delete(product);
+        catalogCache.productsRemoved(List.of(productId));
+        if (product.getImageUrl() != null) {
+            fileStorageService.releaseImages(List.of(product.getImageUrl()));
+        }
     }
 
     public List<ProductResponse> listProducts(String keyword,
@@ -85,45 +112,91 @@ public class ProductService {
                                               Double maxPrice,
                                               String location,
                                               Boolean availableOnly,
-                                              ProductStatus status) {
-        try {
-            boolean onlyAvailable = Boolean.TRUE.equals(availableOnly);
-            String statusStr = status != null ? status.name() : null;
-            List<Product> products = productRepository.searchProducts(
-                            sanitize(keyword),
-                            sanitize(category),
-                            minPrice,
-                            maxPrice,
-                            sanitize(location),
-                            onlyAvailable,
-                            statusStr);
-            
-            // Log for debugging
-            System.out.println("Found " + products.size() + " products with filters: keyword=" + keyword + 
-                             ", category=" + category + ", status=" + status);
-            
-            return products.stream()
-                    .map(this::toResponse)
-                    .toList();
-        } catch (Exception e) {
-            System.err.println("Error in listProducts: " + e.getMessage());
-            e.printStackTrace();
-            // Fallback: return all products if query fails
-            return productRepository.findAllByOrderByPostedDateDesc().stream()
-                    .map(this::toResponse)
-                    .toList();
+                                              ProductStatus status,
+                                              Double minRating) {
+        ProductSearchFilter filter = ProductSearchFilter.of(keyword, category, minPrice, maxPrice, location, availableOnly, status, minRating);
+        return catalogCache.get(ProductCatalogCache.Key.list(filter), () -> {
+            List<ProductResponse> products = searchCatalog(filter);
+            log.debug("Loaded {} catalog products for {}", products.size(), filter);
+            return new ProductPageResponse(products, null, false);
+        }).items();
+    }
+
+    @Transactional(readOnly = true)
+    public ProductPageResponse listProductsPage(ProductSearchFilter filter,
+                                                ProductSort sort,
+                                                String cursor,
+                                                Integer size) {
+        ProductSort order = sort != null ? sort : ProductSort.NEWEST;
+        ProductCursor position = ProductCursor.decode(cursor, order);
+        int pageSize = KeysetPage.resolvePageSize(size);
+        return catalogCache.get(new ProductCatalogCache.Key(filter, order, cursor, pageSize),
+                () -> loadPage(filter, order, position, pageSize));
+    }
+
+    private ProductPageResponse loadPage(ProductSearchFilter filter,
+                                         ProductSort order,
+                                         ProductCursor position,
+                                         int pageSize) {
+        List<ProductView> rows = switch (order) {
+            case OLDEST -> productRepository.searchProductsAfter(filter.tsQuery(), filter.keyword(), filter.category(),
+                    filter.minPrice(), filter.maxPrice(), filter.location(), filter.availableOnly(), filter.statusName(),
+                    filter.minRating(), position.postedDate(), position.productId(), pageSize + 1);
+            case TOP_RATED -> productRepository.searchProductsByRatingBefore(filter.tsQuery(), filter.keyword(),
+                    filter.category(), filter.minPrice(), filter.maxPrice(), filter.location(), filter.availableOnly(),
+                    filter.statusName(), filter.minRating(), position.rating(), position.productId(), pageSize + 1);
+            case NEWEST -> productRepository.searchProductsBefore(filter.tsQuery(), filter.keyword(), filter.category(),
+                    filter.minPrice(), filter.maxPrice(), filter.location(), filter.availableOnly(), filter.statusName(),
+                    filter.minRating(), position.postedDate(), position.productId(), pageSize + 1);
+        };
+        KeysetPage<ProductResponse> page = KeysetPage.of(rows, pageSize, this::toResponse,
+                last -> ProductCursor.encode(last, order));
+        return new ProductPageResponse(page.items(), page.nextCursor(), page.hasMore());
+    }
+
+    @Transactional(readOnly = true)
+    public void streamProducts(ProductSearchFilter filter, Consumer<ProductResponse> sink) {
+        try (Stream<ProductView> products = productRepository.streamProducts(filter.tsQuery(), filter.keyword(),
+                filter.category(), filter.minPrice(), filter.maxPrice(), filter.location(), filter.availableOnly(),
+                filter.statusName(), filter.minRating())) {
+            // Projections are not managed entities, so the persistence context stays empty during the export
+            products.map(this::toResponse).forEach(sink);
         }
     }
 
     public List<ProductResponse> listFarmerProducts(Long farmerId) {
-        return productRepository.findByFarmerUserId(farmerId).stream().map(this::toResponse).toList();
+        return productRepository.findViewsByFarmerId(farmerId).stream().map(this::toResponse).toList();
+    }
+
+    private List<ProductResponse> searchCatalog(ProductSearchFilter filter) {
+        List<ProductView> products = filter.tsQuery() != null
+                ? productRepository.searchProductsByRelevance(
+                        filter.tsQuery(),
+                        filter.keyword(),
+                        filter.category(),
+                        filter.minPrice(),
+                        filter.maxPrice(),
+                        filter.location(),
+                        filter.availableOnly(),
+                        filter.statusName(), filter.minRating())
+                : productRepository.searchProducts(
+                        null,
+                        null,
+                        filter.category(),
+                        filter.minPrice(),
+                        filter.maxPrice(),
+                        filter.location(),
+                        filter.availableOnly(),
+                        filter.statusName(), filter.minRating());
+        return products.stream()
+                .map(this::toResponse)
+                .toList();
     }
 
     private Product getOwnedProduct(Long productId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
-        User current = userService.getCurrentUser();
-        if (!product.getFarmer().getUserId().equals(current.getUserId())) {
+        if (!product.getFarmer().getUserId().equals(userService.getCurrentUserId())) {
             throw new BadRequestException("You can only modify your products");
         }
         return product;
@@ -153,17 +226,40 @@ public class ProductService {
                 product.getUnit(),
                 product.getQuantity(),
                 product.getImageUrl(),
+                ImageVariants.forImage(product.getImageUrl()),
                 product.getAvailable(),
                 product.getStatus(),
                 product.getPostedDate(),
                 product.getFarmer() != null ? product.getFarmer().getUserId() : null,
                 product.getFarmer() != null ? product.getFarmer().getUsername() : null,
-                farmerLocation
+                farmerLocation,
+                product.getRatingAverage(),
+                product.getRatingCount(),
+                product.getFarmer() != null ? product.getFarmer().getRating() : null
         );
     }
 
-    private String sanitize(String value) {
-        return value == null || value.isBlank() ? null : value.trim();
+    private ProductResponse toResponse(ProductView view) {
+        return new ProductResponse(
+                view.getId(),
+                view.getProductName(),
+                view.getCategory(),
+                view.getDescription(),
+                view.getPrice(),
+                view.getUnit(),
+                view.getQuantity(),
+                view.getImageUrl(),
+                ImageVariants.forImage(view.getImageUrl()),
+                view.getAvailable(),
+                view.getStatus(),
+                view.getPostedDate(),
+                view.getFarmerId(),
+                view.getFarmerName(),
+                view.getFarmerLocation(),
+                view.getAverageRating(),
+                view.getRatingCount(),
+                view.getFarmerRating()
+        );
     }
 
     private ProductStatus resolveStatus(ProductStatus requestedStatus, Boolean availableFlag) {
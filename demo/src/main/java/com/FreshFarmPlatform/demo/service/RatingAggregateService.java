@@ -0,0 +1,89 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.model.product.Product;
+import com.FreshFarmPlatform.demo.model.review.Review;
+import com.FreshFarmPlatform.demo.repository.FarmerRepository;
+import com.FreshFarmPlatform.demo.repository.ProductRatingCountRepository;
+import com.FreshFarmPlatform.demo.repository.ProductRepository;
+import com.FreshFarmPlatform.demo.repository.ReviewRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Keeps running rating sums and counts on products and farmers, and per-star counts per product,
+ * in step with reviews, so rating sorts, filters and histograms never aggregate reviews.
+ * Runs inside the caller's transaction, so a rolled back review never reaches the totals.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class RatingAggregateService {
+
+    private final ProductRepository productRepository;
+    private final FarmerRepository farmerRepository;
+    private final ProductRatingCountRepository ratingCountRepository;
+    private final ReviewRepository reviewRepository;
+    private final ProductCatalogCache catalogCache;
+
+    public RatingAggregateService(ProductRepository productRepository,
+                                  FarmerRepository farmerRepository,
+                                  ProductRatingCountRepository ratingCountRepository,
+                                  ReviewRepository reviewRepository,
+                                  ProductCatalogCache catalogCache) {
+        this.productRepository = productRepository;
+        this.farmerRepository = farmerRepository;
+        this.ratingCountRepository = ratingCountRepository;
+        this.reviewRepository = reviewRepository;
+        this.catalogCache = catalogCache;
+    }
+
+    public void reviewAdded(Review review) {
+        apply(review.getProduct(), review.getRating(), 1);
+        countStars(review.getProduct(), review.getRating(), 1);
+    }
+
+    public void ratingChanged(Review review, int previousRating) {
+        if (review.getRating() != previousRating) {
+            apply(review.getProduct(), review.getRating() - previousRating, 0);
+            countStars(review.getProduct(), previousRating, -1);
+            countStars(review.getProduct(), review.getRating(), 1);
+        }
+    }
+
+    public void reviewRemoved(Review review) {
+        apply(review.getProduct(), -review.getRating(), -1);
+        countStars(review.getProduct(), review.getRating(), -1);
+    }
+
+    /** Bulk form of {@link #reviewRemoved} for reviews about to be deleted: one grouped update per table. */
+    public void reviewsRemoved(Collection<Long> reviewIds) {
+        if (reviewIds.isEmpty()) {
+            return;
+        }
+        Set<Long> productIds = Set.copyOf(reviewRepository.findProductIdsByIds(reviewIds));
+        productRepository.removeRatings(reviewIds);
+        farmerRepository.removeRatings(reviewIds);
+        ratingCountRepository.removeRatings(reviewIds);
+        catalogCache.ratingsChanged(productIds);
+    }
+
+    private void countStars(Product product, int stars, int delta) {
+        if (product != null) {
+            ratingCountRepository.add(product.getProductId(), stars, delta);
+        }
+    }
+
+    private void apply(Product product, long sumDelta, int countDelta) {
+        if (product == null) {
+            return;
+        }
+        productRepository.addRating(product.getProductId(), sumDelta, countDelta);
+        if (product.getFarmer() != null) {
+            farmerRepository.addRating(product.getFarmer().getUserId(), sumDelta, countDelta);
+        }
+        catalogCache.ratingChanged(product.getProductId());
+    }
+}
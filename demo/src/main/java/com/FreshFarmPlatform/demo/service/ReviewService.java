@@ -1,35 +1,51 @@
 package com.FreshFarmPlatform.demo.service;
 
+import com.FreshFarmPlatform.demo.dto.paging.KeysetPage;
+import com.FreshFarmPlatform.demo.dto.review.RatingHistogramResponse;
+import com.FreshFarmPlatform.demo.dto.review.ReviewCursor;
+import com.FreshFarmPlatform.demo.dto.review.ReviewPageResponse;
 import com.FreshFarmPlatform.demo.dto.review.ReviewRequest;
 import com.FreshFarmPlatform.demo.dto.review.ReviewResponse;
+import com.FreshFarmPlatform.demo.dto.review.ReviewSort;
+import com.FreshFarmPlatform.demo.dto.review.ReviewView;
 import com.FreshFarmPlatform.demo.exception.BadRequestException;
 import com.FreshFarmPlatform.demo.exception.ResourceNotFoundException;
 import com.FreshFarmPlatform.demo.model.product.Product;
+import com.FreshFarmPlatform.demo.model.review.ProductRatingCount;
 import com.FreshFarmPlatform.demo.model.review.Review;
 import com.FreshFarmPlatform.demo.model.user.Admin;
 import com.FreshFarmPlatform.demo.model.user.Buyer;
 import com.FreshFarmPlatform.demo.model.user.User;
 import com.FreshFarmPlatform.demo.model.user.UserType;
+import com.FreshFarmPlatform.demo.repository.ProductRatingCountRepository;
 import com.FreshFarmPlatform.demo.repository.ProductRepository;
 import com.FreshFarmPlatform.demo.repository.ReviewRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ReviewService {
 
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
+    private final ProductRatingCountRepository ratingCountRepository;
     private final UserService userService;
+    private final RatingAggregateService ratingAggregateService;
 
     public ReviewService(ReviewRepository reviewRepository,
                          ProductRepository productRepository,
-                         UserService userService) {
+                         ProductRatingCountRepository ratingCountRepository,
+                         UserService userService,
+                         RatingAggregateService ratingAggregateService) {
         this.reviewRepository = reviewRepository;
         this.productRepository = productRepository;
+        this.ratingCountRepository = ratingCountRepository;
         this.userService = userService;
+        this.ratingAggregateService = ratingAggregateService;
     }
 
     @Transactional
@@ -46,20 +62,24 @@ public class ReviewService {
                 .rating(request.rating())
                 .comment(request.comment())
                 .build();
-        return toResponse(reviewRepository.save(review));
+        Review saved = reviewRepository.save(review);
+        ratingAggregateService.reviewAdded(saved);
+        return toResponse(saved);
     }
 
     @Transactional
     public ReviewResponse updateReview(Long reviewId, ReviewRequest request) {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found"));
-        User user = userService.getCurrentUser();
-        if (!review.getBuyer().getUserId().equals(user.getUserId())) {
+        if (!review.getBuyer().getUserId().equals(userService.getCurrentUserId())) {
             throw new BadRequestException("You can update only your reviews");
         }
+        int previousRating = review.getRating();
         review.setRating(request.rating());
         review.setComment(request.comment());
-        return toResponse(reviewRepository.save(review));
+        Review saved = reviewRepository.save(review);
+        ratingAggregateService.ratingChanged(saved, previousRating);
+        return toResponse(saved);
     }
 
     @Transactional
@@ -74,16 +94,60 @@ public class ReviewService {
             review.setModeratedBy((Admin) user);
         }
         reviewRepository.delete(review);
+        ratingAggregateService.reviewRemoved(review);
     }
 
+    @Transactional(readOnly = true)
     public List<ReviewResponse> productReviews(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
-        return reviewRepository.findByProduct(product).stream()
+        ensureProductExists(productId);
+        return reviewRepository.findViewsByProductId(productId).stream()
                 .map(this::toResponse)
                 .toList();
     }
 
+    /** One keyset page of a product's reviews; the first page also carries the star histogram. */
+    @Transactional(readOnly = true)
+    public ReviewPageResponse productReviewsPage(Long productId, ReviewSort sort, String cursor, Integer size) {
+        ReviewSort order = sort != null ? sort : ReviewSort.NEWEST;
+        ReviewCursor position = ReviewCursor.decode(cursor, order);
+        int pageSize = KeysetPage.resolvePageSize(size);
+        boolean firstPage = cursor == null || cursor.isBlank();
+        if (firstPage) {
+            ensureProductExists(productId);
+        }
+        List<ReviewView> rows = switch (order) {
+            case NEWEST -> reviewRepository.findNewestBefore(
+                    productId, position.reviewDate(), position.reviewId(), pageSize + 1);
+            case HIGHEST -> reviewRepository.findHighestBefore(
+                    productId, position.rating(), position.reviewId(), pageSize + 1);
+            case LOWEST -> reviewRepository.findLowestAfter(
+                    productId, position.rating(), position.reviewId(), pageSize + 1);
+        };
+        KeysetPage<ReviewResponse> page = KeysetPage.of(rows, pageSize, this::toResponse,
+                last -> ReviewCursor.encode(last, order));
+        return new ReviewPageResponse(page.items(), page.nextCursor(), page.hasMore(),
+                firstPage ? histogram(productId) : null);
+    }
+
+    private RatingHistogramResponse histogram(Long productId) {
+        Map<Integer, Long> stars = new LinkedHashMap<>();
+        for (int value = 1; value <= 5; value++) {
+            stars.put(value, 0L);
+        }
+        for (ProductRatingCount count : ratingCountRepository.findByProductId(productId)) {
+            stars.merge(count.getStars(), count.getReviewCount(), Long::sum);
+        }
+        long total = stars.values().stream().mapToLong(Long::longValue).sum();
+        long sum = stars.entrySet().stream().mapToLong(entry -> entry.getKey() * entry.getValue()).sum();
+        return new RatingHistogramResponse(stars, total, total == 0 ? null : (double) sum / total);
+    }
+
+    private void ensureProductExists(Long productId) {
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Product not found");
+        }
+    }
+
     private ReviewResponse toResponse(Review review) {
         return new ReviewResponse(
                 review.getReviewId(),
@@ -91,7 +155,20 @@ public class ReviewService {
                 review.getBuyer().getUserId(),
                 review.getRating(),
                 review.getComment(),
-                review.getReviewDate()
+                review.getReviewDate(),
+                review.getBuyer().getUsername()
+        );
+    }
+
+    private ReviewResponse toResponse(ReviewView review) {
+        return new ReviewResponse(
+                review.getReviewId(),
+                review.getProductId(),
+                review.getBuyerId(),
+                review.getRating(),
+                review.getComment(),
+                review.getReviewDate(),
+                review.getBuyerUsername()
         );
     }
 }
@@ -0,0 +1,76 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.model.order.Order;
+import com.FreshFarmPlatform.demo.model.order.OrderStatus;
+import com.FreshFarmPlatform.demo.model.report.SalesRollupEvent;
+import com.FreshFarmPlatform.demo.repository.SalesRollupEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+
+/**
+ * Keeps the daily sales rollups in step with the order workflow so reports read a few
+ * pre-aggregated rows per day instead of every order and line item.
+ * Every checkout of a day hits the same status row, so orders never write the rollups themselves:
+ * each order change appends a row to sales_rollup_events in its own transaction (a rolled back order
+ * never reaches the rollups, a committed one survives a crash) and a single writer drains the table
+ * into the rollups every app.reports.rollup-flush-ms.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private final SalesRollupEventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public SalesRollupService(SalesRollupEventRepository eventRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.eventRepository = eventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /** Call once the order has its id; the event is inserted with the order's own batch. */
+    public void recordPlaced(Order order) {
+        eventRepository.save(SalesRollupEvent.builder()
+                .orderId(order.getOrderId())
+                .toStatus(order.getStatus().name())
+                .build());
+    }
+
+    public void recordStatusChange(Order order, OrderStatus from, OrderStatus to) {
+        if (from == to) {
+            return;
+        }
+        eventRepository.save(SalesRollupEvent.builder()
+                .orderId(order.getOrderId())
+                .fromStatus(from.name())
+                .toStatus(to.name())
+                .build());
+    }
+
+    /**
+     * Takes orders back out of the rollups before they are deleted. Must run in the deleting
+     * transaction, with the orders locked, so no status change slips in between.
+     */
+    public void ordersRemoved(Collection<Long> orderIds) {
+        // Events still waiting for these orders could not be applied once the orders are gone
+        eventRepository.drain();
+        eventRepository.subtractOrders(orderIds);
+    }
+
+    /** Applies every committed event; a failed run leaves them in place for the next one. */
+    @Scheduled(fixedDelayString = "${app.reports.rollup-flush-ms:1000}")
+    public void flush() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> eventRepository.drain());
+        } catch (RuntimeException e) {
+            log.warn("Writing the daily sales rollups failed; retrying on the next run", e);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.dto.admin.UserDeletionJobResponse;
+import com.FreshFarmPlatform.demo.dto.admin.UserDeletionStatus;
+import com.FreshFarmPlatform.demo.exception.BadRequestException;
+import com.FreshFarmPlatform.demo.exception.ResourceNotFoundException;
+import com.FreshFarmPlatform.demo.model.user.User;
+import com.FreshFarmPlatform.demo.model.user.UserType;
+import com.FreshFarmPlatform.demo.repository.CartRepository;
+import com.FreshFarmPlatform.demo.repository.MessageRepository;
+import com.FreshFarmPlatform.demo.repository.OrderItemRepository;
+import com.FreshFarmPlatform.demo.repository.OrderRepository;
+import com.FreshFarmPlatform.demo.repository.ProductRatingCountRepository;
+import com.FreshFarmPlatform.demo.repository.ProductRepository;
+import com.FreshFarmPlatform.demo.repository.ReviewRepository;
+import com.FreshFarmPlatform.demo.repository.TransactionRepository;
+import com.FreshFarmPlatform.demo.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Deletes an account and everything hanging off it with set-based statements, in batches that each
+ * commit on their own, so a very large account never loads rows into memory or holds one long transaction.
+ * The user row goes last, so a failed run can simply be started again and continues where it stopped.
+ */
+@Service
+public class UserDeletionService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserDeletionService.class);
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(1);
+    private static final String FARMER_HAS_ORDERS = "Farmers whose products have been ordered cannot be deleted";
+
+    private final int batchSize;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final CartRepository cartRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionRepository transactionRepository;
+    private final ReviewRepository reviewRepository;
+    private final ProductRepository productRepository;
+    private final ProductRatingCountRepository ratingCountRepository;
+    private final MessageRepository messageRepository;
+    private final RatingAggregateService ratingAggregateService;
+    private final MessageService messageService;
+    private final SalesRollupService salesRollupService;
+    private final ProductCatalogCache catalogCache;
+    private final FileStorageService fileStorageService;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public UserDeletionService(@Value("${app.users.deletion.batch-size:500}") int batchSize,
+                               PlatformTransactionManager transactionManager,
+                               UserRepository userRepository,
+                               CartRepository cartRepository,
+                               OrderRepository orderRepository,
+                               OrderItemRepository orderItemRepository,
+                               TransactionRepository transactionRepository,
+                               ReviewRepository reviewRepository,
+                               ProductRepository productRepository,
+                               ProductRatingCountRepository ratingCountRepository,
+                               MessageRepository messageRepository,
+                               RatingAggregateService ratingAggregateService,
+                               MessageService messageService,
+                               SalesRollupService salesRollupService,
+                               ProductCatalogCache catalogCache,
+                               FileStorageService fileStorageService) {
+        this.batchSize = batchSize;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userRepository = userRepository;
+        this.cartRepository = cartRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.transactionRepository = transactionRepository;
+        this.reviewRepository = reviewRepository;
+        this.productRepository = productRepository;
+        this.ratingCountRepository = ratingCountRepository;
+        this.messageRepository = messageRepository;
+        this.ratingAggregateService = ratingAggregateService;
+        this.messageService = messageService;
+        this.salesRollupService = salesRollupService;
+        this.catalogCache = catalogCache;
+        this.fileStorageService = fileStorageService;
+    }
+
+    /**
+     * Creates a queued job for the user, or returns the one already queued or running for them.
+     * Farmers whose products were ever ordered are refused: order lines keep their product rows.
+     */
+    public UserDeletionJobResponse register(User user) {
+        if (user.getUserType() == UserType.FARMER && orderItemRepository.existsForFarmer(user.getUserId())) {
+            throw new BadRequestException(FARMER_HAS_ORDERS);
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(FINISHED_JOB_RETENTION);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+        synchronized (jobs) {
+            Optional<Job> active = jobs.values().stream()
+                    .filter(job -> job.userId.equals(user.getUserId()) && job.finishedAt == null)
+                    .findFirst();
+            if (active.isPresent()) {
+                return active.get().toResponse();
+            }
+            Job job = new Job(UUID.randomUUID().toString(), user.getUserId(), user.getUserType());
+            jobs.put(job.jobId, job);
+            return job.toResponse();
+        }
+    }
+
+    /** Runs a queued job on the calling thread and rethrows whatever stopped it. */
+    public UserDeletionJobResponse run(String jobId) {
+        Job job = job(jobId);
+        if (!job.start()) {
+            throw new BadRequestException("A deletion is already in progress for this user");
+        }
+        execute(job);
+        return job.toResponse();
+    }
+
+    @Async
+    public CompletableFuture<Void> runInBackground(String jobId) {
+        Job job = job(jobId);
+        if (job.start()) {
+            try {
+                execute(job);
+            } catch (RuntimeException e) {
+                // Already recorded on the job for GET /api/admin/users/deletions/{jobId}
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public Optional<UserDeletionJobResponse> progress(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(Job::toResponse);
+    }
+
+    private Job job(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Deletion job not found");
+        }
+        return job;
+    }
+
+    private void execute(Job job) {
+        Long userId = job.userId;
+        try {
+            if (job.userType == UserType.BUYER) {
+                deleteBuyerData(job);
+            } else if (job.userType == UserType.FARMER) {
+                deleteFarmerData(job);
+            }
+            inBatches(job, "messages", () -> messageRepository.findIdsByParticipant(userId, batchSize),
+                    (messageIds, counts) -> counts.put("messages", (long) messageRepository.deleteByIds(messageIds)));
+            // Threads, the other side's unread counters and anything sent since the last batch
+            inTransaction(job, "conversations", counts -> messageService.deleteAllFor(userId));
+            inTransaction(job, "user", counts -> userRepository.deleteById(userId));
+            job.finish(UserDeletionStatus.COMPLETED, null);
+            log.info("Deleted user {} ({})", userId, job.deletedSnapshot());
+        } catch (RuntimeException e) {
+            log.error("Deleting user {} failed during {}", userId, job.step, e);
+            job.finish(UserDeletionStatus.FAILED, e.getMessage());
+            throw e;
+        }
+    }
+
+    private void deleteBuyerData(Job job) {
+        Long buyerId = job.userId;
+        inTransaction(job, "cart", counts -> {
+            counts.put("cartItems", (long) cartRepository.deleteItemsByBuyer(buyerId));
+            cartRepository.deleteByBuyerId(buyerId);
+        });
+        inBatches(job, "orders", () -> orderRepository.findIdsByBuyer(buyerId, batchSize), (orderIds, counts) -> {
+            // Reports read the rollups, so deleted orders leave them as they leave the orders table
+            salesRollupService.ordersRemoved(orderIds);
+            transactionRepository.deleteByOrderIds(orderIds);
+            orderItemRepository.deleteByOrderIds(orderIds);
+            counts.put("orders", (long) orderRepository.deleteByIds(orderIds));
+        });
+        inBatches(job, "reviews", () -> reviewRepository.findIdsByBuyer(buyerId, batchSize), (reviewIds, counts) -> {
+            // The reviewed products and their farmers keep their ratings in step
+            ratingAggregateService.reviewsRemoved(reviewIds);
+            counts.put("reviews", (long) reviewRepository.deleteByIds(reviewIds));
+        });
+    }
+
+    private void deleteFarmerData(Job job) {
+        Long farmerId = job.userId;
+        // Settled before any batch commits: once the stock is zeroed no checkout can add an order line
+        inTransaction(job, "withdraw", counts -> {
+            productRepository.withdrawByFarmer(farmerId);
+            if (orderItemRepository.existsForFarmer(farmerId)) {
+                throw new BadRequestException(FARMER_HAS_ORDERS);
+            }
+        });
+        inBatches(job, "products", () -> productRepository.findIdsByFarmer(farmerId, batchSize), (productIds, counts) -> {
+            List<String> imageUrls = productRepository.findImageUrlsByIds(productIds);
+            counts.put("reviews", (long) reviewRepository.deleteByProductIds(productIds));
+            ratingCountRepository.deleteByProductIds(productIds);
+            counts.put("cartsUpdated", (long) cartRepository.removeProducts(productIds));
+            counts.put("products", (long) productRepository.deleteByIds(productIds));
+            catalogCache.productsRemoved(productIds);
+            fileStorageService.releaseImages(imageUrls);
+        });
+    }
+
+    private void inTransaction(Job job, String step, Consumer<Map<String, Long>> work) {
+        job.step = step;
+        Map<String, Long> counts = new LinkedHashMap<>();
+        transactionTemplate.executeWithoutResult(status -> work.accept(counts));
+        job.add(counts);
+    }
+
+    // Re-reads the next batch of ids after every commit until none are left
+    private void inBatches(Job job,
+                           String step,
+                           Supplier<List<Long>> nextBatch,
+                           BiConsumer<List<Long>, Map<String, Long>> deleteBatch) {
+        job.step = step;
+        while (true) {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            Boolean deleted = transactionTemplate.execute(status -> {
+                List<Long> ids = nextBatch.get();
+                if (ids.isEmpty()) {
+                    return false;
+                }
+                deleteBatch.accept(ids, counts);
+                return true;
+            });
+            if (!Boolean.TRUE.equals(deleted)) {
+                return;
+            }
+            job.add(counts);
+        }
+    }
+
+    private static final class Job {
+        private final String jobId;
+        private final Long userId;
+        private final UserType userType;
+        private final Map<String, Long> deleted = new LinkedHashMap<>();
+        private UserDeletionStatus status = UserDeletionStatus.QUEUED;
+        private volatile String step;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        private Job(String jobId, Long userId, UserType userType) {
+            this.jobId = jobId;
+            this.userId = userId;
+            this.userType = userType;
+        }
+
+        synchronized boolean start() {
+            if (status != UserDeletionStatus.QUEUED) {
+                return false;
+            }
+            status = UserDeletionStatus.RUNNING;
+            startedAt = LocalDateTime.now();
+            return true;
+        }
+
+        synchronized void add(Map<String, Long> counts) {
+            counts.forEach((key, count) -> deleted.merge(key, count, Long::sum));
+        }
+
+        synchronized void finish(UserDeletionStatus outcome, String message) {
+            status = outcome;
+            error = message;
+            finishedAt = LocalDateTime.now();
+        }
+
+        synchronized Map<String, Long> deletedSnapshot() {
+            return new LinkedHashMap<>(deleted);
+        }
+
+        synchronized UserDeletionJobResponse toResponse() {
+            return new UserDeletionJobResponse(jobId, userId, userType, status, step,
+                    deletedSnapshot(), startedAt, finishedAt, error);
+        }
+    }
+}
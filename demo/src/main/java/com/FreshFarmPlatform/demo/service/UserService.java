@@ -7,8 +7,13 @@ import com.FreshFarmPlatform.demo.dto.user.UserProfileResponse;
 import com.FreshFarmPlatform.demo.exception.BadRequestException;
 import com.FreshFarmPlatform.demo.exception.ResourceNotFoundException;
 import com.FreshFarmPlatform.demo.model.user.User;
+import com.FreshFarmPlatform.demo.model.user.UserType;
 import com.FreshFarmPlatform.demo.repository.UserRepository;
 import com.FreshFarmPlatform.demo.security.PlatformUserDetails;
+import com.FreshFarmPlatform.demo.security.PrincipalCache;
+import com.FreshFarmPlatform.demo.security.TokenPrincipal;
+import com.FreshFarmPlatform.demo.security.TokenRevocationList;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -19,10 +24,20 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ProductCatalogCache catalogCache;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationList revocationList;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository,
+                       PasswordEncoder passwordEncoder,
+                       ProductCatalogCache catalogCache,
+                       PrincipalCache principalCache,
+                       TokenRevocationList revocationList) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.catalogCache = catalogCache;
+        this.principalCache = principalCache;
+        this.revocationList = revocationList;
     }
 
     public UserSummary getCurrentProfile() {
@@ -46,11 +61,16 @@ public class UserService {
     @Transactional
     public UserSummary updateProfile(UpdateProfileRequest request) {
         User user = getCurrentUser();
+        principalCache.invalidate(user.getUsername());
         if (request.username() != null && !request.username().equals(user.getUsername())) {
             if (userRepository.existsByUsername(request.username())) {
                 throw new BadRequestException("Username already taken");
             }
             user.setUsername(request.username());
+            if (user.getUserType() == UserType.FARMER) {
+                // Cached listings carry the farmer name
+                catalogCache.invalidateAll();
+            }
         }
         if (request.phone() != null) {
             user.setPhone(request.phone());
@@ -65,6 +85,7 @@ public class UserService {
     @Transactional
     public void changePassword(ChangePasswordRequest request) {
         User user = getCurrentUser();
+        principalCache.invalidate(user.getUsername());
         
         // Verify current password
         if (!passwordEncoder.matches(request.currentPassword(), user.getPassword())) {
@@ -84,15 +105,47 @@ public class UserService {
     @Transactional
     public void deleteAccount() {
         User user = getCurrentUser();
+        principalCache.invalidate(user.getUsername());
+        revocationList.revokeUser(user.getUserId());
         userRepository.delete(user);
     }
 
+    /**
+     * The caller's entity, loaded by id only when a service needs it. Principals are shared snapshots,
+     * so every caller gets an instance of its own persistence context; repeated calls within a request
+     * are answered from that context.
+     */
     public User getCurrentUser() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return userRepository.findById(getCurrentUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("No authenticated user found"));
+    }
+
+    /** The caller's id, read from the principal without a lookup. */
+    public Long getCurrentUserId() {
+        Object principal = currentPrincipal();
+        if (principal instanceof PlatformUserDetails platformUserDetails) {
+            return platformUserDetails.getUserId();
+        }
+        if (principal instanceof TokenPrincipal tokenPrincipal) {
+            return tokenPrincipal.getUserId();
+        }
+        throw new ResourceNotFoundException("No authenticated user found");
+    }
+
+    public UserType getCurrentUserType() {
+        Object principal = currentPrincipal();
         if (principal instanceof PlatformUserDetails platformUserDetails) {
-            return platformUserDetails.getUser();
+            return platformUserDetails.getUserType();
+        }
+        if (principal instanceof TokenPrincipal tokenPrincipal) {
+            return tokenPrincipal.getUserType();
         }
         throw new ResourceNotFoundException("No authenticated user found");
     }
+
+    private Object currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getPrincipal() : null;
+    }
 }
 
@@ -0,0 +1,118 @@
+package com.FreshFarmPlatform.demo.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Single-node storage in a local directory (app.file-storage-location). */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "filesystem", matchIfMissing = true)
+public class FileSystemObjectStorage implements ObjectStorage {
+
+    private final Path root;
+
+    public FileSystemObjectStorage(@Value("${app.file-storage-location:uploads}") String storageLocation) {
+        this.root = Paths.get(storageLocation).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(root.resolve("variants"));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create upload directory", e);
+        }
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        Path target = resolve(key);
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Different file system: copy next to the target first so readers never see a partial file
+            Path temp = Files.createTempFile(target.getParent(), "put-", ".tmp");
+            try {
+                Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public Instant lastModified(String key) throws IOException {
+        try {
+            return Files.getLastModifiedTime(resolve(key)).toInstant();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void touch(String key) throws IOException {
+        Files.setLastModifiedTime(resolve(key), FileTime.from(Instant.now()));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public List<String> list(String prefix) throws IOException {
+        Path directory = resolve(prefix);
+        List<String> keys = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, Files::isRegularFile)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(".tmp")) {
+                    keys.add(prefix + name);
+                }
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public Path localPath(String key) {
+        Path file = resolve(key);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    @Override
+    public URI presignedUrl(String key, Duration ttl) {
+        return null;
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Key outside storage root: " + key);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,41 @@
+package com.FreshFarmPlatform.demo.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Where uploaded files and their variants live. Keys are relative names such as
+ * {@code <sha256>.jpg} or {@code variants/<name>-card.jpg}.
+ */
+public interface ObjectStorage {
+
+    /** Stores the file under the key. The source may be moved; callers delete it if it is still there. */
+    void put(String key, Path source, String contentType) throws IOException;
+
+    /** Opens the object for reading; throws NoSuchFileException when it does not exist. */
+    InputStream open(String key) throws IOException;
+
+    boolean exists(String key) throws IOException;
+
+    /** Last modification time, or null when the object does not exist. */
+    Instant lastModified(String key) throws IOException;
+
+    /** Marks the object as recently written, which protects it from garbage collection for a while. */
+    void touch(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /** Keys directly under the prefix ("" for originals, "variants/" for variants), not recursing further. */
+    List<String> list(String prefix) throws IOException;
+
+    /** A local file for zero-copy serving, or null when the backend is remote or the key is missing. */
+    Path localPath(String key);
+
+    /** A time-limited URL clients can fetch directly, or null when the backend has none. */
+    URI presignedUrl(String key, Duration ttl);
+}
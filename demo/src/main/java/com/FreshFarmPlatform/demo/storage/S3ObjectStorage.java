@@ -0,0 +1,339 @@
+package com.FreshFarmPlatform.demo.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * S3-compatible storage (AWS S3, MinIO and similar) over plain HTTP with Signature Version 4,
+ * so every app instance sees the same files. Uploads stream from the local temp file with a
+ * known length, and reads can be handed to clients as pre-signed URLs.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+public class S3ObjectStorage implements ObjectStorage {
+
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final DateTimeFormatter SCOPE_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final Set<String> COPIED_HEADERS = Set.of(
+            "content-type", "cache-control", "content-disposition", "content-encoding", "content-language", "expires");
+
+    private final URI endpoint;
+    private final String bucket;
+    private final String region;
+    private final String accessKey;
+    private final String secretKey;
+    private final boolean pathStyle;
+    private final HttpClient client;
+
+    public S3ObjectStorage(@Value("${app.storage.s3.endpoint}") String endpoint,
+                           @Value("${app.storage.s3.bucket}") String bucket,
+                           @Value("${app.storage.s3.region:us-east-1}") String region,
+                           @Value("${app.storage.s3.access-key}") String accessKey,
+                           @Value("${app.storage.s3.secret-key}") String secretKey,
+                           @Value("${app.storage.s3.path-style:true}") boolean pathStyle) {
+        this.endpoint = URI.create(endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint);
+        this.bucket = bucket;
+        this.region = region;
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.pathStyle = pathStyle;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        // A fixed-length publisher keeps the body streaming from disk without chunked encoding
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.fromPublisher(
+                HttpRequest.BodyPublishers.ofInputStream(() -> {
+                    try {
+                        return Files.newInputStream(source);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }),
+                Files.size(source));
+        HttpResponse<String> response = send("PUT", key, Map.of(), Map.of("content-type", contentType), body,
+                HttpResponse.BodyHandlers.ofString());
+        expectSuccess(response, "PUT", key);
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        HttpResponse<InputStream> response = send("GET", key, Map.of(), Map.of(),
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() == 404) {
+            response.body().close();
+            throw new NoSuchFileException(key);
+        }
+        if (response.statusCode() / 100 != 2) {
+            response.body().close();
+            throw new IOException("GET " + key + " failed with HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        return lastModified(key) != null;
+    }
+
+    @Override
+    public Instant lastModified(String key) throws IOException {
+        HttpResponse<Void> response = send("HEAD", key, Map.of(), Map.of(),
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return null;
+        }
+        expectSuccess(response, "HEAD", key);
+        return response.headers().firstValue("last-modified")
+                .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant())
+                .orElse(Instant.now());
+    }
+
+    // S3 objects cannot change their timestamp in place; copying onto itself renews it. A self-copy
+    // must REPLACE the metadata, so the stored content type and user metadata are sent back with it.
+    @Override
+    public void touch(String key) throws IOException {
+        HttpResponse<Void> head = send("HEAD", key, Map.of(), Map.of(),
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.discarding());
+        expectSuccess(head, "HEAD", key);
+        Map<String, String> headers = new TreeMap<>();
+        head.headers().map().forEach((name, values) -> {
+            String header = name.toLowerCase(Locale.ROOT);
+            if (COPIED_HEADERS.contains(header) || header.startsWith("x-amz-meta-")) {
+                headers.put(header, String.join(",", values));
+            }
+        });
+        headers.put("x-amz-copy-source", "/" + bucket + "/" + encodePath(key));
+        headers.put("x-amz-metadata-directive", "REPLACE");
+        HttpResponse<String> response = send("PUT", key, Map.of(), headers,
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofString());
+        expectSuccess(response, "COPY", key);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        HttpResponse<String> response = send("DELETE", key, Map.of(), Map.of(),
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 404) {
+            expectSuccess(response, "DELETE", key);
+        }
+    }
+
+    @Override
+    public List<String> list(String prefix) throws IOException {
+        List<String> keys = new ArrayList<>();
+        String token = null;
+        do {
+            Map<String, String> query = new TreeMap<>();
+            query.put("list-type", "2");
+            query.put("prefix", prefix);
+            query.put("delimiter", "/");
+            if (token != null) {
+                query.put("continuation-token", token);
+            }
+            HttpResponse<String> response = send("GET", "", query, Map.of(),
+                    HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofString());
+            expectSuccess(response, "LIST", prefix);
+            Document document = parseXml(response.body());
+            NodeList contents = document.getElementsByTagName("Contents");
+            for (int i = 0; i < contents.getLength(); i++) {
+                keys.add(((Element) contents.item(i)).getElementsByTagName("Key").item(0).getTextContent());
+            }
+            boolean truncated = "true".equals(text(document, "IsTruncated"));
+            token = truncated ? text(document, "NextContinuationToken") : null;
+        } while (token != null);
+        return keys;
+    }
+
+    @Override
+    public Path localPath(String key) {
+        return null;
+    }
+
+    @Override
+    public URI presignedUrl(String key, Duration ttl) {
+        return presignedUrl(key, ttl, ZonedDateTime.now(ZoneOffset.UTC));
+    }
+
+    URI presignedUrl(String key, Duration ttl, ZonedDateTime now) {
+        String amzDate = AMZ_DATE.format(now);
+        String scope = SCOPE_DATE.format(now) + "/" + region + "/s3/aws4_request";
+        URI uri = objectUri(key);
+        Map<String, String> query = new TreeMap<>();
+        query.put("X-Amz-Algorithm", "AWS4-HMAC-SHA256");
+        query.put("X-Amz-Credential", accessKey + "/" + scope);
+        query.put("X-Amz-Date", amzDate);
+        query.put("X-Amz-Expires", Long.toString(ttl.toSeconds()));
+        query.put("X-Amz-SignedHeaders", "host");
+        String canonicalQuery = canonicalQuery(query);
+        String canonicalRequest = "GET\n" + uri.getRawPath() + "\n" + canonicalQuery + "\n"
+                + "host:" + hostHeader(uri) + "\n\nhost\n" + UNSIGNED_PAYLOAD;
+        String signature = sign(now, scope, amzDate, canonicalRequest);
+        return URI.create(uri + "?" + canonicalQuery + "&X-Amz-Signature=" + signature);
+    }
+
+    private <T> HttpResponse<T> send(String method,
+                                     String key,
+                                     Map<String, String> query,
+                                     Map<String, String> extraHeaders,
+                                     HttpRequest.BodyPublisher body,
+                                     HttpResponse.BodyHandler<T> handler) throws IOException {
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        String amzDate = AMZ_DATE.format(now);
+        String scope = SCOPE_DATE.format(now) + "/" + region + "/s3/aws4_request";
+        URI base = key.isEmpty() ? bucketUri() : objectUri(key);
+        String canonicalQuery = canonicalQuery(query);
+        URI uri = canonicalQuery.isEmpty() ? base : URI.create(base + "?" + canonicalQuery);
+
+        Map<String, String> headers = new TreeMap<>();
+        headers.put("host", hostHeader(uri));
+        headers.put("x-amz-content-sha256", UNSIGNED_PAYLOAD);
+        headers.put("x-amz-date", amzDate);
+        extraHeaders.forEach((name, value) -> headers.put(name.toLowerCase(), value));
+        String signedHeaders = String.join(";", headers.keySet());
+        String canonicalHeaders = headers.entrySet().stream()
+                .map(entry -> entry.getKey() + ":" + entry.getValue().trim() + "\n")
+                .collect(Collectors.joining());
+        String canonicalRequest = method + "\n" + base.getRawPath() + "\n" + canonicalQuery + "\n"
+                + canonicalHeaders + "\n" + signedHeaders + "\n" + UNSIGNED_PAYLOAD;
+        String authorization = "AWS4-HMAC-SHA256 Credential=" + accessKey + "/" + scope
+                + ", SignedHeaders=" + signedHeaders
+                + ", Signature=" + sign(now, scope, amzDate, canonicalRequest);
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .method(method, body)
+                .header("Authorization", authorization);
+        // The client sets Host itself from the URI, which is what was signed above
+        headers.forEach((name, value) -> {
+            if (!name.equals("host")) {
+                request.header(name, value);
+            }
+        });
+        try {
+            return client.send(request.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calling object storage", e);
+        }
+    }
+
+    String sign(ZonedDateTime now, String scope, String amzDate, String canonicalRequest) {
+        try {
+            String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope + "\n"
+                    + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+            byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), SCOPE_DATE.format(now));
+            key = hmac(key, region);
+            key = hmac(key, "s3");
+            key = hmac(key, "aws4_request");
+            return HexFormat.of().formatHex(hmac(key, stringToSign));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign object storage request", e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String data) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Path-style addressing works against MinIO and other stand-ins without DNS per bucket
+    private URI bucketUri() {
+        if (pathStyle) {
+            return URI.create(endpoint + "/" + bucket + "/");
+        }
+        return URI.create(endpoint.getScheme() + "://" + bucket + "." + endpoint.getRawAuthority()
+                + (endpoint.getRawPath() != null ? endpoint.getRawPath() : "") + "/");
+    }
+
+    private URI objectUri(String key) {
+        return URI.create(bucketUri() + encodePath(key));
+    }
+
+    private static String hostHeader(URI uri) {
+        return uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+    }
+
+    static String canonicalQuery(Map<String, String> query) {
+        return new TreeMap<>(query).entrySet().stream()
+                .map(entry -> encode(entry.getKey()) + "=" + encode(entry.getValue()))
+                .collect(Collectors.joining("&"));
+    }
+
+    static String encodePath(String key) {
+        return List.of(key.split("/", -1)).stream()
+                .map(S3ObjectStorage::encode)
+                .collect(Collectors.joining("/"));
+    }
+
+    // RFC 3986 unreserved characters stay as they are, as SigV4 requires
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8)
+                .replace("+", "%20")
+                .replace("*", "%2A")
+                .replace("%7E", "~");
+    }
+
+    private static void expectSuccess(HttpResponse<?> response, String operation, String key) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException(operation + " " + key + " failed with HTTP " + response.statusCode());
+        }
+    }
+
+    private static Document parseXml(String xml) throws IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder()
+                    .parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IOException("Could not parse object storage listing", e);
+        }
+    }
+
+    private static String text(Document document, String tag) {
+        NodeList nodes = document.getElementsByTagName(tag);
+        return nodes.getLength() > 0 ? nodes.item(0).getTextContent() : null;
+    }
+}
@@ -0,0 +1,39 @@
+-- One-time backfill of conversations and unread counters from messages stored before threads existed.
+-- Only messages without a conversation are touched, and counters only while the table is still empty;
+-- afterwards MessageService maintains both.
+
+INSERT INTO conversations (first_user_id, second_user_id, last_message_at, last_message_id, last_sender_id,
+                           last_message_preview, unread_by_first, unread_by_second)
+SELECT DISTINCT ON (least(m.sender_id, m.recipient_id), greatest(m.sender_id, m.recipient_id))
+       least(m.sender_id, m.recipient_id),
+       greatest(m.sender_id, m.recipient_id),
+       m.sent_date,
+       m.message_id,
+       m.sender_id,
+       left(m.content, 200),
+       count(*) FILTER (WHERE NOT m.is_read AND m.recipient_id = least(m.sender_id, m.recipient_id))
+           OVER (PARTITION BY least(m.sender_id, m.recipient_id), greatest(m.sender_id, m.recipient_id)),
+       count(*) FILTER (WHERE NOT m.is_read AND m.recipient_id = greatest(m.sender_id, m.recipient_id))
+           OVER (PARTITION BY least(m.sender_id, m.recipient_id), greatest(m.sender_id, m.recipient_id))
+FROM messages m
+WHERE m.conversation_id IS NULL
+  AND m.sender_id IS NOT NULL
+  AND m.recipient_id IS NOT NULL
+  AND m.sender_id <> m.recipient_id
+ORDER BY least(m.sender_id, m.recipient_id), greatest(m.sender_id, m.recipient_id), m.sent_date DESC, m.message_id DESC
+ON CONFLICT (first_user_id, second_user_id) DO NOTHING;
+
+UPDATE messages m
+SET conversation_id = c.conversation_id
+FROM conversations c
+WHERE m.conversation_id IS NULL
+  AND c.first_user_id = least(m.sender_id, m.recipient_id)
+  AND c.second_user_id = greatest(m.sender_id, m.recipient_id);
+
+INSERT INTO inbox_counters (user_id, unread_count)
+SELECT m.recipient_id, count(*)
+FROM messages m
+WHERE NOT m.is_read
+  AND m.recipient_id IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM inbox_counters)
+GROUP BY m.recipient_id;
@@ -0,0 +1,11 @@
+-- Orders, order items and transactions moved from IDENTITY to pooled sequences so inserts can be batched.
+-- Move each sequence past ids already issued by the old identity columns; a no-op once it is ahead.
+
+SELECT setval('orders_seq', (SELECT max(order_id) FROM orders))
+WHERE (SELECT max(order_id) FROM orders) >= (SELECT last_value FROM orders_seq);
+
+SELECT setval('order_items_seq', (SELECT max(order_item_id) FROM order_items))
+WHERE (SELECT max(order_item_id) FROM order_items) >= (SELECT last_value FROM order_items_seq);
+
+SELECT setval('transactions_seq', (SELECT max(transaction_id) FROM transactions))
+WHERE (SELECT max(transaction_id) FROM transactions) >= (SELECT last_value FROM transactions_seq);
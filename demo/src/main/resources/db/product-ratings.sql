@@ -0,0 +1,24 @@
+-- One-time backfill of the product and farmer rating aggregates from existing reviews.
+-- Each statement only runs while no row has a rating yet; afterwards ReviewService maintains them.
+
+UPDATE products p
+SET rating_sum = r.rating_sum,
+    rating_count = r.rating_count,
+    rating_average = r.rating_sum::double precision / r.rating_count
+FROM (SELECT product_id, sum(rating) AS rating_sum, count(*) AS rating_count
+      FROM reviews
+      WHERE product_id IS NOT NULL
+      GROUP BY product_id) r
+WHERE p.product_id = r.product_id
+  AND NOT EXISTS (SELECT 1 FROM products WHERE rating_count > 0);
+
+UPDATE farmers f
+SET rating_sum = r.rating_sum,
+    rating_count = r.rating_count,
+    rating = r.rating_sum::double precision / r.rating_count
+FROM (SELECT p.farmer_id, sum(rv.rating) AS rating_sum, count(*) AS rating_count
+      FROM reviews rv
+      JOIN products p ON p.product_id = rv.product_id
+      GROUP BY p.farmer_id) r
+WHERE f.user_id = r.farmer_id
+  AND NOT EXISTS (SELECT 1 FROM farmers WHERE rating_count > 0);
@@ -0,0 +1,22 @@
+-- Full-text and trigram search support for the product catalog.
+-- Runs on startup after Hibernate has updated the schema; every statement is idempotent.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Weighted document: name ranks above category, category above description
+ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(product_name, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(category, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING gin (search_vector);
+
+-- Typo-tolerant name matching (word_similarity / <% operator)
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING gin (product_name gin_trgm_ops);
+
+-- Substring location filter (ILIKE '%...%')
+CREATE INDEX IF NOT EXISTS idx_farmers_location_trgm ON farmers USING gin (location gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_products_category_lower ON products (lower(category));
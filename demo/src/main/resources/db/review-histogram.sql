@@ -0,0 +1,10 @@
+-- One-time backfill of the per-product star histogram from existing reviews.
+-- Only runs while the table is empty; afterwards RatingAggregateService keeps the counts current.
+
+INSERT INTO product_rating_counts (product_id, stars, review_count)
+SELECT product_id, rating, count(*)
+FROM reviews
+WHERE product_id IS NOT NULL
+  AND rating BETWEEN 1 AND 5
+  AND NOT EXISTS (SELECT 1 FROM product_rating_counts)
+GROUP BY product_id, rating;
@@ -0,0 +1,37 @@
+-- One-time backfill of the daily sales rollups from existing orders.
+-- Each statement only runs while its rollup table is still empty; afterwards the order workflow maintains them
+-- through sales_rollup_events. Events left from before the backfill are already counted by it.
+
+DELETE FROM sales_rollup_events
+WHERE NOT EXISTS (SELECT 1 FROM daily_order_status);
+
+INSERT INTO daily_product_sales (sales_date, product_id, quantity, revenue)
+SELECT CAST(o.order_date AS date), oi.product_id, sum(oi.quantity), sum(coalesce(oi.subtotal, 0))
+FROM order_items oi
+JOIN orders o ON o.order_id = oi.order_id
+WHERE NOT EXISTS (SELECT 1 FROM daily_product_sales)
+GROUP BY CAST(o.order_date AS date), oi.product_id;
+
+INSERT INTO daily_farmer_sales (sales_date, farmer_id, revenue)
+SELECT CAST(o.order_date AS date), p.farmer_id, sum(coalesce(oi.subtotal, 0))
+FROM order_items oi
+JOIN orders o ON o.order_id = oi.order_id
+JOIN products p ON p.product_id = oi.product_id
+WHERE NOT EXISTS (SELECT 1 FROM daily_farmer_sales)
+GROUP BY CAST(o.order_date AS date), p.farmer_id;
+
+INSERT INTO daily_category_sales (sales_date, category, revenue)
+SELECT CAST(o.order_date AS date), p.category, sum(coalesce(oi.subtotal, 0))
+FROM order_items oi
+JOIN orders o ON o.order_id = oi.order_id
+JOIN products p ON p.product_id = oi.product_id
+WHERE p.category IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM daily_category_sales)
+GROUP BY CAST(o.order_date AS date), p.category;
+
+INSERT INTO daily_order_status (sales_date, order_status, order_count, revenue)
+SELECT CAST(o.order_date AS date), o.status, count(*), sum(coalesce(o.total_amount, 0))
+FROM orders o
+WHERE o.status IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM daily_order_status)
+GROUP BY CAST(o.order_date AS date), o.status;
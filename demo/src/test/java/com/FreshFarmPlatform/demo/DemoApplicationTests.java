@@ -1,10 +1,9 @@
 package com.FreshFarmPlatform.demo;
 
+import com.FreshFarmPlatform.demo.support.PostgresIntegrationTest;
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
-class DemoApplicationTests {
+class DemoApplicationTests extends PostgresIntegrationTest {
 
 	@Test
 	void contextLoads() {
@@ -0,0 +1,96 @@
+package com.FreshFarmPlatform.demo.benchmark;
+
+import com.FreshFarmPlatform.demo.DemoApplication;
+import com.FreshFarmPlatform.demo.config.JwtService;
+import com.FreshFarmPlatform.demo.model.user.Buyer;
+import com.FreshFarmPlatform.demo.model.user.UserType;
+import com.FreshFarmPlatform.demo.repository.UserRepository;
+import com.FreshFarmPlatform.demo.security.JwtAuthenticationFilter;
+import com.FreshFarmPlatform.demo.security.PlatformUserDetails;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JwtAuthenticationFilter with the principal cache on and off: with it off every
+ * request looks the user up in the database configured in application.properties.
+ * Run with ./benchmarks.sh AuthFilterBenchmark (see README).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AuthFilterBenchmark {
+
+    @Param({"true", "false"})
+    public boolean principalCache;
+
+    private ConfigurableApplicationContext context;
+    private JwtAuthenticationFilter filter;
+    private UserRepository userRepository;
+    private Long userId;
+    private String authorization;
+
+    private final FilterChain chain = (request, response) -> { };
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        // Command-line arguments, so they win over application.properties
+        context = new SpringApplicationBuilder(DemoApplication.class).run(
+                "--app.principal-cache.enabled=" + principalCache,
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN");
+        filter = context.getBean(JwtAuthenticationFilter.class);
+        userRepository = context.getBean(UserRepository.class);
+        String name = "bench-" + UUID.randomUUID().toString().substring(0, 8);
+        Buyer buyer = userRepository.save(Buyer.builder()
+                .username(name)
+                .email(name + "@bench.local")
+                .password("x")
+                .userType(UserType.BUYER)
+                .build());
+        userId = buyer.getUserId();
+        authorization = "Bearer " + context.getBean(JwtService.class).generateToken(new PlatformUserDetails(buyer));
+        if (authenticateRequest() == null) {
+            throw new IllegalStateException("Benchmark token did not authenticate");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        userRepository.deleteById(userId);
+        context.close();
+    }
+
+    @Benchmark
+    public Authentication authenticateRequest() throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", authorization);
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
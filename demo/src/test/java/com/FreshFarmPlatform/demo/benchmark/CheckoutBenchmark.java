@@ -0,0 +1,144 @@
+package com.FreshFarmPlatform.demo.benchmark;
+
+import com.FreshFarmPlatform.demo.DemoApplication;
+import com.FreshFarmPlatform.demo.dto.order.CreateOrderRequest;
+import com.FreshFarmPlatform.demo.dto.order.OrderItemRequest;
+import com.FreshFarmPlatform.demo.dto.order.OrderResponse;
+import com.FreshFarmPlatform.demo.model.product.Product;
+import com.FreshFarmPlatform.demo.model.user.Buyer;
+import com.FreshFarmPlatform.demo.model.user.Farmer;
+import com.FreshFarmPlatform.demo.model.user.UserType;
+import com.FreshFarmPlatform.demo.repository.ProductRepository;
+import com.FreshFarmPlatform.demo.repository.UserRepository;
+import com.FreshFarmPlatform.demo.security.PlatformUserDetails;
+import com.FreshFarmPlatform.demo.service.OrderService;
+import com.FreshFarmPlatform.demo.service.UserDeletionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of OrderService.createOrder for 1, 10 and 50-line orders against the database configured in
+ * application.properties, with the prepared statements (database round trips, a JDBC batch counting once)
+ * per order printed at the end of each trial.
+ * Run with ./benchmarks.sh CheckoutBenchmark (see README).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CheckoutBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int lines;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private Statistics statistics;
+    private Farmer farmer;
+    private Buyer buyer;
+    private CreateOrderRequest request;
+    private long orders;
+
+    @Setup(Level.Trial)
+    public void start() {
+        // Command-line arguments, so they win over application.properties
+        context = new SpringApplicationBuilder(DemoApplication.class).run(
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+                // Rollup events are drained by a background writer; keep it out of the per-order counts
+                "--app.reports.rollup-flush-ms=3600000",
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN");
+        orderService = context.getBean(OrderService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        String name = "bench-" + UUID.randomUUID().toString().substring(0, 8);
+        farmer = userRepository.save(Farmer.builder()
+                .username(name + "-f")
+                .email(name + "-f@bench.local")
+                .password("x")
+                .userType(UserType.FARMER)
+                .farmName(name)
+                .build());
+        buyer = userRepository.save(Buyer.builder()
+                .username(name + "-b")
+                .email(name + "-b@bench.local")
+                .password("x")
+                .userType(UserType.BUYER)
+                .build());
+        List<OrderItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            Product product = productRepository.save(Product.builder()
+                    .productName(name + "-" + i)
+                    .category("Benchmark")
+                    .price(1.0)
+                    .unit("kg")
+                    .quantity(Integer.MAX_VALUE)
+                    .farmer(farmer)
+                    .build());
+            items.add(new OrderItemRequest(product.getProductId(), 1));
+        }
+        request = new CreateOrderRequest(items, "PICKUP", "Farm gate", "CARD", null);
+        PlatformUserDetails principal = new PlatformUserDetails(buyer);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounts() {
+        statistics.clear();
+        orders = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportCounts() {
+        if (orders > 0) {
+            System.out.printf("%n%d-line order: %.1f statements, %.2f flushes per order%n", lines,
+                    (double) statistics.getPrepareStatementCount() / orders,
+                    (double) statistics.getFlushCount() / orders);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        UserDeletionService deletion = context.getBean(UserDeletionService.class);
+        deletion.run(deletion.register(buyer).jobId());
+        context.getBean(JdbcTemplate.class).update("delete from products where farmer_id = ?", farmer.getUserId());
+        deletion.run(deletion.register(farmer).jobId());
+        context.close();
+    }
+
+    @Benchmark
+    public OrderResponse placeOrder() {
+        orders++;
+        return orderService.createOrder(request);
+    }
+}
@@ -0,0 +1,79 @@
+package com.FreshFarmPlatform.demo.benchmark;
+
+import com.FreshFarmPlatform.demo.config.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verification cost per authenticated request: one parse with the shared parser, as
+ * JwtAuthenticationFilter does now, against the earlier three parses that each built a new parser
+ * (username, then subject and expiry inside isTokenValid). No application context is needed.
+ * Run with ./benchmarks.sh JwtParseBenchmark (see README).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtParseBenchmark {
+
+    private static final String SECRET = "FreshFarmSecretKey12345678901234567890";
+
+    private JwtService jwtService;
+    private SecretKey key;
+    private UserDetails user;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void start() {
+        jwtService = new JwtService(SECRET, 86_400_000L);
+        key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        user = User.withUsername("bench-buyer").password("x").roles("BUYER").build();
+        token = jwtService.generateToken(user);
+        if (!parseOnce() || !parseThreeTimes()) {
+            throw new IllegalStateException("Benchmark token did not validate");
+        }
+    }
+
+    @Benchmark
+    public boolean parseOnce() {
+        Claims claims = jwtService.parseClaims(token);
+        return claims.getSubject() != null && jwtService.isTokenValid(claims, user);
+    }
+
+    @Benchmark
+    public boolean parseThreeTimes() {
+        String username = parseWithNewParser().getSubject();
+        return username != null
+                && parseWithNewParser().getSubject().equals(user.getUsername())
+                && !parseWithNewParser().getExpiration().before(new Date());
+    }
+
+    // What every claim read used to cost: a parser build plus a full signature check
+    private Claims parseWithNewParser() {
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
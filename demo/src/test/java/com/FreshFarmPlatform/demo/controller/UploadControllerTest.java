@@ -0,0 +1,47 @@
+package com.FreshFarmPlatform.demo.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UploadControllerTest {
+
+    private static final long LENGTH = 1000;
+
+    @Test
+    void aClosedRangeIsClampedToTheFile() {
+        assertThat(UploadController.parseRange("bytes=0-99", LENGTH)).containsExactly(0, 99);
+        assertThat(UploadController.parseRange("bytes=900-5000", LENGTH)).containsExactly(900, 999);
+    }
+
+    @Test
+    void anOpenEndedRangeRunsToTheLastByte() {
+        assertThat(UploadController.parseRange("bytes=250-", LENGTH)).containsExactly(250, 999);
+        assertThat(UploadController.parseRange("bytes=999-", LENGTH)).containsExactly(999, 999);
+    }
+
+    @Test
+    void aSuffixRangeCountsFromTheEnd() {
+        assertThat(UploadController.parseRange("bytes=-100", LENGTH)).containsExactly(900, 999);
+        assertThat(UploadController.parseRange("bytes=-5000", LENGTH)).containsExactly(0, 999);
+    }
+
+    @Test
+    void unsatisfiableRangesAreRefused() {
+        assertThat(UploadController.parseRange("bytes=1000-", LENGTH)).isNull();
+        assertThat(UploadController.parseRange("bytes=1000-1200", LENGTH)).isNull();
+        assertThat(UploadController.parseRange("bytes=-0", LENGTH)).isNull();
+        assertThat(UploadController.parseRange("bytes=-10", 0)).isNull();
+    }
+
+    @Test
+    void malformedReversedOrMultipleRangesAreIgnored() {
+        assertThat(UploadController.parseRange("bytes=0-1,5-9", LENGTH)).isEmpty();
+        assertThat(UploadController.parseRange("items=0-9", LENGTH)).isEmpty();
+        assertThat(UploadController.parseRange("bytes=abc-9", LENGTH)).isEmpty();
+        assertThat(UploadController.parseRange("bytes=42", LENGTH)).isEmpty();
+        assertThat(UploadController.parseRange("bytes=500-100", LENGTH)).isEmpty();
+        assertThat(UploadController.parseRange("bytes=5-3", LENGTH)).isEmpty();
+        assertThat(UploadController.parseRange("bytes=1200-1100", LENGTH)).isEmpty();
+    }
+}
@@ -0,0 +1,88 @@
+package com.FreshFarmPlatform.demo.dto.paging;
+
+import com.FreshFarmPlatform.demo.dto.message.MessageCursor;
+import com.FreshFarmPlatform.demo.dto.product.ProductCursor;
+import com.FreshFarmPlatform.demo.dto.product.ProductResponse;
+import com.FreshFarmPlatform.demo.dto.product.ProductSort;
+import com.FreshFarmPlatform.demo.dto.review.ReviewCursor;
+import com.FreshFarmPlatform.demo.dto.review.ReviewResponse;
+import com.FreshFarmPlatform.demo.dto.review.ReviewSort;
+import com.FreshFarmPlatform.demo.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    private static final LocalDateTime POSTED = LocalDateTime.of(2024, 3, 9, 14, 30, 5, 123_456_000);
+
+    @Test
+    void tokensAreUrlSafeWithoutPadding() {
+        String token = KeysetCursor.encode(POSTED, 42L);
+
+        assertThat(token).doesNotContain("=", "+", "/");
+        assertThat(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8))
+                .isEqualTo("2024-03-09T14:30:05.123456|42");
+    }
+
+    @Test
+    void missingTokensStartFromTheBeginning() {
+        assertThat(KeysetCursor.decode(null, "start", (position, id) -> position)).isEqualTo("start");
+        assertThat(KeysetCursor.decode("  ", "start", (position, id) -> position)).isEqualTo("start");
+        assertThat(ProductCursor.decode(null, ProductSort.OLDEST)).isEqualTo(ProductCursor.start(ProductSort.OLDEST));
+        assertThat(ReviewCursor.decode("", ReviewSort.LOWEST)).isEqualTo(ReviewCursor.start(ReviewSort.LOWEST));
+        assertThat(MessageCursor.decode(null).id()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void productCursorsRoundTripForEachSort() {
+        ProductResponse last = new ProductResponse(7L, "Kale", "Greens", null, 2.5, "kg", 3, null, null,
+                true, null, POSTED, 1L, "Farm", "Here", 4.25, 8, 4.0);
+
+        assertThat(ProductCursor.decode(ProductCursor.encode(last, ProductSort.NEWEST), ProductSort.NEWEST))
+                .isEqualTo(new ProductCursor(POSTED, null, 7L));
+        assertThat(ProductCursor.decode(ProductCursor.encode(last, ProductSort.TOP_RATED), ProductSort.TOP_RATED))
+                .isEqualTo(new ProductCursor(null, 4.25, 7L));
+    }
+
+    @Test
+    void reviewAndMessageCursorsRoundTrip() {
+        ReviewResponse last = new ReviewResponse(11L, 7L, 3L, 5, "Fresh", POSTED, "buyer");
+
+        assertThat(ReviewCursor.decode(ReviewCursor.encode(last, ReviewSort.NEWEST), ReviewSort.NEWEST))
+                .isEqualTo(new ReviewCursor(POSTED, null, 11L));
+        assertThat(ReviewCursor.decode(ReviewCursor.encode(last, ReviewSort.HIGHEST), ReviewSort.HIGHEST))
+                .isEqualTo(new ReviewCursor(null, 5, 11L));
+        assertThat(MessageCursor.decode(MessageCursor.encode(POSTED, 99L)))
+                .isEqualTo(new MessageCursor(POSTED, 99L));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", "bm8tc2VwYXJhdG9y", "MjAyNC0xMy00MHwx", "MjAyNC0wMy0wOVQxNDozMHxhYmM", "fA"})
+    void malformedTokensAreBadRequests(String token) {
+        // not Base64, "no-separator", "2024-13-40|1", "2024-03-09T14:30|abc", "|"
+        assertThatThrownBy(() -> MessageCursor.decode(token))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void aPositionOfTheWrongTypeIsABadRequest() {
+        String dateToken = KeysetCursor.encode(POSTED, 7L);
+        String ratingToken = KeysetCursor.encode(4.5, 7L);
+
+        assertThatThrownBy(() -> ProductCursor.decode(dateToken, ProductSort.TOP_RATED))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> ProductCursor.decode(ratingToken, ProductSort.NEWEST))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> ReviewCursor.decode(ratingToken, ReviewSort.HIGHEST))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
@@ -0,0 +1,40 @@
+package com.FreshFarmPlatform.demo.dto.paging;
+
+import com.FreshFarmPlatform.demo.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetPageTest {
+
+    @Test
+    void theExtraRowOnlySignalsAnotherPage() {
+        KeysetPage<String> page = KeysetPage.of(List.of(1, 2, 3), 2, String::valueOf, last -> "after-" + last);
+
+        assertThat(page.items()).containsExactly("1", "2");
+        assertThat(page.hasMore()).isTrue();
+        assertThat(page.nextCursor()).isEqualTo("after-2");
+    }
+
+    @Test
+    void theLastPageHasNoCursor() {
+        KeysetPage<String> page = KeysetPage.of(List.of(1, 2), 2, String::valueOf, last -> "after-" + last);
+
+        assertThat(page.items()).containsExactly("1", "2");
+        assertThat(page.hasMore()).isFalse();
+        assertThat(page.nextCursor()).isNull();
+        assertThat(KeysetPage.of(List.of(), 2, String::valueOf, last -> last).items()).isEmpty();
+    }
+
+    @Test
+    void pageSizesDefaultAndAreBounded() {
+        assertThat(KeysetPage.resolvePageSize(null)).isEqualTo(KeysetPage.DEFAULT_PAGE_SIZE);
+        assertThat(KeysetPage.resolvePageSize(KeysetPage.MAX_PAGE_SIZE)).isEqualTo(KeysetPage.MAX_PAGE_SIZE);
+        assertThatThrownBy(() -> KeysetPage.resolvePageSize(0)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> KeysetPage.resolvePageSize(KeysetPage.MAX_PAGE_SIZE + 1))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
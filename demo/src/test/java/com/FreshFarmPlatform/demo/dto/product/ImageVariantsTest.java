@@ -0,0 +1,41 @@
+package com.FreshFarmPlatform.demo.dto.product;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageVariantsTest {
+
+    private static final String HASHED = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08.png";
+
+    @Test
+    void uploadsGetOneUrlPerVariant() {
+        ImageVariants variants = ImageVariants.forImage("/uploads/" + HASHED);
+
+        assertThat(variants.thumbnail()).isEqualTo("/uploads/variants/" + HASHED + "-thumb.jpg");
+        assertThat(variants.card()).isEqualTo("/uploads/variants/" + HASHED + "-card.jpg");
+        assertThat(variants.full()).isEqualTo("/uploads/variants/" + HASHED + "-full.jpg");
+    }
+
+    @Test
+    void externalOrMissingImagesHaveNoVariants() {
+        assertThat(ImageVariants.forImage(null)).isNull();
+        assertThat(ImageVariants.forImage("https://cdn.example.com/kale.png")).isNull();
+        assertThat(ImageVariants.forImage("/uploads/")).isNull();
+        assertThat(ImageVariants.forImage("/uploads/variants/" + HASHED)).isNull();
+    }
+
+    @Test
+    void variantNamesMapBackToTheirOriginal() {
+        assertThat(ImageVariants.originalFilename(ImageVariants.variantFilename(HASHED, "card"))).isEqualTo(HASHED);
+        assertThat(ImageVariants.originalFilename("legacy-photo-name.jpg-thumb.jpg")).isEqualTo("legacy-photo-name.jpg");
+    }
+
+    @Test
+    void namesThatAreNotVariantsHaveNoOriginal() {
+        assertThat(ImageVariants.originalFilename(HASHED)).isNull();
+        assertThat(ImageVariants.originalFilename("-thumb.jpg")).isNull();
+        assertThat(ImageVariants.originalFilename(HASHED + ".undecodable")).isNull();
+        assertThat(ImageVariants.originalFilename("nested/" + HASHED + "-thumb.jpg")).isNull();
+    }
+}
@@ -0,0 +1,41 @@
+package com.FreshFarmPlatform.demo.dto.product;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchFilterTest {
+
+    @Test
+    void wordsBecomePrefixTermsJoinedWithAnd() {
+        assertThat(keyword("Sweet Pot").tsQuery()).isEqualTo("sweet:* & pot:*");
+        assertThat(keyword("  kale  ").tsQuery()).isEqualTo("kale:*");
+    }
+
+    @Test
+    void tsquerySyntaxInTheKeywordIsStripped() {
+        assertThat(keyword("apple & !pear | (plum:*) <-> 'fig'").tsQuery())
+                .isEqualTo("apple:* & pear:* & plum:* & fig:*");
+        assertThat(keyword("o'brien's farm\\").tsQuery()).isEqualTo("o:* & brien:* & s:* & farm:*");
+    }
+
+    @Test
+    void lettersAndDigitsOfAnyScriptSurvive() {
+        assertThat(keyword("Jalapeño 2kg").tsQuery()).isEqualTo("jalapeño:* & 2kg:*");
+        assertThat(keyword("ÄPFEL").tsQuery()).isEqualTo("äpfel:*");
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"", "   ", "&|!", "  ():* <-> '' "})
+    void blankOrSymbolOnlyKeywordsMatchEverything(String value) {
+        assertThat(keyword(value).tsQuery()).isNull();
+    }
+
+    private static ProductSearchFilter keyword(String keyword) {
+        return ProductSearchFilter.of(keyword, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,137 @@
+package com.FreshFarmPlatform.demo.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginAttemptLimiterTest {
+
+    private static final long WINDOW_SECONDS = 10;
+
+    private final MutableClock clock = new MutableClock();
+    private final LoginAttemptLimiter limiter = new LoginAttemptLimiter(WINDOW_SECONDS, 4, 6, 1000, clock);
+
+    @Test
+    void refusesAUsernameOnceItsLimitIsReachedWhateverTheCase() {
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire(i % 2 == 0 ? "alice" : "ALICE", "10.0.0." + i)).isTrue();
+        }
+
+        assertThat(limiter.tryAcquire("Alice", "10.0.0.9")).isFalse();
+        assertThat(limiter.tryAcquire("bob", "10.0.0.9")).isTrue();
+    }
+
+    @Test
+    void refusesAnAddressAcrossUsernames() {
+        for (int i = 0; i < 6; i++) {
+            assertThat(limiter.tryAcquire("user" + i, "203.0.113.7")).isTrue();
+        }
+
+        assertThat(limiter.tryAcquire("someone-else", "203.0.113.7")).isFalse();
+        assertThat(limiter.tryAcquire("someone-else", "203.0.113.8")).isTrue();
+    }
+
+    @Test
+    void resetClearsTheUsernameButNotTheAddress() {
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire("alice", "203.0.113.7");
+        }
+        limiter.reset("ALICE");
+
+        assertThat(limiter.tryAcquire("alice", "198.51.100.1")).isTrue();
+        assertThat(limiter.tryAcquire("carol", "203.0.113.7")).isTrue();
+        assertThat(limiter.tryAcquire("dave", "203.0.113.7")).isTrue();
+        assertThat(limiter.tryAcquire("erin", "203.0.113.7")).isFalse();
+    }
+
+    @Test
+    void previousWindowCountsInProportionToItsOverlap() {
+        clock.set(WINDOW_SECONDS * 1000 * 100);
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire("alice", null)).isTrue();
+        }
+        assertThat(limiter.tryAcquire("alice", null)).isFalse();
+
+        // Halfway into the next window the full previous window still weighs 4 * 0.5 = 2 attempts
+        clock.advance(WINDOW_SECONDS * 1000 * 3 / 2);
+        assertThat(limiter.tryAcquire("alice", null)).isTrue();
+        assertThat(limiter.tryAcquire("alice", null)).isTrue();
+        assertThat(limiter.tryAcquire("alice", null)).isFalse();
+
+        // Two windows later nothing is left
+        clock.advance(WINDOW_SECONDS * 1000 * 2);
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire("alice", null)).isTrue();
+        }
+    }
+
+    @Test
+    void missingUsernameAndAddressAreNotLimited() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(limiter.tryAcquire(null, null)).isTrue();
+        }
+    }
+
+    @Test
+    void aFloodOfNewKeysStaysWithinTheCap() {
+        for (int i = 0; i < 5000; i++) {
+            limiter.tryAcquire("flood" + i, "198.51.100." + (i % 200));
+        }
+
+        assertThat(limiter.trackedKeys()).isEqualTo(1000);
+        // The most recently tried keys are the ones kept
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("flood4999", null)).isTrue();
+        }
+        assertThat(limiter.tryAcquire("flood4999", null)).isFalse();
+    }
+
+    @Test
+    void keysIdleForTwoWindowsArePurged() {
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire("user" + i, null);
+        }
+        clock.advance(WINDOW_SECONDS * 1000 * 3);
+
+        limiter.tryAcquire("alice", null);
+
+        assertThat(limiter.trackedKeys()).isEqualTo(1);
+    }
+
+    private static final class MutableClock extends Clock {
+        private long millis;
+
+        void set(long millis) {
+            this.millis = millis;
+        }
+
+        void advance(long millis) {
+            this.millis += millis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
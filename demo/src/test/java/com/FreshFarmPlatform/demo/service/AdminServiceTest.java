@@ -0,0 +1,171 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.dto.admin.ReportBucketResponse;
+import com.FreshFarmPlatform.demo.dto.admin.ReportGranularity;
+import com.FreshFarmPlatform.demo.dto.admin.ReportResponse;
+import com.FreshFarmPlatform.demo.dto.auth.LoginRequest;
+import com.FreshFarmPlatform.demo.model.order.Order;
+import com.FreshFarmPlatform.demo.model.order.OrderStatus;
+import com.FreshFarmPlatform.demo.model.user.Admin;
+import com.FreshFarmPlatform.demo.model.user.Buyer;
+import com.FreshFarmPlatform.demo.model.user.User;
+import com.FreshFarmPlatform.demo.model.user.UserType;
+import com.FreshFarmPlatform.demo.repository.OrderRepository;
+import com.FreshFarmPlatform.demo.security.PlatformUserDetails;
+import com.FreshFarmPlatform.demo.security.TokenRevocationList;
+import com.FreshFarmPlatform.demo.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class AdminServiceTest extends PostgresIntegrationTest {
+
+    private static final String PASSWORD = "s3cret-pass";
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void deactivatedUserCannotLogInUntilReactivated() {
+        Admin admin = admin();
+        Buyer buyer = buyerWithPassword();
+        assertThat(authService.login(new LoginRequest(buyer.getUsername(), PASSWORD), "192.0.2.1").token()).isNotBlank();
+        Date issuedBefore = new Date(System.currentTimeMillis() - 1000);
+        signIn(admin);
+
+        assertThat(adminService.deactivateUser(buyer.getUserId()).active()).isFalse();
+
+        assertThat(revocationList.isRevoked(buyer.getUserId(), issuedBefore)).isTrue();
+        assertThatThrownBy(() -> authService.login(new LoginRequest(buyer.getUsername(), PASSWORD), "192.0.2.1"))
+                .isInstanceOf(DisabledException.class);
+
+        assertThat(adminService.activateUser(buyer.getUserId()).active()).isTrue();
+        assertThat(authService.login(new LoginRequest(buyer.getUsername(), PASSWORD), "192.0.2.1").token()).isNotBlank();
+
+        userRepository.delete(buyer);
+        userRepository.delete(admin);
+    }
+
+    @Test
+    void revocationInsideARolledBackTransactionRevokesNothing() {
+        Buyer buyer = buyer();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            revocationList.revokeUser(buyer.getUserId());
+            // Not yet: a token issued now is still older than the (uncommitted) revocation will be
+            assertThat(revocationList.isRevoked(buyer.getUserId(), new Date())).isFalse();
+            status.setRollbackOnly();
+        });
+
+        assertThat(revocationList.isRevoked(buyer.getUserId(), new Date(0))).isFalse();
+        userRepository.delete(buyer);
+    }
+
+    @Test
+    void presetReportSeriesCoversTheSameWholeDaysAsItsTotals() {
+        Admin admin = admin();
+        Buyer buyer = buyer();
+        signIn(admin);
+        salesRollupService.flush();
+        ReportResponse before = adminService.generateReport("WEEKLY", null, null, ReportGranularity.DAY);
+
+        // Early on the first day of the week: inside the rollup days, but before "now minus a week"
+        LocalDate firstDay = LocalDate.now().minusWeeks(1);
+        Order order = transactionTemplate.execute(status -> {
+            Order placed = orderRepository.save(Order.builder()
+                    .buyer(buyer)
+                    .orderDate(firstDay.atStartOfDay().plusMinutes(1))
+                    .status(OrderStatus.PENDING)
+                    .totalAmount(7.5)
+                    .build());
+            salesRollupService.recordPlaced(placed);
+            return placed;
+        });
+        salesRollupService.flush();
+        ReportResponse after = adminService.generateReport("WEEKLY", null, null, ReportGranularity.DAY);
+
+        assertThat(after.from()).isEqualTo(firstDay.atStartOfDay());
+        assertThat(after.to()).isEqualTo(LocalDate.now().plusDays(1).atStartOfDay());
+        assertThat(after.totalOrders() - before.totalOrders()).isEqualTo(1);
+        assertThat(seriesOrders(after) - seriesOrders(before)).isEqualTo(1);
+        assertThat(seriesRevenue(after) - seriesRevenue(before)).isCloseTo(7.5, within(0.001));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            salesRollupService.ordersRemoved(List.of(order.getOrderId()));
+            orderRepository.deleteByIds(List.of(order.getOrderId()));
+        });
+        userRepository.delete(buyer);
+        userRepository.delete(admin);
+    }
+
+    private static long seriesOrders(ReportResponse report) {
+        return report.revenueSeries().stream().mapToLong(ReportBucketResponse::orderCount).sum();
+    }
+
+    private static double seriesRevenue(ReportResponse report) {
+        return report.revenueSeries().stream().mapToDouble(ReportBucketResponse::revenue).sum();
+    }
+
+    private void signIn(User user) {
+        PlatformUserDetails principal = new PlatformUserDetails(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private Admin admin() {
+        String name = uniqueName("admin");
+        return userRepository.save(Admin.builder()
+                .username(name)
+                .email(name + "@test.local")
+                .password("x")
+                .userType(UserType.ADMIN)
+                .role("SUPPORT")
+                .build());
+    }
+
+    private Buyer buyerWithPassword() {
+        String name = uniqueName("buyer");
+        return userRepository.save(Buyer.builder()
+                .username(name)
+                .email(name + "@test.local")
+                .password(passwordEncoder.encode(PASSWORD))
+                .userType(UserType.BUYER)
+                .build());
+    }
+}
@@ -0,0 +1,158 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.dto.product.ImageVariants;
+import com.FreshFarmPlatform.demo.dto.product.ProductPageResponse;
+import com.FreshFarmPlatform.demo.model.product.Product;
+import com.FreshFarmPlatform.demo.model.user.Farmer;
+import com.FreshFarmPlatform.demo.storage.FileSystemObjectStorage;
+import com.FreshFarmPlatform.demo.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileStorageServiceTest extends PostgresIntegrationTest {
+
+    private static final long GRACE_SECONDS = 600;
+
+    @TempDir
+    Path root;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ImageDerivativeService imageDerivativeService;
+    private ProductCatalogCache catalogCache;
+    private FileStorageService service;
+    private Farmer farmer;
+    private Product product;
+
+    @BeforeEach
+    void createService() {
+        FileSystemObjectStorage storage = new FileSystemObjectStorage(root.toString());
+        imageDerivativeService = new ImageDerivativeService(storage, 1, 10, 0.8f);
+        catalogCache = new ProductCatalogCache(true, 10, 60);
+        service = new FileStorageService(GRACE_SECONDS, 1, storage, imageDerivativeService,
+                productRepository, catalogCache);
+        farmer = farmer();
+        product = product(farmer, 5);
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        imageDerivativeService.shutdown();
+        productRepository.delete(product);
+        userRepository.delete(farmer);
+    }
+
+    @Test
+    void theSameBytesUploadedTwiceAreStoredOnce() throws Exception {
+        byte[] photo = "beetroot photo".getBytes(StandardCharsets.UTF_8);
+
+        String first = service.store(new MockMultipartFile("file", "beets.PNG", "image/png", photo));
+        String second = service.store(new MockMultipartFile("file", "other-name.png", "image/png", photo));
+
+        assertThat(first).isEqualTo(ImageVariants.UPLOADS_PREFIX + sha256(photo) + ".png");
+        assertThat(second).isEqualTo(first);
+        assertThat(uploads()).containsExactly(sha256(photo) + ".png");
+    }
+
+    @Test
+    void aReleasedFileIsDeletedUnlessItWasReUploadedWithinTheGracePeriod() throws Exception {
+        byte[] kept = "kept".getBytes(StandardCharsets.UTF_8);
+        byte[] dropped = "dropped".getBytes(StandardCharsets.UTF_8);
+        String keptUrl = service.store(new MockMultipartFile("file", "a.png", "image/png", kept));
+        String droppedUrl = service.store(new MockMultipartFile("file", "b.png", "image/png", dropped));
+        ageBeyondGracePeriod(keptUrl);
+        ageBeyondGracePeriod(droppedUrl);
+
+        // Someone uploads the same photo again while its last product is being deleted
+        service.store(new MockMultipartFile("file", "a-again.png", "image/png", kept));
+        service.releaseImages(List.of(keptUrl, droppedUrl));
+
+        assertThat(uploads()).containsExactly(ImageVariants.uploadedFilename(keptUrl));
+    }
+
+    @Test
+    void aReleasedFileStillReferencedByAProductIsKept() throws Exception {
+        String url = service.store(new MockMultipartFile("file", "a.png", "image/png", new byte[]{1, 2, 3}));
+        ageBeyondGracePeriod(url);
+        setImageUrl(product, url);
+
+        service.releaseImages(List.of(url));
+
+        assertThat(uploads()).containsExactly(ImageVariants.uploadedFilename(url));
+    }
+
+    @Test
+    void migrationRenamesByContentMergesDuplicatesAndClearsTheCache() throws Exception {
+        byte[] photo = "carrots".getBytes(StandardCharsets.UTF_8);
+        Files.write(root.resolve("legacy-1.jpg"), photo);
+        Files.write(root.resolve("legacy-2.jpg"), photo);
+        Product other = product(farmer, 5);
+        setImageUrl(product, ImageVariants.UPLOADS_PREFIX + "legacy-1.jpg");
+        setImageUrl(other, ImageVariants.UPLOADS_PREFIX + "legacy-2.jpg");
+        AtomicInteger loads = new AtomicInteger();
+        ProductCatalogCache.Key key = ProductCatalogCache.Key.list(null);
+        catalogCache.get(key, () -> emptyPage(loads));
+
+        int migrated = service.migrateToContentAddressed().get();
+
+        String expected = ImageVariants.UPLOADS_PREFIX + sha256(photo) + ".jpg";
+        assertThat(migrated).isEqualTo(2);
+        assertThat(uploads()).containsExactly(sha256(photo) + ".jpg");
+        assertThat(imageUrl(product)).isEqualTo(expected);
+        assertThat(imageUrl(other)).isEqualTo(expected);
+        catalogCache.get(key, () -> emptyPage(loads));
+        assertThat(loads).hasValue(2);
+
+        productRepository.delete(other);
+    }
+
+    private List<String> uploads() throws Exception {
+        try (var files = Files.list(root)) {
+            return files.filter(Files::isRegularFile)
+                    .map(file -> file.getFileName().toString())
+                    .toList();
+        }
+    }
+
+    private void ageBeyondGracePeriod(String url) throws Exception {
+        Files.setLastModifiedTime(root.resolve(ImageVariants.uploadedFilename(url)),
+                FileTime.from(Instant.now().minus(GRACE_SECONDS + 60, ChronoUnit.SECONDS)));
+    }
+
+    private void setImageUrl(Product target, String url) {
+        jdbcTemplate.update("update products set image_url = ? where product_id = ?", url, target.getProductId());
+    }
+
+    private String imageUrl(Product target) {
+        return jdbcTemplate.queryForObject("select image_url from products where product_id = ?",
+                String.class, target.getProductId());
+    }
+
+    private static ProductPageResponse emptyPage(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new ProductPageResponse(List.of(), null, false);
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
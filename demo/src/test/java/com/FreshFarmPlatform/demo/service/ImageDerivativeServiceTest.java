@@ -0,0 +1,77 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.storage.FileSystemObjectStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageDerivativeServiceTest {
+
+    @TempDir
+    Path root;
+
+    private ImageDerivativeService service;
+
+    @AfterEach
+    void shutDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void undecodableFilesAreRecordedAndSkippedByLaterRuns() throws Exception {
+        service = new ImageDerivativeService(new FileSystemObjectStorage(root.toString()), 1, 10, 0.8f);
+        Files.writeString(root.resolve("notes.png"), "not an image");
+
+        assertThat(service.backfill().get()).isEqualTo(1);
+        awaitFile(root.resolve("variants/notes.png" + ImageDerivativeService.UNDECODABLE_SUFFIX));
+
+        assertThat(service.backfill().get()).isZero();
+    }
+
+    @Test
+    void decodableFilesGetEveryVariantOnce() throws Exception {
+        service = new ImageDerivativeService(new FileSystemObjectStorage(root.toString()), 1, 10, 0.8f);
+        ImageIO.write(new BufferedImage(640, 320, BufferedImage.TYPE_INT_RGB), "png", root.resolve("kale.png").toFile());
+
+        assertThat(service.backfill().get()).isEqualTo(1);
+        awaitFile(root.resolve("variants/kale.png-thumb.jpg"));
+        awaitFile(root.resolve("variants/kale.png-card.jpg"));
+        awaitFile(root.resolve("variants/kale.png-full.jpg"));
+
+        BufferedImage thumbnail = ImageIO.read(root.resolve("variants/kale.png-thumb.jpg").toFile());
+        assertThat(thumbnail.getWidth()).isEqualTo(160);
+        assertThat(thumbnail.getHeight()).isEqualTo(80);
+        assertThat(service.backfill().get()).isZero();
+    }
+
+    @Test
+    void deletingVariantsAlsoForgetsTheMarker() throws Exception {
+        service = new ImageDerivativeService(new FileSystemObjectStorage(root.toString()), 1, 10, 0.8f);
+        Files.writeString(root.resolve("notes.png"), "not an image");
+        service.backfill().get();
+        Path marker = root.resolve("variants/notes.png" + ImageDerivativeService.UNDECODABLE_SUFFIX);
+        awaitFile(marker);
+
+        service.deleteVariants("notes.png");
+
+        assertThat(marker).doesNotExist();
+    }
+
+    private static void awaitFile(Path file) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!Files.exists(file)) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for " + file);
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.dto.order.CreateOrderRequest;
+import com.FreshFarmPlatform.demo.dto.order.OrderItemRequest;
+import com.FreshFarmPlatform.demo.exception.BadRequestException;
+import com.FreshFarmPlatform.demo.model.product.Product;
+import com.FreshFarmPlatform.demo.model.user.Buyer;
+import com.FreshFarmPlatform.demo.model.user.Farmer;
+import com.FreshFarmPlatform.demo.model.user.User;
+import com.FreshFarmPlatform.demo.security.PlatformUserDetails;
+import com.FreshFarmPlatform.demo.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InventoryServiceTest extends PostgresIntegrationTest {
+
+    private static final int CHECKOUTS = 250;
+    private static final int STOCK = 100;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserDeletionService userDeletionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        Farmer farmer = farmer();
+        Product apples = product(farmer, STOCK);
+        Product pears = product(farmer, STOCK);
+        List<Buyer> buyers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            buyers.add(buyer());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(50);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < CHECKOUTS; i++) {
+            Buyer buyer = buyers.get(i % buyers.size());
+            // Half the orders list the products the other way round; the reservation must not deadlock on that
+            List<OrderItemRequest> items = i % 2 == 0
+                    ? List.of(new OrderItemRequest(apples.getProductId(), 1), new OrderItemRequest(pears.getProductId(), 1))
+                    : List.of(new OrderItemRequest(pears.getProductId(), 1), new OrderItemRequest(apples.getProductId(), 1));
+            results.add(pool.submit(() -> {
+                start.await();
+                return checkout(buyer, items);
+            }));
+        }
+        start.countDown();
+        int placed = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(2, TimeUnit.MINUTES)) {
+                placed++;
+            }
+        }
+        pool.shutdown();
+
+        assertThat(placed).isEqualTo(STOCK);
+        assertThat(productRepository.findById(apples.getProductId()).orElseThrow().getQuantity()).isZero();
+        assertThat(productRepository.findById(pears.getProductId()).orElseThrow().getQuantity()).isZero();
+        assertThat(jdbcTemplate.queryForObject("select coalesce(sum(quantity), 0) from order_items where product_id in (?, ?)",
+                Long.class, apples.getProductId(), pears.getProductId())).isEqualTo(2L * STOCK);
+
+        buyers.forEach(this::delete);
+        // Products that were ordered keep their farmer; remove the fixtures directly
+        jdbcTemplate.update("delete from products where farmer_id = ?", farmer.getUserId());
+        userRepository.deleteById(farmer.getUserId());
+    }
+
+    private boolean checkout(Buyer buyer, List<OrderItemRequest> items) {
+        SecurityContextHolder.getContext().setAuthentication(authentication(buyer));
+        try {
+            orderService.createOrder(new CreateOrderRequest(items, "PICKUP", "Farm gate", "CARD", null));
+            return true;
+        } catch (BadRequestException e) {
+            return false;
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private UsernamePasswordAuthenticationToken authentication(User user) {
+        PlatformUserDetails principal = new PlatformUserDetails(user);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    private void delete(User user) {
+        userDeletionService.run(userDeletionService.register(user).jobId());
+    }
+}
@@ -0,0 +1,254 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.dto.message.ConversationPageResponse;
+import com.FreshFarmPlatform.demo.dto.message.ConversationReadResponse;
+import com.FreshFarmPlatform.demo.dto.message.ConversationResponse;
+import com.FreshFarmPlatform.demo.dto.message.MessageRequest;
+import com.FreshFarmPlatform.demo.dto.message.MessageResponse;
+import com.FreshFarmPlatform.demo.exception.ResourceNotFoundException;
+import com.FreshFarmPlatform.demo.model.message.Conversation;
+import com.FreshFarmPlatform.demo.model.user.User;
+import com.FreshFarmPlatform.demo.repository.ConversationRepository;
+import com.FreshFarmPlatform.demo.repository.InboxCounterRepository;
+import com.FreshFarmPlatform.demo.security.PlatformUserDetails;
+import com.FreshFarmPlatform.demo.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MessageServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private InboxCounterRepository inboxCounterRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> users = new ArrayList<>();
+
+    @AfterEach
+    void removeUsers() {
+        SecurityContextHolder.clearContext();
+        users.forEach(user -> {
+            messageService.deleteAllFor(user.getUserId());
+            userRepository.delete(user);
+        });
+    }
+
+    @Test
+    void sendingKeepsTheThreadAndInboxCountersInStep() {
+        User buyer = user(buyer());
+        User farmer = user(farmer());
+
+        send(buyer, farmer, "Are the eggs free range?");
+        send(buyer, farmer, "And how many per box?");
+        MessageResponse reply = send(farmer, buyer, "Yes, twelve per box");
+
+        Conversation conversation = conversation(buyer, farmer);
+        assertThat(inboxCounterRepository.unreadCount(farmer.getUserId())).isEqualTo(2);
+        assertThat(inboxCounterRepository.unreadCount(buyer.getUserId())).isEqualTo(1);
+        assertThat(conversationRepository.unreadFor(conversation.getConversationId(), farmer.getUserId())).isEqualTo(2);
+        assertThat(conversationRepository.unreadFor(conversation.getConversationId(), buyer.getUserId())).isEqualTo(1);
+        assertThat(conversation.getLastMessageId()).isEqualTo(reply.messageId());
+        assertThat(conversation.getLastSenderId()).isEqualTo(farmer.getUserId());
+        assertThat(conversation.getLastMessagePreview()).isEqualTo("Yes, twelve per box");
+    }
+
+    @Test
+    void aMessageCommittedOutOfOrderCountsButDoesNotBecomeTheLastMessage() {
+        User buyer = user(buyer());
+        User farmer = user(farmer());
+        MessageResponse latest = send(buyer, farmer, "Latest");
+        Conversation conversation = conversation(buyer, farmer);
+
+        transactionTemplate.executeWithoutResult(status -> conversationRepository.recordMessage(
+                conversation.getConversationId(), latest.messageId() + 1_000_000, farmer.getUserId(),
+                buyer.getUserId(), "Sent earlier, committed later", latest.sentDate().minusMinutes(1)));
+
+        Conversation after = conversation(buyer, farmer);
+        assertThat(after.getLastMessageId()).isEqualTo(latest.messageId());
+        assertThat(after.getLastMessagePreview()).isEqualTo("Latest");
+        assertThat(after.getLastMessageAt()).isEqualTo(conversation.getLastMessageAt());
+        assertThat(conversationRepository.unreadFor(conversation.getConversationId(), buyer.getUserId())).isEqualTo(1);
+    }
+
+    @Test
+    void inboxCounterNeverDropsBelowZero() {
+        User buyer = user(buyer());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            inboxCounterRepository.add(buyer.getUserId(), -3);
+            inboxCounterRepository.add(buyer.getUserId(), 2);
+            inboxCounterRepository.add(buyer.getUserId(), -5);
+        });
+
+        assertThat(inboxCounterRepository.unreadCount(buyer.getUserId())).isZero();
+    }
+
+    @Test
+    void threadsArePagedNewestFirstAcrossBothSidesOfEachPair() {
+        // Ids grow with creation, so "me" is the second user of two threads and the first of three
+        User lower1 = user(farmer());
+        User lower2 = user(farmer());
+        User me = user(buyer());
+        User higher1 = user(farmer());
+        User higher2 = user(farmer());
+        User higher3 = user(farmer());
+        for (User other : List.of(lower1, lower2, higher1, higher2, higher3)) {
+            send(me, other, "Hello");
+        }
+        send(higher2, me, "Hi back");
+        // Two pairs of ties, each with one thread from either side, so the id breaks them
+        LocalDateTime base = LocalDateTime.of(2001, 1, 1, 12, 0);
+        lastMessageAt(me, lower1, base.plusMinutes(3));
+        lastMessageAt(me, higher1, base.plusMinutes(3));
+        lastMessageAt(me, lower2, base.plusMinutes(2));
+        lastMessageAt(me, higher2, base.plusMinutes(2));
+        lastMessageAt(me, higher3, base.plusMinutes(1));
+        List<Long> expected = List.of(lower1, lower2, higher1, higher2, higher3).stream()
+                .map(other -> conversation(me, other))
+                .sorted(Comparator.comparing(Conversation::getLastMessageAt)
+                        .thenComparing(Conversation::getConversationId)
+                        .reversed())
+                .map(Conversation::getConversationId)
+                .toList();
+
+        signIn(me);
+        for (int size = 1; size <= 3; size++) {
+            List<ConversationResponse> threads = allThreads(size);
+
+            assertThat(threads).extracting(ConversationResponse::conversationId)
+                    .as("page size %d", size)
+                    .containsExactlyElementsOf(expected);
+            assertThat(threads).filteredOn(thread -> thread.otherUserId().equals(higher2.getUserId()))
+                    .singleElement()
+                    .satisfies(thread -> assertThat(thread.unreadCount()).isEqualTo(1));
+            assertThat(threads).filteredOn(thread -> !thread.otherUserId().equals(higher2.getUserId()))
+                    .allSatisfy(thread -> assertThat(thread.unreadCount()).isZero());
+        }
+    }
+
+    @Test
+    void markingReadStopsAtTheWatermarkAndDecrementsBothCounters() {
+        User buyer = user(buyer());
+        User farmer = user(farmer());
+        User other = user(farmer());
+        MessageResponse first = send(farmer, buyer, "Your order is packed");
+        MessageResponse seen = send(farmer, buyer, "Pickup from noon");
+        MessageResponse later = send(farmer, buyer, "Actually from one");
+        send(other, buyer, "Elsewhere");
+        Long conversationId = conversation(buyer, farmer).getConversationId();
+
+        signIn(buyer);
+        ConversationReadResponse read = messageService.markConversationAsRead(conversationId, seen.messageId());
+
+        assertThat(read.markedRead()).isEqualTo(2);
+        assertThat(read.conversationUnread()).isEqualTo(1);
+        assertThat(read.unreadCount()).isEqualTo(2);
+        assertThat(isRead(first)).isTrue();
+        assertThat(isRead(seen)).isTrue();
+        assertThat(isRead(later)).isFalse();
+        assertThat(conversationRepository.unreadFor(conversationId, buyer.getUserId())).isEqualTo(1);
+        assertThat(inboxCounterRepository.unreadCount(buyer.getUserId())).isEqualTo(2);
+        // The sender's own side is untouched
+        assertThat(conversationRepository.unreadFor(conversationId, farmer.getUserId())).isZero();
+    }
+
+    @Test
+    void markingTheSameMessagesReadAgainChangesNothing() {
+        User buyer = user(buyer());
+        User farmer = user(farmer());
+        MessageResponse message = send(farmer, buyer, "Your order is packed");
+        Long conversationId = conversation(buyer, farmer).getConversationId();
+
+        signIn(buyer);
+        messageService.markConversationAsRead(conversationId, message.messageId());
+        ConversationReadResponse repeat = messageService.markConversationAsRead(conversationId, message.messageId());
+
+        assertThat(repeat.markedRead()).isZero();
+        assertThat(repeat.conversationUnread()).isZero();
+        assertThat(repeat.unreadCount()).isZero();
+        assertThat(inboxCounterRepository.unreadCount(buyer.getUserId())).isZero();
+    }
+
+    @Test
+    void onlyParticipantsCanMarkAThreadRead() {
+        User buyer = user(buyer());
+        User farmer = user(farmer());
+        User outsider = user(buyer());
+        MessageResponse message = send(farmer, buyer, "Your order is packed");
+        Long conversationId = conversation(buyer, farmer).getConversationId();
+
+        signIn(outsider);
+
+        assertThatThrownBy(() -> messageService.markConversationAsRead(conversationId, message.messageId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(isRead(message)).isFalse();
+        assertThat(inboxCounterRepository.unreadCount(buyer.getUserId())).isEqualTo(1);
+    }
+
+    private List<ConversationResponse> allThreads(int size) {
+        List<ConversationResponse> threads = new ArrayList<>();
+        String cursor = null;
+        do {
+            ConversationPageResponse page = messageService.myConversations(cursor, size);
+            assertThat(page.items()).hasSizeLessThanOrEqualTo(size);
+            threads.addAll(page.items());
+            cursor = page.hasMore() ? page.nextCursor() : null;
+        } while (cursor != null);
+        return threads;
+    }
+
+    private MessageResponse send(User from, User to, String content) {
+        signIn(from);
+        return messageService.sendMessage(new MessageRequest(to.getUserId(), content));
+    }
+
+    private Conversation conversation(User one, User other) {
+        return conversationRepository.findByFirstUserIdAndSecondUserId(
+                        Math.min(one.getUserId(), other.getUserId()), Math.max(one.getUserId(), other.getUserId()))
+                .orElseThrow();
+    }
+
+    private boolean isRead(MessageResponse message) {
+        return jdbcTemplate.queryForObject("select is_read from messages where message_id = ?",
+                Boolean.class, message.messageId());
+    }
+
+    private void lastMessageAt(User one, User other, LocalDateTime at) {
+        jdbcTemplate.update("update conversations set last_message_at = ? where conversation_id = ?",
+                at, conversation(one, other).getConversationId());
+    }
+
+    private User user(User user) {
+        users.add(user);
+        return user;
+    }
+
+    private void signIn(User user) {
+        PlatformUserDetails principal = new PlatformUserDetails(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
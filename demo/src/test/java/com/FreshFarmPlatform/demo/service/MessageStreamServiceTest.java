@@ -0,0 +1,243 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.dto.message.MessageResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MessageStreamServiceTest {
+
+    private static final long USER = 1L;
+    private static final long OTHER = 2L;
+
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final AtomicLong messageIds = new AtomicLong();
+    private final List<MessageStreamService> services = new ArrayList<>();
+    private CountDownLatch sendGate;
+
+    @AfterEach
+    void shutDown() {
+        if (sendGate != null) {
+            sendGate.countDown();
+        }
+        services.forEach(MessageStreamService::shutdown);
+    }
+
+    @Test
+    void refusesABufferThatCannotHoldAFullReplay() {
+        assertThatThrownBy(() -> new MessageStreamService(100, 100, 10, 5, 30, 120, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("buffer-size");
+    }
+
+    @Test
+    void aReconnectReplaysOnlyWhatItMissed() {
+        MessageStreamService service = service(8, 4, 5, 120);
+        RecordingEmitter first = subscribe(service, null);
+        for (int i = 0; i < 3; i++) {
+            send(service);
+        }
+        awaitEvents(first, 4);
+        assertThat(first.names()).containsExactly("ready", "message", "message", "message");
+
+        RecordingEmitter resumed = subscribe(service, first.ids().get(2));
+
+        awaitEvents(resumed, 1);
+        assertThat(resumed.names()).containsExactly("message");
+        assertThat(resumed.ids()).containsExactly(first.ids().get(3));
+    }
+
+    @Test
+    void eventsPublishedWhileDisconnectedAreReplayedWithinTheWindow() {
+        MessageStreamService service = service(8, 4, 5, 120);
+        RecordingEmitter first = subscribe(service, null);
+        awaitEvents(first, 1);
+        first.disconnect();
+        send(service);
+        send(service);
+        service.heartbeat();
+
+        RecordingEmitter resumed = subscribe(service, first.ids().get(0));
+
+        awaitEvents(resumed, 2);
+        assertThat(resumed.names()).containsExactly("message", "message");
+    }
+
+    @Test
+    void aGapOlderThanTheReplayBufferAsksForAResync() {
+        MessageStreamService service = service(3, 2, 5, 120);
+        RecordingEmitter first = subscribe(service, null);
+        awaitEvents(first, 1);
+        first.disconnect();
+        for (int i = 0; i < 3; i++) {
+            send(service);
+        }
+
+        RecordingEmitter stale = subscribe(service, first.ids().get(0));
+        RecordingEmitter foreign = subscribe(service, "otherepoch-1");
+
+        awaitEvents(stale, 1);
+        awaitEvents(foreign, 1);
+        assertThat(stale.names()).containsExactly("resync");
+        assertThat(foreign.names()).containsExactly("resync");
+    }
+
+    @Test
+    void idleInboxesAreForgottenAfterTheReplayWindow() throws InterruptedException {
+        MessageStreamService service = service(8, 4, 5, 0);
+        RecordingEmitter first = subscribe(service, null);
+        awaitEvents(first, 1);
+        first.disconnect();
+        Thread.sleep(5);
+        service.heartbeat();
+        // Nobody holds the inbox any more, so this one is not kept for a replay
+        send(service);
+
+        RecordingEmitter resumed = subscribe(service, first.ids().get(0));
+
+        awaitEvents(resumed, 1);
+        assertThat(resumed.names()).containsExactly("resync");
+    }
+
+    @Test
+    void theOldestTabGivesWayPastThePerUserLimit() {
+        MessageStreamService service = service(8, 4, 2, 120);
+        RecordingEmitter oldest = subscribe(service, null);
+        RecordingEmitter second = subscribe(service, null);
+        RecordingEmitter third = subscribe(service, null);
+
+        assertThat(oldest.completed).isTrue();
+        assertThat(second.completed).isFalse();
+        assertThat(third.completed).isFalse();
+        assertThat(service.openConnections()).isEqualTo(2);
+    }
+
+    @Test
+    void aSlowClientIsDroppedOnceItsBufferIsFull() {
+        MessageStreamService service = service(3, 2, 5, 120);
+        sendGate = new CountDownLatch(1);
+        RecordingEmitter slow = subscribe(service, null);
+
+        for (int i = 0; i < 5 && !slow.completed; i++) {
+            send(service);
+        }
+
+        assertThat(slow.completed).isTrue();
+        assertThat(service.openConnections()).isZero();
+    }
+
+    private MessageStreamService service(int bufferSize, int replaySize, int maxPerUser, long replayWindowSeconds) {
+        MessageStreamService service = new MessageStreamService(
+                bufferSize, replaySize, 100, maxPerUser, 30, replayWindowSeconds, 1) {
+            @Override
+            SseEmitter createEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter(timeoutMillis, sendGate);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        services.add(service);
+        return service;
+    }
+
+    private RecordingEmitter subscribe(MessageStreamService service, String lastEventId) {
+        service.subscribe(USER, lastEventId);
+        return emitters.get(emitters.size() - 1);
+    }
+
+    private void send(MessageStreamService service) {
+        service.publishMessage(new MessageResponse(messageIds.incrementAndGet(), OTHER, USER, "hello", false,
+                LocalDateTime.now()));
+    }
+
+    private static void awaitEvents(RecordingEmitter emitter, int count) {
+        await(() -> emitter.events.size() >= count);
+        assertThat(emitter.events).hasSize(count);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for stream events");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private record Sent(String id, String name) {
+    }
+
+    /** Records what would be written to the client instead of needing a servlet response. */
+    private static final class RecordingEmitter extends SseEmitter {
+        private static final Pattern ID = Pattern.compile("^id:(.*)$", Pattern.MULTILINE);
+        private static final Pattern NAME = Pattern.compile("^event:(.*)$", Pattern.MULTILINE);
+
+        private final List<Sent> events = new CopyOnWriteArrayList<>();
+        private final List<Runnable> completionCallbacks = new CopyOnWriteArrayList<>();
+        private final CountDownLatch gate;
+        private volatile boolean completed;
+
+        RecordingEmitter(long timeoutMillis, CountDownLatch gate) {
+            super(timeoutMillis);
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                text.append(part.getData());
+            }
+            Matcher id = ID.matcher(text);
+            Matcher name = NAME.matcher(text);
+            if (name.find()) {
+                events.add(new Sent(id.find() ? id.group(1) : null, name.group(1)));
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void onCompletion(Runnable callback) {
+            completionCallbacks.add(callback);
+        }
+
+        void disconnect() {
+            completionCallbacks.forEach(Runnable::run);
+        }
+
+        List<String> names() {
+            return events.stream().map(Sent::name).toList();
+        }
+
+        List<String> ids() {
+            return events.stream().map(Sent::id).toList();
+        }
+    }
+}
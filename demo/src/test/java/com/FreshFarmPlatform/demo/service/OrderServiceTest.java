@@ -0,0 +1,223 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.dto.cart.AddToCartRequest;
+import com.FreshFarmPlatform.demo.dto.cart.CheckoutRequest;
+import com.FreshFarmPlatform.demo.dto.order.CreateOrderRequest;
+import com.FreshFarmPlatform.demo.dto.order.OrderItemRequest;
+import com.FreshFarmPlatform.demo.dto.order.OrderPageResponse;
+import com.FreshFarmPlatform.demo.dto.order.OrderResponse;
+import com.FreshFarmPlatform.demo.exception.BadRequestException;
+import com.FreshFarmPlatform.demo.model.product.Product;
+import com.FreshFarmPlatform.demo.model.user.Buyer;
+import com.FreshFarmPlatform.demo.model.user.Farmer;
+import com.FreshFarmPlatform.demo.model.user.User;
+import com.FreshFarmPlatform.demo.repository.OrderRepository;
+import com.FreshFarmPlatform.demo.security.PlatformUserDetails;
+import com.FreshFarmPlatform.demo.support.PostgresIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        // Statistics are global; keep the background rollup writer out of the counts
+        "app.reports.rollup-flush-ms=3600000"
+})
+class OrderServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserDeletionService userDeletionService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void orderIsWrittenInOneFlushAndOnlyTheReservationGrowsWithItsLines() {
+        Farmer farmer = farmer();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            products.add(product(farmer, 100));
+        }
+        Buyer buyer = buyer();
+        signIn(buyer);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // The first order of a fresh id block also fetches the next values of the three sequences
+        int[] sizes = {1, 1, 10, 50};
+        long[] statements = new long[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            List<OrderItemRequest> items = products.subList(0, sizes[i]).stream()
+                    .map(product -> new OrderItemRequest(product.getProductId(), 1))
+                    .toList();
+            statistics.clear();
+
+            orderService.createOrder(new CreateOrderRequest(items, "PICKUP", "Farm gate", "CARD", null));
+
+            assertThat(statistics.getFlushCount()).as("flushes for %d lines", sizes[i]).isEqualTo(1);
+            // One conditional UPDATE per product reserves stock
+            statements[i] = statistics.getPrepareStatementCount() - sizes[i];
+        }
+
+        // Everything else is fixed: the buyer, one product lookup and the order, line, transaction and
+        // rollup event insert batches, plus at most one call when the pooled optimizer needs the next block of 50 line ids
+        assertThat(statements[1]).isEqualTo(6);
+        assertThat(statements[2]).isBetween(6L, 7L);
+        assertThat(statements[3]).isBetween(6L, 7L);
+
+        userDeletionService.run(userDeletionService.register(buyer).jobId());
+    }
+
+    @Test
+    void checkoutRetriedWithTheSameKeyReturnsTheFirstOrderAndReservesOnce() {
+        Product product = product(farmer(), 10);
+        Buyer buyer = buyer();
+        signIn(buyer);
+        cartService.addItem(new AddToCartRequest(product.getProductId(), 3));
+
+        OrderResponse first = orderService.checkoutCart(checkout(), "checkout-1");
+        OrderResponse retry = orderService.checkoutCart(checkout(), "checkout-1");
+
+        assertThat(retry.orderId()).isEqualTo(first.orderId());
+        assertThat(orderRepository.findByBuyerUserId(buyer.getUserId())).hasSize(1);
+        assertThat(stockOf(product)).isEqualTo(7);
+
+        userDeletionService.run(userDeletionService.register(buyer).jobId());
+    }
+
+    @Test
+    void concurrentDoubleSubmitIsSerializedIntoOneOrder() throws Exception {
+        Product product = product(farmer(), 10);
+        Buyer buyer = buyer();
+        signIn(buyer);
+        cartService.addItem(new AddToCartRequest(product.getProductId(), 2));
+
+        // Both requests wait on the cart lock; the second then finds the first one's committed order
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<OrderResponse>> submits = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                submits.add(executor.submit(() -> {
+                    signIn(buyer);
+                    try {
+                        start.await();
+                        return orderService.checkoutCart(checkout(), "double-submit");
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                }));
+            }
+            start.countDown();
+
+            assertThat(submits.get(0).get(30, TimeUnit.SECONDS).orderId())
+                    .isEqualTo(submits.get(1).get(30, TimeUnit.SECONDS).orderId());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(orderRepository.findByBuyerUserId(buyer.getUserId())).hasSize(1);
+        assertThat(stockOf(product)).isEqualTo(8);
+
+        userDeletionService.run(userDeletionService.register(buyer).jobId());
+    }
+
+    @Test
+    void blankOrOverlongIdempotencyKeysAreRejected() {
+        Product product = product(farmer(), 10);
+        Buyer buyer = buyer();
+        signIn(buyer);
+        cartService.addItem(new AddToCartRequest(product.getProductId(), 1));
+
+        assertThatThrownBy(() -> orderService.checkoutCart(checkout(), " "))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> orderService.checkoutCart(checkout(), "k".repeat(101)))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(orderRepository.findByBuyerUserId(buyer.getUserId())).isEmpty();
+        assertThat(stockOf(product)).isEqualTo(10);
+
+        userDeletionService.run(userDeletionService.register(buyer).jobId());
+    }
+
+    @Test
+    void farmerOrdersArePagedNewestFirstWithOnlyTheFarmersLines() {
+        Farmer farmer = farmer();
+        Product own = product(farmer, 100);
+        Product neighbours = product(farmer(), 100);
+        Buyer buyer = buyer();
+        signIn(buyer);
+        List<Long> placed = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            placed.add(orderService.createOrder(new CreateOrderRequest(List.of(
+                    new OrderItemRequest(own.getProductId(), 1),
+                    new OrderItemRequest(neighbours.getProductId(), 3)), "PICKUP", "Farm gate", "CARD", null)).orderId());
+        }
+
+        Collections.reverse(placed);
+
+        signIn(farmer);
+        List<OrderResponse> seen = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            OrderPageResponse response = orderService.getFarmerOrdersPage(null, null, null, page, 2);
+            assertThat(response.totalElements()).isEqualTo(5);
+            assertThat(response.totalPages()).isEqualTo(3);
+            seen.addAll(response.items());
+        }
+
+        assertThat(seen).extracting(OrderResponse::orderId).containsExactlyElementsOf(placed);
+        assertThat(seen).allSatisfy(order -> {
+            assertThat(order.items()).hasSize(1);
+            assertThat(order.totalAmount()).isEqualTo(2.5);
+        });
+        assertThat(orderService.getFarmerOrdersPage(null, null, null, 3, 2).items()).isEmpty();
+        assertThatThrownBy(() -> orderService.getFarmerOrdersPage(null, null, null, 0, 101))
+                .isInstanceOf(BadRequestException.class);
+
+        userDeletionService.run(userDeletionService.register(buyer).jobId());
+    }
+
+    private static CheckoutRequest checkout() {
+        return new CheckoutRequest("PICKUP", "Farm gate", "CARD", null, null);
+    }
+
+    private int stockOf(Product product) {
+        return productRepository.findById(product.getProductId()).orElseThrow().getQuantity();
+    }
+
+    private static void signIn(User user) {
+        PlatformUserDetails principal = new PlatformUserDetails(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
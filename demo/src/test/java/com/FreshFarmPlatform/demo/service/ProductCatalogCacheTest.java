@@ -0,0 +1,178 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.dto.product.ProductPageResponse;
+import com.FreshFarmPlatform.demo.dto.product.ProductResponse;
+import com.FreshFarmPlatform.demo.dto.product.ProductSearchFilter;
+import com.FreshFarmPlatform.demo.dto.product.ProductSort;
+import com.FreshFarmPlatform.demo.model.product.ProductStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCatalogCacheTest {
+
+    private static final long TTL_SECONDS = 60;
+    private static final ProductCatalogCache.Key GREENS = ProductCatalogCache.Key.list(filter("Greens"));
+    private static final ProductCatalogCache.Key FRUIT = ProductCatalogCache.Key.list(filter("Fruit"));
+
+    private final MutableClock clock = new MutableClock();
+    private final ProductCatalogCache cache = new ProductCatalogCache(true, 2, TTL_SECONDS, clock);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void servesFromCacheUntilTheTtlRunsOut() {
+        cache.get(GREENS, loader(1L));
+        clock.advance(TTL_SECONDS * 1000 - 1);
+        cache.get(GREENS, loader(1L));
+        assertThat(loads).hasValue(1);
+
+        clock.advance(1);
+        cache.get(GREENS, loader(1L));
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidatesOnlyAfterTheWritingTransactionCommits() {
+        cache.get(GREENS, loader(1L));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.productsRemoved(List.of(1L));
+        cache.get(GREENS, loader(1L));
+        assertThat(loads).hasValue(1);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+        cache.get(GREENS, loader(1L));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void aRolledBackWriteKeepsTheEntry() {
+        cache.get(GREENS, loader(1L));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidateAll();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+        cache.get(GREENS, loader(1L));
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void aLoadThatRacedAnInvalidationIsNotCached() {
+        cache.get(GREENS, () -> {
+            loads.incrementAndGet();
+            cache.productsRemoved(List.of(1L));
+            return page(1L);
+        });
+        cache.get(GREENS, loader(1L));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void aChangedProductEvictsOnlyResultsItCouldAppearIn() {
+        cache.get(GREENS, loader(1L));
+        cache.get(FRUIT, loader(2L));
+
+        cache.productChanged(product(3L, "Greens"));
+        cache.get(GREENS, loader(1L, 3L));
+        cache.get(FRUIT, loader(2L));
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void theLeastRecentlyUsedEntryGivesWay() {
+        ProductCatalogCache.Key topRated = new ProductCatalogCache.Key(filter(null), ProductSort.TOP_RATED, null, 20);
+        cache.get(GREENS, loader(1L));
+        cache.get(FRUIT, loader(2L));
+        cache.get(GREENS, loader(1L));
+        cache.get(topRated, loader(3L));
+
+        cache.get(GREENS, loader(1L));
+        cache.get(FRUIT, loader(2L));
+
+        assertThat(loads).hasValue(4);
+        assertThat(cache.stats().evictions()).isEqualTo(2);
+    }
+
+    private Supplier<ProductPageResponse> loader(Long... productIds) {
+        return () -> {
+            loads.incrementAndGet();
+            return page(productIds);
+        };
+    }
+
+    private static ProductPageResponse page(Long... productIds) {
+        List<ProductResponse> items = Arrays.stream(productIds)
+                .map(id -> product(id, "Greens"))
+                .toList();
+        return new ProductPageResponse(items, null, false);
+    }
+
+    private static ProductResponse product(Long id, String category) {
+        return new ProductResponse(id, "Product " + id, category, null, 2.0, "kg", 5, null, null,
+                true, ProductStatus.IN_STOCK, null, 1L, "Farm", "Here", null, 0, null);
+    }
+
+    private static ProductSearchFilter filter(String category) {
+        return ProductSearchFilter.of(null, category, null, null, null, null, null, null);
+    }
+
+    private static final class MutableClock extends Clock {
+        private long millis = 1_000_000;
+
+        void advance(long millis) {
+            this.millis += millis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.dto.product.ProductResponse;
+import com.FreshFarmPlatform.demo.model.product.Product;
+import com.FreshFarmPlatform.demo.model.user.Farmer;
+import com.FreshFarmPlatform.demo.support.PostgresIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        // Statistics are global; keep the background rollup writer out of the counts
+        "app.reports.rollup-flush-ms=3600000"
+})
+class ProductServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Farmer> farmers = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void statistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        productRepository.deleteAll(products);
+        userRepository.deleteAll(farmers);
+    }
+
+    @Test
+    void catalogListingRunsTheSameStatementsForOneOrManyFarmers() {
+        String single = uniqueName("category");
+        String many = uniqueName("category");
+        stock(single, 1, 1);
+        stock(many, 10, 3);
+
+        long one = statementsFor(() -> list(single));
+        long thirty = statementsFor(() -> list(many));
+
+        assertThat(list(single)).hasSize(1);
+        assertThat(list(many)).hasSize(30)
+                .allSatisfy(product -> assertThat(product.farmerName()).isNotBlank());
+        assertThat(thirty).isEqualTo(one).isEqualTo(1);
+    }
+
+    @Test
+    void farmerListingRunsTheSameStatementsForOneOrManyProducts() {
+        Farmer small = stock(uniqueName("category"), 1, 1).get(0);
+        Farmer large = stock(uniqueName("category"), 1, 25).get(0);
+
+        long one = statementsFor(() -> productService.listFarmerProducts(small.getUserId()));
+        long many = statementsFor(() -> productService.listFarmerProducts(large.getUserId()));
+
+        assertThat(productService.listFarmerProducts(large.getUserId())).hasSize(25);
+        assertThat(many).isEqualTo(one).isEqualTo(1);
+    }
+
+    private List<ProductResponse> list(String category) {
+        return productService.listProducts(null, category, null, null, null, null, null, null);
+    }
+
+    private long statementsFor(Supplier<List<ProductResponse>> listing) {
+        statistics.clear();
+        listing.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Farmer> stock(String category, int farmerCount, int productsPerFarmer) {
+        List<Farmer> created = new ArrayList<>();
+        for (int f = 0; f < farmerCount; f++) {
+            Farmer farmer = farmer();
+            farmers.add(farmer);
+            created.add(farmer);
+            for (int p = 0; p < productsPerFarmer; p++) {
+                products.add(productRepository.save(Product.builder()
+                        .productName(uniqueName("product"))
+                        .category(category)
+                        .price(2.5)
+                        .unit("kg")
+                        .quantity(10)
+                        .farmer(farmer)
+                        .build()));
+            }
+        }
+        return created;
+    }
+}
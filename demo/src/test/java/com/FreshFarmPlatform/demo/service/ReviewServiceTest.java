@@ -0,0 +1,172 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.dto.review.RatingHistogramResponse;
+import com.FreshFarmPlatform.demo.dto.review.ReviewPageResponse;
+import com.FreshFarmPlatform.demo.dto.review.ReviewRequest;
+import com.FreshFarmPlatform.demo.dto.review.ReviewResponse;
+import com.FreshFarmPlatform.demo.dto.review.ReviewSort;
+import com.FreshFarmPlatform.demo.model.product.Product;
+import com.FreshFarmPlatform.demo.model.user.Buyer;
+import com.FreshFarmPlatform.demo.model.user.Farmer;
+import com.FreshFarmPlatform.demo.repository.FarmerRepository;
+import com.FreshFarmPlatform.demo.security.PlatformUserDetails;
+import com.FreshFarmPlatform.demo.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReviewServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private FarmerRepository farmerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Farmer farmer;
+    private Buyer buyer;
+    private Product product;
+
+    @BeforeEach
+    void createFixtures() {
+        farmer = farmer();
+        buyer = buyer();
+        product = product(farmer, 10);
+        PlatformUserDetails principal = new PlatformUserDetails(buyer);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.update("delete from reviews where product_id = ?", product.getProductId());
+        jdbcTemplate.update("delete from product_rating_counts where product_id = ?", product.getProductId());
+        productRepository.delete(product);
+        userRepository.delete(buyer);
+        userRepository.delete(farmer);
+    }
+
+    @Test
+    void aggregatesFollowCreateReRateAndDelete() {
+        ReviewResponse kept = review(4);
+        ReviewResponse changed = review(2);
+
+        assertAggregates(6, 2, 3.0);
+        assertThat(stars(4)).isEqualTo(1);
+        assertThat(stars(2)).isEqualTo(1);
+
+        reviewService.updateReview(changed.reviewId(), new ReviewRequest(product.getProductId(), 5, "Better now"));
+
+        assertAggregates(9, 2, 4.5);
+        assertThat(stars(2)).isZero();
+        assertThat(stars(5)).isEqualTo(1);
+
+        reviewService.deleteReview(kept.reviewId());
+
+        assertAggregates(5, 1, 5.0);
+        assertThat(stars(4)).isZero();
+
+        reviewService.deleteReview(changed.reviewId());
+
+        assertAggregates(0, 0, 0.0);
+        assertThat(stars(5)).isZero();
+    }
+
+    @Test
+    void everySortPagesThroughTiesWithoutGapsOrRepeats() {
+        int[] ratings = {5, 3, 5, 1, 3, 5, 4};
+        List<ReviewResponse> reviews = new ArrayList<>();
+        for (int rating : ratings) {
+            reviews.add(review(rating));
+        }
+        // Three reviews share a timestamp, so NEWEST has to fall back to the id as well
+        LocalDateTime tied = LocalDateTime.of(2020, 6, 1, 9, 0);
+        for (ReviewResponse review : reviews.subList(2, 5)) {
+            jdbcTemplate.update("update reviews set review_date = ? where review_id = ?", tied, review.reviewId());
+        }
+        List<ReviewResponse> stored = reviewService.productReviews(product.getProductId());
+
+        assertThat(allPages(ReviewSort.NEWEST)).containsExactlyElementsOf(ids(stored, Comparator
+                .comparing(ReviewResponse::reviewDate)
+                .thenComparing(ReviewResponse::reviewId)
+                .reversed()));
+        assertThat(allPages(ReviewSort.HIGHEST)).containsExactlyElementsOf(ids(stored, Comparator
+                .comparingInt(ReviewResponse::rating)
+                .thenComparing(ReviewResponse::reviewId)
+                .reversed()));
+        assertThat(allPages(ReviewSort.LOWEST)).containsExactlyElementsOf(ids(stored, Comparator
+                .comparingInt(ReviewResponse::rating)
+                .thenComparing(ReviewResponse::reviewId)));
+    }
+
+    @Test
+    void onlyTheFirstPageCarriesTheHistogram() {
+        for (int rating : new int[]{5, 5, 4, 1}) {
+            review(rating);
+        }
+
+        ReviewPageResponse first = reviewService.productReviewsPage(product.getProductId(), ReviewSort.NEWEST, null, 2);
+        ReviewPageResponse second = reviewService.productReviewsPage(
+                product.getProductId(), ReviewSort.NEWEST, first.nextCursor(), 2);
+
+        RatingHistogramResponse histogram = first.histogram();
+        assertThat(histogram.stars()).containsExactly(
+                Map.entry(1, 1L), Map.entry(2, 0L), Map.entry(3, 0L), Map.entry(4, 1L), Map.entry(5, 2L));
+        assertThat(histogram.total()).isEqualTo(4);
+        assertThat(histogram.average()).isEqualTo(3.75);
+        assertThat(second.items()).hasSize(2);
+        assertThat(second.histogram()).isNull();
+    }
+
+    private List<Long> allPages(ReviewSort sort) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            ReviewPageResponse page = reviewService.productReviewsPage(product.getProductId(), sort, cursor, 2);
+            page.items().forEach(review -> ids.add(review.reviewId()));
+            cursor = page.hasMore() ? page.nextCursor() : null;
+        } while (cursor != null);
+        return ids;
+    }
+
+    private static List<Long> ids(List<ReviewResponse> reviews, Comparator<ReviewResponse> order) {
+        return reviews.stream().sorted(order).map(ReviewResponse::reviewId).toList();
+    }
+
+    private ReviewResponse review(int rating) {
+        return reviewService.createReview(new ReviewRequest(product.getProductId(), rating, "Rated " + rating));
+    }
+
+    private void assertAggregates(long sum, int count, double average) {
+        Product stored = productRepository.findById(product.getProductId()).orElseThrow();
+        assertThat(stored.getRatingSum()).isEqualTo(sum);
+        assertThat(stored.getRatingCount()).isEqualTo(count);
+        assertThat(stored.getRatingAverage()).isEqualTo(average);
+        Farmer storedFarmer = farmerRepository.findById(farmer.getUserId()).orElseThrow();
+        assertThat(storedFarmer.getRatingSum()).isEqualTo(sum);
+        assertThat(storedFarmer.getRatingCount()).isEqualTo(count);
+        assertThat(storedFarmer.getRating()).isEqualTo(average);
+    }
+
+    private long stars(int stars) {
+        return jdbcTemplate.queryForObject(
+                "select coalesce(sum(review_count), 0) from product_rating_counts where product_id = ? and stars = ?",
+                Long.class, product.getProductId(), stars);
+    }
+}
@@ -0,0 +1,174 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.model.order.Order;
+import com.FreshFarmPlatform.demo.model.order.OrderItem;
+import com.FreshFarmPlatform.demo.model.order.OrderStatus;
+import com.FreshFarmPlatform.demo.model.product.Product;
+import com.FreshFarmPlatform.demo.model.user.Buyer;
+import com.FreshFarmPlatform.demo.model.user.Farmer;
+import com.FreshFarmPlatform.demo.repository.OrderRepository;
+import com.FreshFarmPlatform.demo.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The scheduled writer stays out of the way so each test decides when events are drained
+@TestPropertySource(properties = "app.reports.rollup-flush-ms=3600000")
+class SalesRollupServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // A day no real order falls on, so the assertions can share a development database
+    private final LocalDate day = LocalDate.of(1990, 1, 1).plusDays(ThreadLocalRandom.current().nextInt(3000));
+    private final List<Long> orderIds = new ArrayList<>();
+    private Farmer farmer;
+    private Buyer buyer;
+    private Product product;
+
+    @BeforeEach
+    void createFixtures() {
+        farmer = farmer();
+        buyer = buyer();
+        product = product(farmer, 10);
+    }
+
+    @AfterEach
+    void removeRollups() {
+        for (String table : new String[]{"daily_product_sales", "daily_farmer_sales", "daily_category_sales", "daily_order_status"}) {
+            jdbcTemplate.update("delete from " + table + " where sales_date = ?", day);
+        }
+        orderIds.forEach(orderId -> {
+            jdbcTemplate.update("delete from sales_rollup_events where order_id = ?", orderId);
+            jdbcTemplate.update("delete from order_items where order_id = ?", orderId);
+            jdbcTemplate.update("delete from orders where order_id = ?", orderId);
+        });
+        productRepository.delete(product);
+        userRepository.delete(buyer);
+        userRepository.delete(farmer);
+    }
+
+    @Test
+    void placedOrderIsKeptDurablyUntilTheWriterAppliesIt() {
+        Order order = transactionTemplate.execute(status -> place(4));
+
+        // Committed with the order: a restart before the next run loses nothing
+        assertThat(pendingEvents(order)).isEqualTo(1);
+        assertThat(statusCount(OrderStatus.PENDING)).isNull();
+
+        salesRollupService.flush();
+
+        assertThat(pendingEvents(order)).isZero();
+        assertThat(statusCount(OrderStatus.PENDING)).isEqualTo(1L);
+        assertThat(jdbcTemplate.queryForObject(
+                "select quantity from daily_product_sales where sales_date = ?", Long.class, day)).isEqualTo(4L);
+        assertThat(jdbcTemplate.queryForObject(
+                "select revenue from daily_category_sales where sales_date = ?", Double.class, day)).isEqualTo(10.0);
+    }
+
+    @Test
+    void rolledBackOrderNeverReachesTheRollups() {
+        Order order = transactionTemplate.execute(status -> {
+            Order placed = place(1);
+            status.setRollbackOnly();
+            return placed;
+        });
+        salesRollupService.flush();
+
+        assertThat(pendingEvents(order)).isZero();
+        assertThat(statusCount(OrderStatus.PENDING)).isNull();
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from daily_product_sales where sales_date = ?", Long.class, day)).isZero();
+    }
+
+    @Test
+    void statusChangeMovesTheOrderBetweenStatusRows() {
+        Order order = transactionTemplate.execute(status -> place(2));
+        salesRollupService.flush();
+
+        transactionTemplate.executeWithoutResult(status ->
+                salesRollupService.recordStatusChange(order, OrderStatus.PENDING, OrderStatus.CANCELLED));
+        salesRollupService.flush();
+
+        assertThat(statusCount(OrderStatus.PENDING)).isZero();
+        assertThat(statusCount(OrderStatus.CANCELLED)).isEqualTo(1L);
+    }
+
+    @Test
+    void removedOrdersAreTakenBackOutIncludingChangesNotYetApplied() {
+        Order applied = transactionTemplate.execute(status -> place(3));
+        salesRollupService.flush();
+        Order waiting = transactionTemplate.execute(status -> place(2));
+        transactionTemplate.executeWithoutResult(status -> {
+            orderRepository.transitionStatus(waiting.getOrderId(), OrderStatus.PENDING, OrderStatus.IN_PROGRESS);
+            salesRollupService.recordStatusChange(waiting, OrderStatus.PENDING, OrderStatus.IN_PROGRESS);
+        });
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> ids = List.of(applied.getOrderId(), waiting.getOrderId());
+            salesRollupService.ordersRemoved(ids);
+            jdbcTemplate.update("delete from order_items where order_id in (?, ?)", ids.toArray());
+            jdbcTemplate.update("delete from orders where order_id in (?, ?)", ids.toArray());
+        });
+        salesRollupService.flush();
+
+        assertThat(statusCount(OrderStatus.PENDING)).isZero();
+        assertThat(statusCount(OrderStatus.IN_PROGRESS)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "select quantity from daily_product_sales where sales_date = ?", Long.class, day)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "select revenue from daily_farmer_sales where sales_date = ?", Double.class, day)).isZero();
+    }
+
+    private Order place(int quantity) {
+        Order order = Order.builder()
+                .buyer(buyer)
+                .orderDate(LocalDateTime.of(day, LocalTime.NOON))
+                .status(OrderStatus.PENDING)
+                .totalAmount(quantity * 2.5)
+                .build();
+        order.getItems().add(OrderItem.builder()
+                .order(order)
+                .product(product)
+                .quantity(quantity)
+                .priceAtOrder(2.5)
+                .subtotal(quantity * 2.5)
+                .build());
+        Order saved = orderRepository.save(order);
+        orderIds.add(saved.getOrderId());
+        salesRollupService.recordPlaced(saved);
+        return saved;
+    }
+
+    private int pendingEvents(Order order) {
+        return jdbcTemplate.queryForObject("select count(*) from sales_rollup_events where order_id = ?",
+                Integer.class, order.getOrderId());
+    }
+
+    private Long statusCount(OrderStatus status) {
+        return jdbcTemplate.query("select order_count from daily_order_status where sales_date = ? and order_status = ?",
+                rs -> rs.next() ? rs.getLong(1) : null, day, status.name());
+    }
+}
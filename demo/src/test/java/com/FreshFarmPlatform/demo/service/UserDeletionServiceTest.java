@@ -0,0 +1,173 @@
+package com.FreshFarmPlatform.demo.service;
+
+import com.FreshFarmPlatform.demo.dto.admin.UserDeletionJobResponse;
+import com.FreshFarmPlatform.demo.dto.admin.UserDeletionStatus;
+import com.FreshFarmPlatform.demo.exception.BadRequestException;
+import com.FreshFarmPlatform.demo.model.cart.Cart;
+import com.FreshFarmPlatform.demo.model.cart.CartItem;
+import com.FreshFarmPlatform.demo.model.order.Order;
+import com.FreshFarmPlatform.demo.model.order.OrderItem;
+import com.FreshFarmPlatform.demo.model.product.Product;
+import com.FreshFarmPlatform.demo.model.review.Review;
+import com.FreshFarmPlatform.demo.model.user.Buyer;
+import com.FreshFarmPlatform.demo.model.user.Farmer;
+import com.FreshFarmPlatform.demo.model.user.User;
+import com.FreshFarmPlatform.demo.repository.CartRepository;
+import com.FreshFarmPlatform.demo.repository.OrderRepository;
+import com.FreshFarmPlatform.demo.repository.ReviewRepository;
+import com.FreshFarmPlatform.demo.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserDeletionServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private UserDeletionService userDeletionService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private RatingAggregateService ratingAggregateService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void farmerWhoseProductsWereOrderedIsRefusedUpFront() {
+        Farmer farmer = farmer();
+        Product ordered = product(farmer, 10);
+        Product other = product(farmer, 10);
+        Buyer buyer = buyer();
+        order(buyer, ordered, 2);
+        review(buyer, other, 4);
+
+        assertThatThrownBy(() -> userDeletionService.register(farmer))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(productRepository.existsById(ordered.getProductId())).isTrue();
+        assertThat(productRepository.existsById(other.getProductId())).isTrue();
+        assertThat(reviewRepository.findViewsByProductId(other.getProductId())).hasSize(1);
+        assertThat(userRepository.existsById(farmer.getUserId())).isTrue();
+
+        delete(buyer);
+        delete(farmer);
+    }
+
+    @Test
+    void orderPlacedAfterRegistrationStopsTheJobBeforeAnythingIsDeleted() {
+        Farmer farmer = farmer();
+        Product ordered = product(farmer, 10);
+        Product other = product(farmer, 10);
+        Buyer buyer = buyer();
+        review(buyer, other, 5);
+        UserDeletionJobResponse job = userDeletionService.register(farmer);
+        order(buyer, ordered, 1);
+
+        assertThatThrownBy(() -> userDeletionService.run(job.jobId()))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(userDeletionService.progress(job.jobId()))
+                .hasValueSatisfying(progress -> assertThat(progress.status()).isEqualTo(UserDeletionStatus.FAILED));
+        assertThat(productRepository.findById(ordered.getProductId()))
+                .hasValueSatisfying(product -> assertThat(product.getQuantity()).isEqualTo(10));
+        assertThat(productRepository.existsById(other.getProductId())).isTrue();
+        assertThat(reviewRepository.findViewsByProductId(other.getProductId())).hasSize(1);
+        assertThat(userRepository.existsById(farmer.getUserId())).isTrue();
+
+        delete(buyer);
+        delete(farmer);
+    }
+
+    @Test
+    void farmerWithoutOrdersIsRemovedAndCartsAreRetotalled() {
+        Farmer farmer = farmer();
+        Farmer neighbour = farmer();
+        Product removed = product(farmer, 10);
+        Product kept = product(neighbour, 10);
+        Buyer buyer = buyer();
+        Cart cart = cart(buyer, removed, kept);
+        review(buyer, removed, 3);
+
+        UserDeletionJobResponse result = delete(farmer);
+
+        assertThat(result.status()).isEqualTo(UserDeletionStatus.COMPLETED);
+        assertThat(result.deleted()).containsEntry("products", 1L).containsEntry("reviews", 1L);
+        assertThat(productRepository.existsById(removed.getProductId())).isFalse();
+        assertThat(userRepository.existsById(farmer.getUserId())).isFalse();
+        assertThat(cartRepository.findById(cart.getCartId()))
+                .hasValueSatisfying(updated -> assertThat(updated.getTotalAmount()).isEqualTo(5.0));
+
+        delete(buyer);
+        delete(neighbour);
+    }
+
+    @Test
+    void buyerReviewsLeaveTheRatingAggregates() {
+        Farmer farmer = farmer();
+        Product product = product(farmer, 10);
+        Buyer leaving = buyer();
+        Buyer staying = buyer();
+        review(leaving, product, 1);
+        review(staying, product, 5);
+        order(leaving, product, 1);
+
+        UserDeletionJobResponse result = delete(leaving);
+
+        assertThat(result.deleted()).containsEntry("orders", 1L).containsEntry("reviews", 1L);
+        Product reloaded = productRepository.findById(product.getProductId()).orElseThrow();
+        assertThat(reloaded.getRatingCount()).isEqualTo(1);
+        assertThat(reloaded.getRatingAverage()).isEqualTo(5.0);
+
+        delete(staying);
+        delete(farmer);
+    }
+
+    private UserDeletionJobResponse delete(User user) {
+        return userDeletionService.run(userDeletionService.register(user).jobId());
+    }
+
+    private void order(Buyer buyer, Product product, int quantity) {
+        Order order = Order.builder().buyer(buyer).orderDate(LocalDateTime.now()).totalAmount(quantity * 2.5).build();
+        order.getItems().add(OrderItem.builder()
+                .order(order)
+                .product(product)
+                .quantity(quantity)
+                .priceAtOrder(2.5)
+                .subtotal(quantity * 2.5)
+                .build());
+        orderRepository.save(order);
+    }
+
+    private Cart cart(Buyer buyer, Product... products) {
+        Cart cart = Cart.builder().buyer(buyer).createdDate(LocalDateTime.now()).totalAmount(5.0 * products.length).build();
+        for (Product product : products) {
+            cart.getItems().add(CartItem.builder().cart(cart).product(product).quantity(2).subtotal(5.0).build());
+        }
+        return cartRepository.save(cart);
+    }
+
+    private void review(Buyer buyer, Product product, int rating) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Review review = reviewRepository.save(Review.builder()
+                    .buyer(buyer)
+                    .product(product)
+                    .rating(rating)
+                    .reviewDate(LocalDateTime.now())
+                    .build());
+            ratingAggregateService.reviewAdded(review);
+        });
+    }
+}
@@ -0,0 +1,119 @@
+package com.FreshFarmPlatform.demo.support;
+
+import com.FreshFarmPlatform.demo.model.product.Product;
+import com.FreshFarmPlatform.demo.model.user.Buyer;
+import com.FreshFarmPlatform.demo.model.user.Farmer;
+import com.FreshFarmPlatform.demo.model.user.UserType;
+import com.FreshFarmPlatform.demo.repository.ProductRepository;
+import com.FreshFarmPlatform.demo.repository.UserRepository;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.UUID;
+
+/**
+ * Base for tests that need the real schema (native SQL, row locks, init scripts). Runs against the database
+ * named by the TEST_DATABASE_URL environment variable when set (optionally with TEST_DATABASE_USERNAME and
+ * TEST_DATABASE_PASSWORD), which must be one set aside for tests, otherwise against a throwaway Postgres
+ * container when Docker is available. With neither the tests are skipped: they never fall back to the
+ * database in application.properties.
+ * Fixtures use unique names so tests can share a test database between runs.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ExtendWith(PostgresIntegrationTest.DatabaseAvailable.class)
+public abstract class PostgresIntegrationTest {
+
+    private static final String TEST_DATABASE_URL = System.getenv("TEST_DATABASE_URL");
+    private static final PostgreSQLContainer<?> POSTGRES = startContainer();
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected ProductRepository productRepository;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        if (POSTGRES != null) {
+            registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+            registry.add("spring.datasource.username", POSTGRES::getUsername);
+            registry.add("spring.datasource.password", POSTGRES::getPassword);
+        } else if (TEST_DATABASE_URL != null) {
+            registry.add("spring.datasource.url", () -> TEST_DATABASE_URL);
+            overrideFromEnvironment(registry, "spring.datasource.username", "TEST_DATABASE_USERNAME");
+            overrideFromEnvironment(registry, "spring.datasource.password", "TEST_DATABASE_PASSWORD");
+        }
+    }
+
+    private static PostgreSQLContainer<?> startContainer() {
+        if (TEST_DATABASE_URL != null || !DockerClientFactory.instance().isDockerAvailable()) {
+            return null;
+        }
+        PostgreSQLContainer<?> container = new PostgreSQLContainer<>("postgres:16-alpine");
+        container.start();
+        return container;
+    }
+
+    private static void overrideFromEnvironment(DynamicPropertyRegistry registry, String property, String variable) {
+        String value = System.getenv(variable);
+        if (value != null) {
+            registry.add(property, () -> value);
+        }
+    }
+
+    /** Decided before the application context starts, so a skipped class never opens a connection. */
+    static final class DatabaseAvailable implements ExecutionCondition {
+
+        @Override
+        public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+            if (TEST_DATABASE_URL != null || DockerClientFactory.instance().isDockerAvailable()) {
+                return ConditionEvaluationResult.enabled("Test database available");
+            }
+            return ConditionEvaluationResult.disabled("Needs Docker or TEST_DATABASE_URL");
+        }
+    }
+
+    protected Farmer farmer() {
+        String name = uniqueName("farmer");
+        return userRepository.save(Farmer.builder()
+                .username(name)
+                .email(name + "@test.local")
+                .password("x")
+                .userType(UserType.FARMER)
+                .farmName(name)
+                .build());
+    }
+
+    protected Buyer buyer() {
+        String name = uniqueName("buyer");
+        return userRepository.save(Buyer.builder()
+                .username(name)
+                .email(name + "@test.local")
+                .password("x")
+                .userType(UserType.BUYER)
+                .build());
+    }
+
+    protected Product product(Farmer farmer, int quantity) {
+        return productRepository.save(Product.builder()
+                .productName(uniqueName("product"))
+                .category("Vegetables")
+                .price(2.5)
+                .unit("kg")
+                .quantity(quantity)
+                .farmer(farmer)
+                .build());
+    }
+
+    protected static String uniqueName(String prefix) {
+        return prefix + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}